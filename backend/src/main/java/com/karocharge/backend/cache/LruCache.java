@@ -0,0 +1,85 @@
+package com.karocharge.backend.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map bounded by entry count and age: the least recently used entry makes room for a new one,
+ * and an entry older than the TTL is dropped the next time it is looked up. Expired entries
+ * nobody asks for again still count against maxEntries until LRU pushes them out, so the
+ * memory bound is maxEntries either way.
+ *
+ * Counts hits, misses and evictions (by size and by age) for the owner's metrics.
+ *
+ * Not thread-safe: the owner serializes all calls. Times are passed in (epoch millis) so the
+ * owner decides the clock.
+ */
+public class LruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long sizeEvictions;
+    private long expirations;
+
+    public LruCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be positive");
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LruCache.this.maxEntries) return false;
+                sizeEvictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The cached value, or null (a miss) if there is none or it has expired.
+     */
+    public V get(K key, long now) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= now) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    public void put(K key, V value, long now) {
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxEntries() { return maxEntries; }
+    public long hits() { return hits; }
+    public long misses() { return misses; }
+    public long sizeEvictions() { return sizeEvictions; }
+    public long expirations() { return expirations; }
+}
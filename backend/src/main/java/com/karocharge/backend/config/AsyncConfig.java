@@ -0,0 +1,26 @@
+package com.karocharge.backend.config;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for the async booking endpoints.
+ * Each CMS round trip / DB write runs on its own virtual thread, so a slow CMS parks
+ * a cheap virtual thread instead of a Tomcat request thread.
+ * Tasks carry the submitting thread's context (the current trace), so the CMS calls they
+ * make show up in the request's trace.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "bookingExecutor", destroyMethod = "close")
+    public ExecutorService bookingExecutor() {
+        return ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                ContextSnapshotFactory.builder().build());
+    }
+}
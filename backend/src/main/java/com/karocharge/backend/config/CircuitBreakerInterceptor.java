@@ -0,0 +1,122 @@
+package com.karocharge.backend.config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-route circuit breaker for outbound calls.
+ * CLOSED -> OPEN after N consecutive failures, OPEN -> HALF_OPEN after the open window,
+ * HALF_OPEN lets exactly one trial call through and closes again if it succeeds.
+ * While a route is OPEN calls fail fast instead of tying up a request thread.
+ */
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+
+    public CircuitBreakerInterceptor(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String route = routeOf(request.getURI());
+        RouteState state = routes.computeIfAbsent(route, r -> new RouteState());
+
+        if (!state.tryAcquire(openNanos)) {
+            throw new CircuitOpenException("Circuit open for " + route);
+        }
+
+        boolean recorded = false;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().is5xxServerError()) {
+                state.onFailure(failureThreshold);
+            } else {
+                state.onSuccess();
+            }
+            recorded = true;
+            return response;
+        } catch (IOException e) {
+            state.onFailure(failureThreshold);
+            recorded = true;
+            throw e;
+        } finally {
+            // Anything else (a RuntimeException from the call) says nothing about the route,
+            // but must not keep the half-open slot taken forever
+            if (!recorded) state.releaseTrial();
+        }
+    }
+
+    /** host:port, with the scheme's default port when the URI has none. */
+    static String routeOf(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getHost() + ":" + port;
+    }
+
+    public Map<String, State> getStates() {
+        Map<String, State> states = new LinkedHashMap<>();
+        routes.forEach((route, state) -> states.put(route, state.current(openNanos)));
+        return states;
+    }
+
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class RouteState {
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong openedAt = new AtomicLong(-1);      // -1 = closed
+        private final AtomicInteger trialInFlight = new AtomicInteger();
+
+        boolean tryAcquire(long openNanos) {
+            long opened = openedAt.get();
+            if (opened < 0) return true;
+            if (System.nanoTime() - opened < openNanos) return false;
+            // Half-open: only one caller gets to probe the route
+            return trialInFlight.compareAndSet(0, 1);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openedAt.set(-1);
+            trialInFlight.set(0);
+        }
+
+        void onFailure(int threshold) {
+            if (consecutiveFailures.incrementAndGet() >= threshold || trialInFlight.get() == 1) {
+                openedAt.set(System.nanoTime());
+            }
+            trialInFlight.set(0);
+        }
+
+        void releaseTrial() {
+            trialInFlight.set(0);
+        }
+
+        State current(long openNanos) {
+            long opened = openedAt.get();
+            if (opened < 0) return State.CLOSED;
+            return System.nanoTime() - opened < openNanos ? State.OPEN : State.HALF_OPEN;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.karocharge.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning for the shared outbound HTTP client (backend -> CMS).
+ * Bound from the 'karocharge.http.*' keys in application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "karocharge.http")
+public class HttpClientProperties {
+
+    // Pool limits
+    private int maxTotal = 200;
+    private int defaultMaxPerRoute = 20;
+    // Per-route overrides, keyed by "host:port" (e.g. karocharge.http.max-per-route[localhost\:9090]=100)
+    private Map<String, Integer> maxPerRoute = new HashMap<>();
+
+    // Timeouts
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Duration connectionRequestTimeout = Duration.ofMillis(500); // max wait for a pooled connection
+
+    // Keep-alive: idle connections older than this are evicted from the pool.
+    // Keep it below the peer's keep-alive timeout (Tomcat default: 20s).
+    private Duration idleTimeout = Duration.ofSeconds(15);
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class CircuitBreaker {
+        // Consecutive failures (I/O errors or 5xx) before the route is opened
+        private int failureThreshold = 5;
+        // How long an open route rejects calls before a single trial call is let through
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,34 @@
+package com.karocharge.backend.config;
+
+import com.karocharge.backend.service.BookingDeadlineScheduler;
+import com.karocharge.backend.service.LiveSessionRegistry;
+import com.karocharge.backend.service.OtpService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Gauges over the in-memory stores, read at scrape time. The timers (karocharge.bookings,
+     * karocharge.cms.requests) are recorded where the work happens, in ChargerService.
+     */
+    @Bean
+    public MeterBinder karochargeGauges(OtpService otpService,
+                                        LiveSessionRegistry liveSessions,
+                                        BookingDeadlineScheduler deadlines) {
+        return registry -> {
+            Gauge.builder("karocharge.otp.entries", otpService, OtpService::size)
+                    .description("OTPs issued and not yet verified or expired")
+                    .register(registry);
+            Gauge.builder("karocharge.sessions.live", liveSessions, LiveSessionRegistry::activeSessions)
+                    .description("Bookings tracked live for the session stream (booked or charging)")
+                    .register(registry);
+            Gauge.builder("karocharge.deadlines.pending", deadlines, BookingDeadlineScheduler::pendingDeadlines)
+                    .description("No-show, auto-stop and idle deadlines on the timing wheel")
+                    .register(registry);
+        };
+    }
+}
@@ -1,13 +1,91 @@
 package com.karocharge.backend.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
+/**
+ * One shared, pooled RestTemplate for every backend -> CMS call.
+ * Never build a 'new RestTemplate()' per request: it opens a fresh connection each time
+ * and has no timeouts, so a slow CMS can pin Tomcat threads forever.
+ */
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class RestTemplateConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(HttpClientProperties props) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(props.getMaxTotal())
+                .setMaxConnPerRoute(props.getDefaultMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(props.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(props.getReadTimeout()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        // Re-check pooled connections the peer may have closed (Tomcat drops idle keep-alives after 20s)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+
+        props.getMaxPerRoute().forEach((hostAndPort, max) -> {
+            String[] parts = hostAndPort.split(":");
+            HttpHost host = new HttpHost("http", parts[0], Integer.parseInt(parts[1]));
+            manager.setMaxPerRoute(new HttpRoute(host), max);
+        });
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                          HttpClientProperties props) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(props.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(props.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(props.getIdleTimeout()))
+                .build();
+    }
+
+    @Bean
+    public CircuitBreakerInterceptor circuitBreakerInterceptor(HttpClientProperties props) {
+        return new CircuitBreakerInterceptor(
+                props.getCircuitBreaker().getFailureThreshold(),
+                props.getCircuitBreaker().getOpenDuration());
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient,
+                                     CircuitBreakerInterceptor circuitBreakerInterceptor,
+                                     ObservationRegistry observationRegistry) {
+        // Only the converters we actually use: the default list probes JAXB/XML support on every
+        // call, which serialises request threads on class loading under load.
+        RestTemplate restTemplate = new RestTemplate(List.of(
+                new StringHttpMessageConverter(),
+                new JacksonJsonHttpMessageConverter()));
+        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(circuitBreakerInterceptor);
+        // Client span per call, and the trace context sent along as a 'traceparent' header
+        restTemplate.setObservationRegistry(observationRegistry);
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.karocharge.backend.config;
+
+import com.karocharge.backend.timeseries.EnergySeriesStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class TimeSeriesConfig {
+
+    /**
+     * Opens the energy curve store; the chunk index is rebuilt from the data file on startup.
+     */
+    @Bean(destroyMethod = "close")
+    public EnergySeriesStore energySeriesStore(
+            @Value("${karocharge.timeseries.dir:./data}") String dir,
+            @Value("${karocharge.timeseries.chunk-samples:720}") int chunkSamples) throws IOException {
+        return new EnergySeriesStore(Path.of(dir, "energy-series.dat"), chunkSamples);
+    }
+}
@@ -0,0 +1,27 @@
+package com.karocharge.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Spans of every hop (incoming requests, CMS calls) to a local NDJSON file; picked up
+     * by the tracing auto-configuration like any other exporter. Off without the property.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "karocharge.tracing.file")
+    public SpanFileExporter spanFileExporter(@Value("${karocharge.tracing.file}") String file,
+                                             @Value("${karocharge.tracing.max-file-size:100MB}") DataSize maxFileSize,
+                                             JsonMapper jsonMapper) throws IOException {
+        return new SpanFileExporter(Path.of(file), maxFileSize.toBytes(), jsonMapper);
+    }
+}
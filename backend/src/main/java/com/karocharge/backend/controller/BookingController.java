@@ -1,33 +1,68 @@
 package com.karocharge.backend.controller;
 
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.dto.BookingRequest;
+import com.karocharge.backend.dto.SessionCompletionDTO;
 import com.karocharge.backend.model.Booking;
 import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.service.BookingExportService;
+import com.karocharge.backend.service.BookingService;
 import com.karocharge.backend.service.ChargerService;
+import com.karocharge.backend.service.LiveSessionRegistry;
 import com.karocharge.backend.service.OtpService;
+import com.karocharge.backend.service.ReservationService;
+import com.karocharge.backend.timeseries.EnergySeriesStore;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/bookings")
 @CrossOrigin(origins = "http://localhost:5173")
 public class BookingController {
 
+    private static final int MAX_PAGE = 500;
+
     private final ChargerService chargerService;
+    private final BookingService bookingService;
     private final OtpService otpService;
     private final BookingRepository bookingRepository;
+    private final LiveSessionRegistry liveSessions;
+    private final EnergySeriesStore energySeries;
+    private final ReservationService reservations;
+    private final BookingExportService exports;
 
     public BookingController(ChargerService chargerService,
+                             BookingService bookingService,
                              OtpService otpService,
-                             BookingRepository bookingRepository) {
+                             BookingRepository bookingRepository,
+                             LiveSessionRegistry liveSessions,
+                             EnergySeriesStore energySeries,
+                             ReservationService reservations,
+                             BookingExportService exports) {
         this.chargerService = chargerService;
+        this.bookingService = bookingService;
         this.otpService = otpService;
         this.bookingRepository = bookingRepository;
+        this.liveSessions = liveSessions;
+        this.energySeries = energySeries;
+        this.reservations = reservations;
+        this.exports = exports;
     }
 
     /**
@@ -46,12 +81,7 @@ public class BookingController {
         );
 
         if (savedBooking != null) {
-            double durationMins = (booking.getDuration() != null) ? booking.getDuration() : 30;
-            double bookedHours = durationMins / 60.0;
-
-            savedBooking.setBookedDuration(bookedHours);
-            bookingRepository.save(savedBooking);
-
+            bookingService.onBooked(savedBooking);
             return ResponseEntity.ok(savedBooking);
         }
 
@@ -62,37 +92,17 @@ public class BookingController {
      * 4. Start charging
      */
     @PostMapping("/{id}/start")
-    public ResponseEntity<?> startCharging(@PathVariable Long id) {
-        Booking booking = bookingRepository.findById(id).orElse(null);
-        if (booking == null) return ResponseEntity.badRequest().body("Booking not found");
-
-        LocalDateTime now = LocalDateTime.now();
-        Duration durationPassed = Duration.between(booking.getStartTime(), now);
-        long totalMinutesPassed = durationPassed.toMinutes();
-
-        if (totalMinutesPassed > 1) {
-            booking.setLateMinutes((int) (totalMinutesPassed - 1));
-        } else {
-            booking.setLateMinutes(0);
-        }
-
-        boolean cmsSuccess = chargerService.triggerCmsUnblock(booking.getCharger().getId());
-
-        if (!cmsSuccess) {
-            return ResponseEntity.status(500).body("Failed to unblock hardware via CMS.");
-        }
-
-        booking.setStatus("CHARGING");
-        // IMPORTANT: This timestamp is the "Zero Point" for the timer
-        booking.setChargingStartedAt(LocalDateTime.now());
-        bookingRepository.save(booking);
-        chargerService.setChargerToCharging(booking.getCharger().getId());
-
-        return ResponseEntity.ok(Map.of(
-                "message", "Charging started",
-                "status", "CHARGING",
-                "lateMinutes", booking.getLateMinutes()
-        ));
+    public CompletableFuture<ResponseEntity<?>> startCharging(@PathVariable Long id) {
+        return bookingService.startCharging(id).thenApply(result -> switch (result.outcome()) {
+            case NOT_FOUND -> ResponseEntity.badRequest().body("Booking not found");
+            case NOT_YET -> ResponseEntity.status(409).body("Reservation has not started yet");
+            case CMS_REFUSED -> ResponseEntity.status(500).body("Failed to unblock hardware via CMS.");
+            case STARTED -> ResponseEntity.ok(Map.of(
+                    "message", "Charging started",
+                    "status", "CHARGING",
+                    "lateMinutes", result.booking().getLateMinutes()
+            ));
+        });
     }
 
     /**
@@ -101,7 +111,7 @@ public class BookingController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Long id) {
-        return bookingRepository.findById(id)
+        return bookingRepository.findWithChargerById(id)
                 .map(booking -> {
                     // Create a response map to include the live calculated duration
                     Map<String, Object> response = new HashMap<>();
@@ -129,39 +139,183 @@ public class BookingController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 7b. Live session stream (Server-Sent Events)
+     * Replaces polling GET /{id}: one 'session' event per second with the same fields,
+     * served from memory. The stream completes once the session is finished.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBooking(@PathVariable Long id) {
+        SseEmitter emitter = liveSessions.subscribe(id);
+        if (emitter == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * 7c. Energy curve of a session (from the meter stream)
+     * Defaults to the whole charging window; 'from'/'to' (epoch millis) narrow it and
+     * 'step' (seconds) downsamples to one reading per step.
+     */
+    @GetMapping("/{id}/energy-curve")
+    public ResponseEntity<?> getEnergyCurve(@PathVariable Long id,
+                                            @RequestParam(required = false) Long from,
+                                            @RequestParam(required = false) Long to,
+                                            @RequestParam(defaultValue = "0") long step) throws IOException {
+        Booking booking = bookingRepository.findById(id).orElse(null);
+        if (booking == null) return ResponseEntity.notFound().build();
+        if (booking.getChargingStartedAt() == null) return ResponseEntity.badRequest().body("Charging has not started");
+
+        long startedAt = booking.getChargingStartedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long endedAt = booking.getActualDuration() != null && !"CHARGING".equals(booking.getStatus())
+                ? startedAt + booking.getActualDuration() * 1000L
+                : System.currentTimeMillis();
+        long rangeFrom = from != null ? Math.max(from, startedAt) : startedAt;
+        // Small grace period: the last meter frame can land a moment after the CMS stop
+        long rangeTo = to != null ? Math.min(to, endedAt + 5_000) : endedAt + 5_000;
+
+        EnergySeriesStore.Curve curve = energySeries.query(
+                booking.getCharger().getId(), rangeFrom, rangeTo, step * 1000);
+        double[] energyKwh = new double[curve.size()];
+        for (int i = 0; i < energyKwh.length; i++) energyKwh[i] = curve.energyWh()[i] / 1000.0;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("bookingId", id);
+        response.put("from", rangeFrom);
+        response.put("to", rangeTo);
+        response.put("timestamps", curve.timestamps());
+        response.put("energyKwh", energyKwh);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 8. Extend Booking
      * Resets status to CHARGING so the Auto-Stop logic triggers again later.
      */
     @PostMapping("/{id}/extend")
-    public ResponseEntity<?> extendBooking(@PathVariable Long id, @RequestParam Integer extraMinutes) {
-        Booking booking = bookingRepository.findById(id).orElse(null);
-        if (booking == null) return ResponseEntity.badRequest().body("Booking not found");
+    public CompletableFuture<ResponseEntity<?>> extendBooking(@PathVariable Long id, @RequestParam Integer extraMinutes) {
+        return bookingService.extendBooking(id, extraMinutes).thenApply(booking -> {
+            if (booking == null) return ResponseEntity.badRequest().body("Booking not found");
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "Session extended",
+                    "newDuration", booking.getDuration(),
+                    "status", "CHARGING"
+            ));
+        });
+    }
+
+    /**
+     * 9. Reserve a future slot
+     * The charger stays AVAILABLE until the slot begins; then the booking turns BOOKED and the
+     * usual no-show window applies. 409 with the next free start if the slot is taken.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserveSlot(@RequestBody BookingRequest request) {
+        if (request == null || request.getChargerId() == null || request.getUserName() == null
+                || request.getDuration() == null || request.getStartTime() == null) {
+            return ResponseEntity.badRequest().body("chargerId, userName, duration and startTime are required");
+        }
 
-        // 1. Update the duration limit
-        int newDurationMins = booking.getDuration() + extraMinutes;
-        booking.setDuration(newDurationMins);
-        booking.setBookedDuration(newDurationMins / 60.0);
+        Booking booking;
+        try {
+            booking = bookingService.reserve(request.getChargerId(), request.getUserName(),
+                    request.getStartTime(), request.getDuration());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (booking == null) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "message", "Slot already taken",
+                    "nextFreeSlot", reservations.nextFreeSlot(request.getChargerId(), request.getStartTime(), request.getDuration())
+            ));
+        }
+        return ResponseEntity.ok(booking);
+    }
+
+    /**
+     * 9b. Cancel a reservation before its slot begins
+     */
+    @PostMapping("/{id}/cancel-reservation")
+    public ResponseEntity<?> cancelReservation(@PathVariable Long id) {
+        Booking booking = bookingService.cancelReservation(id);
+        if (booking == null) return ResponseEntity.badRequest().body("No upcoming reservation with this id");
+        return ResponseEntity.ok(Map.of("message", "Reservation cancelled"));
+    }
 
-        // 2. Set status back to CHARGING (in case it was already COMPLETED by auto-stop)
-        booking.setStatus("CHARGING");
+    /**
+     * 10. Booking history of a driver, newest first, in keyset pages: pass the page's 'next'
+     * as ?after= for the following one.
+     */
+    @GetMapping("/user/{userName}")
+    public ResponseEntity<?> getByUser(@PathVariable String userName,
+                                       @RequestParam(required = false) Long after,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        if (limit <= 0 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body("limit must be in [1, " + MAX_PAGE + "]");
+        }
+        return ResponseEntity.ok(bookingService.bookingsByUser(userName, after, limit));
+    }
 
-        // 3. Optional: If the CMS stopped the hardware, we re-trigger unblock
-        chargerService.triggerCmsUnblock(booking.getCharger().getId());
+    /**
+     * 10b. Booking history of a charger, same paging as 10.
+     */
+    @GetMapping("/charger/{chargerId}")
+    public ResponseEntity<?> getByCharger(@PathVariable Long chargerId,
+                                          @RequestParam(required = false) Long after,
+                                          @RequestParam(defaultValue = "50") int limit) {
+        if (limit <= 0 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body("limit must be in [1, " + MAX_PAGE + "]");
+        }
+        return ResponseEntity.ok(bookingService.bookingsByCharger(chargerId, after, limit));
+    }
 
-        bookingRepository.save(booking);
+    /**
+     * 10c. Booking export (NDJSON or CSV), streamed straight from a DB cursor to the response,
+     * gzipped when the client accepts it. Filters are optional: ?hostName=, ?chargerId=,
+     * ?from= / ?to= on the start time (ISO date-time, 'to' exclusive).
+     */
+    @GetMapping("/export")
+    public void exportBookings(@RequestParam(defaultValue = "ndjson") String format,
+                               @RequestParam(required = false) String hostName,
+                               @RequestParam(required = false) Long chargerId,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        BookingExportService.Format exportFormat;
+        try {
+            exportFormat = BookingExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(400, "format must be ndjson or csv");
+            return;
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            response.sendError(400, "from must be before to");
+            return;
+        }
 
-        return ResponseEntity.ok(Map.of(
-                "message", "Session extended",
-                "newDuration", newDurationMins,
-                "status", "CHARGING"
-        ));
+        boolean csv = exportFormat == BookingExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + (csv ? "csv" : "ndjson") + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        exports.export(new BookingExportService.Filter(hostName, chargerId, from, to), exportFormat, out);
+        if (out instanceof GZIPOutputStream zip) zip.finish();
+        out.flush();
     }
 
     // Existing methods (generateOtp, verifyOtp, stopCharging, receiveSessionData) remain the same...
     @PostMapping("/{id}/generate-otp")
     public ResponseEntity<?> generateOtp(@PathVariable Long id) {
-        return ResponseEntity.ok(otpService.generateOtp(id));
+        String otp = otpService.generateOtp(id);
+        if (otp == null && otpService.isLockedOut(id)) {
+            return ResponseEntity.status(429).body(Map.of("message", "Too many wrong attempts, try again later"));
+        }
+        if (otp == null) return ResponseEntity.status(429).body(Map.of("message", "Too many pending OTPs, try again shortly"));
+        return ResponseEntity.ok(otp);
     }
 
     @PostMapping("/{id}/verify-otp")
@@ -176,33 +330,36 @@ public class BookingController {
         Booking booking = bookingRepository.findById(id).orElse(null);
         if (booking == null) return ResponseEntity.badRequest().body("Booking not found");
         if (cancelledBy != null && !cancelledBy.isEmpty()) {
+            // Not started yet: nothing to stop on the CMS (it would answer FAIL and send no completion)
+            if (bookingService.cancelBeforeStart(id, cancelledBy) != null) {
+                return ResponseEntity.ok(Map.of("message", "Booking cancelled", "cancelledBy", cancelledBy));
+            }
             booking.setCancelledBy(cancelledBy);
             booking.setStatus("CANCELLED");
-            bookingRepository.save(booking);
+            liveSessions.publish(bookingRepository.save(booking));
         }
-        String cmsStopUrl = "http://localhost:9090/api/cms/chargers/" + booking.getCharger().getId() + "/stop";
-        try {
-            new RestTemplate().postForEntity(cmsStopUrl, null, String.class);
-            return ResponseEntity.ok(Map.of("message", "Stop signal sent", "cancelledBy", cancelledBy));
-        } catch (Exception e) {
+        if (!chargerService.triggerCmsStop(booking.getCharger().getId())) {
             return ResponseEntity.status(500).body("CMS communication error");
         }
+        return ResponseEntity.ok(Map.of("message", "Stop signal sent", "cancelledBy", cancelledBy != null ? cancelledBy : ""));
     }
 
     @PostMapping("/complete")
-    public ResponseEntity<?> receiveSessionData(@RequestBody Map<String, Object> data) {
-        Long chargerId = Long.valueOf(data.get("chargerId").toString());
-        Booking booking = bookingRepository.findTopByChargerIdAndStatusOrderByStartTimeDesc(chargerId, "CHARGING");
-        if (booking == null) booking = bookingRepository.findTopByChargerIdAndStatusOrderByStartTimeDesc(chargerId, "CANCELLED");
-
-        if (booking != null) {
-            if (!"CANCELLED".equals(booking.getStatus())) booking.setStatus("COMPLETED");
-            booking.setTotalEnergy(Double.valueOf(data.get("totalEnergy").toString()));
-            booking.setActualDuration(Integer.valueOf(data.get("durationSeconds").toString()));
-            bookingRepository.save(booking);
-            chargerService.unblockChargerLocally(chargerId);
-            return ResponseEntity.ok("Sync successful");
+    public ResponseEntity<?> receiveSessionData(@RequestBody SessionCompletionDTO data) {
+        if ("NOT_FOUND".equals(bookingService.completeSession(data))) {
+            return ResponseEntity.status(404).body("No active session");
         }
-        return ResponseEntity.status(404).body("No active session");
+        return ResponseEntity.ok("Sync successful");
+    }
+
+    /**
+     * Batch completion sync from the CMS outbox. Redelivered records (same completionId) are
+     * reported as DUPLICATE and not applied twice. Always answers 200 with one result per
+     * record: the CMS retries only the ERROR ones, and a bad record neither holds back the
+     * rest of the batch nor counts against the CMS's circuit breaker for this backend.
+     */
+    @PostMapping("/complete/batch")
+    public ResponseEntity<List<BatchResultDTO>> receiveSessionBatch(@RequestBody List<SessionCompletionDTO> batch) {
+        return ResponseEntity.ok(bookingService.completeSessions(batch));
     }
-}
\ No newline at end of file
+}
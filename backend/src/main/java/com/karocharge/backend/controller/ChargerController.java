@@ -1,26 +1,51 @@
 package com.karocharge.backend.controller;
 
+import com.karocharge.backend.dto.BatchResultDTO;
 import com.karocharge.backend.dto.BookingRequest;
+import com.karocharge.backend.dto.ChargerSearchResultDTO;
+import com.karocharge.backend.dto.NearbyChargerDTO;
 import com.karocharge.backend.model.Booking;
 import com.karocharge.backend.model.Charger;
-import com.karocharge.backend.repository.ChargerRepository;
+import com.karocharge.backend.service.BookingService;
+import com.karocharge.backend.service.ChargerLocator;
+import com.karocharge.backend.service.ChargerSearchIndex;
 import com.karocharge.backend.service.ChargerService;
+import com.karocharge.backend.service.ReservationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = HttpHeaders.ETAG)
 @RestController
 @RequestMapping("/api/chargers")
 public class ChargerController {
 
-    private final ChargerService chargerService;
-    private final ChargerRepository chargerRepository;
+    private static final int MAX_PAGE = 500;
 
-    public ChargerController(ChargerService chargerService, ChargerRepository chargerRepository) {
+    private final ChargerService chargerService;
+    private final BookingService bookingService;
+    private final ReservationService reservations;
+    private final ChargerLocator chargerLocator;
+    private final ChargerSearchIndex chargerSearch;
+
+    public ChargerController(ChargerService chargerService,
+                             BookingService bookingService,
+                             ReservationService reservations,
+                             ChargerLocator chargerLocator,
+                             ChargerSearchIndex chargerSearch) {
         this.chargerService = chargerService;
-        this.chargerRepository = chargerRepository;
+        this.bookingService = bookingService;
+        this.reservations = reservations;
+        this.chargerLocator = chargerLocator;
+        this.chargerSearch = chargerSearch;
     }
 
     // 1. Host a charger
@@ -29,10 +54,71 @@ public class ChargerController {
         return ResponseEntity.ok(chargerService.createCharger(charger));
     }
 
-    // 2. Get all chargers
+    // 2. Get all chargers, one keyset page at a time: pass the page's 'next' as ?after= for
+    //    the following one (null next = last page)
+    //    e.g. GET /api/chargers?limit=50&after=1200
+    //    The ETag is the charger change version: If-None-Match gets a 304 until any charger
+    //    changes, and the version is where delta sync (2d.) picks up.
     @GetMapping
-    public ResponseEntity<List<Charger>> getAllChargers() {
-        return ResponseEntity.ok(chargerService.getAllChargers());
+    public ResponseEntity<?> getAllChargers(@RequestParam(required = false) Long after,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body("limit must be in [1, " + MAX_PAGE + "]");
+        }
+        String etag = versionTag();
+        if (request.checkNotModified(etag)) return null; // 304
+        return ResponseEntity.ok().eTag(etag).body(chargerService.listChargers(after, limit));
+    }
+
+    // 2d. Delta sync: chargers created or changed since a version (the ETag of a listing, or
+    //     the 'version' of the previous call), with the version to ask with next time
+    //     e.g. GET /api/chargers/changes?since=4711
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam long since,
+                                     @RequestParam(defaultValue = "500") int limit) {
+        if (since < 0 || limit <= 0 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body("since must be >= 0 and limit in [1, " + MAX_PAGE + "]");
+        }
+        return ResponseEntity.ok(chargerService.changesSince(since, limit));
+    }
+
+    // 2b. Nearest AVAILABLE chargers around a point, served from the in-memory index
+    //     e.g. GET /api/chargers/nearby?lat=18.52&lng=73.85&radiusKm=5&k=10&type=DC
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearby(@RequestParam double lat,
+                                    @RequestParam double lng,
+                                    @RequestParam(defaultValue = "10") double radiusKm,
+                                    @RequestParam(defaultValue = "10") int k,
+                                    @RequestParam(required = false) String brand,
+                                    @RequestParam(required = false) String type) {
+        if (Math.abs(lat) > 90 || Math.abs(lng) > 180 || radiusKm <= 0 || radiusKm > 500 || k <= 0 || k > 100) {
+            return ResponseEntity.badRequest().body("lat/lng out of range, radiusKm must be in (0, 500] and k in [1, 100]");
+        }
+        List<NearbyChargerDTO> chargers = chargerLocator.nearby(lat, lng, radiusKm, k, brand, type);
+        return ResponseEntity.ok(chargers);
+    }
+
+    // 2c. Faceted search: any combination of filters (repeat a parameter to match any of
+    //     several values), paginated, with per-value counts for every facet
+    //     e.g. GET /api/chargers/search?brand=Tata&brand=Ather&status=AVAILABLE&availableFrom=2026-01-01
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) List<String> brand,
+                                    @RequestParam(required = false) List<String> type,
+                                    @RequestParam(required = false) List<String> status,
+                                    @RequestParam(required = false) List<String> host,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableFrom,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableTo,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size <= 0 || size > 200) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size in [1, 200]");
+        }
+        if (availableFrom != null && availableTo != null && availableFrom.isAfter(availableTo)) {
+            return ResponseEntity.badRequest().body("availableFrom must not be after availableTo");
+        }
+        ChargerSearchResultDTO result = chargerSearch.search(brand, type, status, host, availableFrom, availableTo, page, size);
+        return ResponseEntity.ok(result);
     }
 
     // 3. Get charger by ID
@@ -45,34 +131,40 @@ public class ChargerController {
         return ResponseEntity.ok(charger);
     }
 
-    // 4. Get chargers by Host Name
+    // 4. Get chargers by Host Name (keyset pages and ETag, like 2.)
     @GetMapping("/host/{hostName}")
-    public List<Charger> getByHost(@PathVariable String hostName) {
-        return chargerRepository.findByHostName(hostName);
+    public ResponseEntity<?> getByHost(@PathVariable String hostName,
+                                       @RequestParam(required = false) Long after,
+                                       @RequestParam(defaultValue = "50") int limit,
+                                       WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body("limit must be in [1, " + MAX_PAGE + "]");
+        }
+        String etag = versionTag();
+        if (request.checkNotModified(etag)) return null; // 304
+        return ResponseEntity.ok().eTag(etag).body(chargerService.listChargersByHost(hostName, after, limit));
     }
 
     // 5. Book charger (Block CMS + Create Booking Snapshot)
     @PostMapping("/{id}/book")
-    public ResponseEntity<?> bookCharger(
+    public CompletableFuture<ResponseEntity<?>> bookCharger(
             @PathVariable Long id,
             @RequestBody BookingRequest request) {
 
         if (request == null || request.getUserName() == null || request.getDuration() == null) {
-            return ResponseEntity.badRequest().body("userName and duration are required");
-        }
-
-        Booking booking = chargerService.bookCharger(
-                id,
-                request.getUserName(),
-                request.getDuration()
-        );
-
-        if (booking == null) {
-            return ResponseEntity.badRequest()
-                    .body("Booking failed or charger already booked / CMS unreachable");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("userName and duration are required"));
         }
 
-        return ResponseEntity.ok(booking);
+        return chargerService.bookChargerAsync(id, request.getUserName(), request.getDuration())
+                .thenApply(booking -> {
+                    if (booking == null) {
+                        return ResponseEntity.badRequest()
+                                .body("Booking failed or charger already booked / CMS unreachable");
+                    }
+                    bookingService.onBooked(booking);
+                    return ResponseEntity.ok(booking);
+                });
     }
 
     // --- NEW ENDPOINTS FOR CMS HANDSHAKE ---
@@ -110,9 +202,42 @@ public class ChargerController {
         return ResponseEntity.ok(charger);
     }
 
-    // 7. Ping endpoint
+    // 7. Fleet operation: same CMS command for many chargers in one CMS round trip
+    //    e.g. POST /api/chargers/batch/stop with body [1, 2, 3]
+    @PostMapping("/batch/{operation}")
+    public ResponseEntity<?> batchCommand(@PathVariable String operation, @RequestBody List<Long> ids) {
+        if (!List.of("BLOCK", "UNBLOCK", "STOP").contains(operation.toUpperCase())) {
+            return ResponseEntity.badRequest().body("operation must be block, unblock or stop");
+        }
+        List<BatchResultDTO> results = chargerService.batchCmsCommand(ids, operation);
+        return ResponseEntity.ok(results);
+    }
+
+    // 8. Earliest start (at or after 'from', default now) with 'duration' free minutes,
+    //    for the advance booking picker
+    @GetMapping("/{id}/next-free-slot")
+    public ResponseEntity<?> nextFreeSlot(
+            @PathVariable Long id,
+            @RequestParam Integer duration,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from) {
+        if (chargerService.getChargerById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime start = from != null && from.isAfter(LocalDateTime.now()) ? from : LocalDateTime.now();
+        return ResponseEntity.ok(Map.of("chargerId", id, "start", reservations.nextFreeSlot(id, start, duration)));
+    }
+
+    // 9. Ping endpoint
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
         return ResponseEntity.ok("pong");
     }
-}
\ No newline at end of file
+
+    /**
+     * Taken before the listing is read, so a change that lands meanwhile only makes the tag
+     * older than the body (the next conditional GET then refetches), never newer.
+     */
+    private String versionTag() {
+        return "\"" + chargerService.currentVersion() + "\"";
+    }
+}
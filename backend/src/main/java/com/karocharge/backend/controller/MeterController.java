@@ -0,0 +1,39 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.dto.MeterBatchDTO;
+import com.karocharge.backend.service.MeterReadings;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Live meter stream from the CMS (see MeterReadings). Not used by the React app.
+ */
+@RestController
+@RequestMapping("/api/meter-values")
+public class MeterController {
+
+    private final MeterReadings meterReadings;
+
+    public MeterController(MeterReadings meterReadings) {
+        this.meterReadings = meterReadings;
+    }
+
+    // One batched frame for all active chargers; 409 asks the CMS for a keyframe
+    @PostMapping
+    public ResponseEntity<?> receiveFrame(@RequestBody MeterBatchDTO frame) throws IOException {
+        if (!meterReadings.apply(frame)) {
+            return ResponseEntity.status(409).body(Map.of("message", "Keyframe required"));
+        }
+        return ResponseEntity.ok(Map.of("ack", frame.getSequence()));
+    }
+
+    @GetMapping("/{chargerId}")
+    public ResponseEntity<?> latestReading(@PathVariable Long chargerId) {
+        Long energyWh = meterReadings.energyWh(chargerId);
+        if (energyWh == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(Map.of("chargerId", chargerId, "energyWh", energyWh));
+    }
+}
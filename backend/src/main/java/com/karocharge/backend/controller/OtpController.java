@@ -19,6 +19,12 @@ public class OtpController {
     @PostMapping("/{bookingId}/generate")
     public ResponseEntity<String> generateOtp(@PathVariable Long bookingId) {
         String otp = otpService.generateOtp(bookingId);
+        if (otp == null && otpService.isLockedOut(bookingId)) {
+            return ResponseEntity.status(429).body("{\"message\": \"Too many wrong attempts, try again later\"}");
+        }
+        if (otp == null) {
+            return ResponseEntity.status(429).body("{\"message\": \"Too many pending OTPs, try again shortly\"}");
+        }
         return ResponseEntity.ok(otp);
     }
 
@@ -0,0 +1,62 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.config.CircuitBreakerInterceptor;
+import com.karocharge.backend.service.ChargerCache;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational endpoints (pool usage, circuit state, cache hit rates). Not used by the React app.
+ */
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CircuitBreakerInterceptor circuitBreaker;
+    private final ChargerCache chargerCache;
+
+    public SystemController(PoolingHttpClientConnectionManager connectionManager,
+                            CircuitBreakerInterceptor circuitBreaker,
+                            ChargerCache chargerCache) {
+        this.connectionManager = connectionManager;
+        this.circuitBreaker = circuitBreaker;
+        this.chargerCache = chargerCache;
+    }
+
+    // Outbound HTTP pool utilisation (total + per route) and circuit breaker state
+    @GetMapping("/http-client")
+    public ResponseEntity<?> httpClientStats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toHostString(), toMap(connectionManager.getStats(route)));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("pool", toMap(connectionManager.getTotalStats()));
+        response.put("routes", routes);
+        response.put("circuits", circuitBreaker.getStates());
+        return ResponseEntity.ok(response);
+    }
+
+    // Charger cache hits, misses and evictions (by size and by age)
+    @GetMapping("/caches")
+    public ResponseEntity<?> cacheStats() {
+        return ResponseEntity.ok(chargerCache.stats());
+    }
+
+    private Map<String, Object> toMap(PoolStats stats) {
+        return Map.of(
+                "leased", stats.getLeased(),
+                "pending", stats.getPending(),
+                "available", stats.getAvailable(),
+                "max", stats.getMax()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.karocharge.backend.dto;
+
+/**
+ * One entry of a batch request: which charger and what to do with it (BLOCK / UNBLOCK / STOP).
+ */
+public class BatchCommandDTO {
+
+    private Long chargerId;
+    private String operation;
+
+    public BatchCommandDTO() {
+    }
+
+    public BatchCommandDTO(Long chargerId, String operation) {
+        this.chargerId = chargerId;
+        this.operation = operation;
+    }
+
+    public Long getChargerId() {
+        return chargerId;
+    }
+
+    public void setChargerId(Long chargerId) {
+        this.chargerId = chargerId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+}
@@ -2,6 +2,8 @@ package com.karocharge.backend.dto;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class BookingRequest {
     // The name of the guest booking the charger
@@ -12,4 +14,7 @@ public class BookingRequest {
 
     // Crucial for linking: the ID of the charger being booked
     private Long chargerId;
+
+    // Only for advance reservations: when the slot begins
+    private LocalDateTime startTime;
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.karocharge.backend.dto;
+
+import com.karocharge.backend.repository.ChargerRepository;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/chargers/changes: the chargers created or changed since the requested
+ * version, and the version to pass as ?since= next time. 'more' means the changes did not fit
+ * in one response; ask again right away.
+ */
+public class ChargerChangesDTO {
+
+    private long version;
+    private List<ChargerRepository.ListingView> chargers;
+    private boolean more;
+
+    public ChargerChangesDTO() {
+    }
+
+    public ChargerChangesDTO(long version, List<ChargerRepository.ListingView> chargers, boolean more) {
+        this.version = version;
+        this.chargers = chargers;
+        this.more = more;
+    }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public List<ChargerRepository.ListingView> getChargers() { return chargers; }
+    public void setChargers(List<ChargerRepository.ListingView> chargers) { this.chargers = chargers; }
+
+    public boolean isMore() { return more; }
+    public void setMore(boolean more) { this.more = more; }
+}
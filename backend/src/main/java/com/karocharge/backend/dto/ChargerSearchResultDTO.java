@@ -0,0 +1,46 @@
+package com.karocharge.backend.dto;
+
+import com.karocharge.backend.model.Charger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of GET /api/chargers/search plus, for every facet field, the number of matching
+ * chargers per value (largest first).
+ */
+public class ChargerSearchResultDTO {
+
+    private int total;
+    private int page;
+    private int size;
+    private List<Charger> chargers;
+    private Map<String, Map<String, Integer>> facets;
+
+    public ChargerSearchResultDTO() {
+    }
+
+    public ChargerSearchResultDTO(int total, int page, int size, List<Charger> chargers,
+                                  Map<String, Map<String, Integer>> facets) {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.chargers = chargers;
+        this.facets = facets;
+    }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public List<Charger> getChargers() { return chargers; }
+    public void setChargers(List<Charger> chargers) { this.chargers = chargers; }
+
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+}
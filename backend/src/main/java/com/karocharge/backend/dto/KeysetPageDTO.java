@@ -0,0 +1,43 @@
+package com.karocharge.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. 'next' is the cursor to pass as ?after= for the
+ * following page, or null on the last page. Cursors are row ids, so they stay valid while
+ * rows are inserted or deleted elsewhere in the listing.
+ */
+public class KeysetPageDTO<T> {
+
+    private List<T> items;
+    private int limit;
+    private Long next;
+
+    public KeysetPageDTO() {
+    }
+
+    public KeysetPageDTO(List<T> items, int limit, Long next) {
+        this.items = items;
+        this.limit = limit;
+        this.next = next;
+    }
+
+    /**
+     * Builds a page from rows fetched with limit + 1: the extra row only says there is more.
+     */
+    public static <T> KeysetPageDTO<T> of(List<T> rows, int limit, Function<T, Long> key) {
+        if (rows.size() <= limit) return new KeysetPageDTO<>(rows, limit, null);
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPageDTO<>(items, limit, key.apply(items.get(limit - 1)));
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public Long getNext() { return next; }
+    public void setNext(Long next) { this.next = next; }
+}
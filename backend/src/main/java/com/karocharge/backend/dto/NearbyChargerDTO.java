@@ -0,0 +1,61 @@
+package com.karocharge.backend.dto;
+
+/**
+ * One hit of GET /api/chargers/nearby: the charger's listing fields plus its distance
+ * from the searched point.
+ */
+public class NearbyChargerDTO {
+
+    private Long id;
+    private String hostName;
+    private String location;
+    private String brand;
+    private String type;
+    private String status;
+    private Double latitude;
+    private Double longitude;
+    private double distanceKm;
+
+    public NearbyChargerDTO() {
+    }
+
+    public NearbyChargerDTO(Long id, String hostName, String location, String brand, String type, String status,
+                            Double latitude, Double longitude, double distanceKm) {
+        this.id = id;
+        this.hostName = hostName;
+        this.location = location;
+        this.brand = brand;
+        this.type = type;
+        this.status = status;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getHostName() { return hostName; }
+    public void setHostName(String hostName) { this.hostName = hostName; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+}
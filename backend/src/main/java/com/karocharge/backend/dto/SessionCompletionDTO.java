@@ -1,11 +1,14 @@
 package com.karocharge.backend.dto;
 
 public class SessionCompletionDTO {
+    private String completionId; // Set by the CMS outbox; used to drop redelivered completions
     private Long chargerId;
     private Double totalEnergy;
     private Long durationSeconds;
 
     // Generate Getters and Setters
+    public String getCompletionId() { return completionId; }
+    public void setCompletionId(String completionId) { this.completionId = completionId; }
     public Long getChargerId() { return chargerId; }
     public void setChargerId(Long chargerId) { this.chargerId = chargerId; }
     public Double getTotalEnergy() { return totalEnergy; }
@@ -0,0 +1,304 @@
+package com.karocharge.backend.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid of points, for k-nearest searches within a radius.
+ *
+ * Points are bucketed into square cells of cellDegrees (a fixed-precision geohash, keyed by
+ * row and column instead of a base-32 string). A search visits the cells in rings of growing
+ * Chebyshev distance around the query cell and stops as soon as it has k hits and the next
+ * ring cannot hold anything closer, so its cost depends on the local density, not on the
+ * total number of points.
+ *
+ * Not thread-safe: the owner serializes writes against reads.
+ */
+public class GeoGrid<T> {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+    private final int columns;
+    private final Map<Long, Node<T>> byId = new HashMap<>();
+    private final Map<Long, Cell<T>> cells = new HashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Adds a point, or moves and replaces it if the id is already present.
+     */
+    public void put(long id, double latitude, double longitude, T item) {
+        Node<T> node = byId.get(id);
+        long key = cellKey(row(latitude), column(longitude));
+        if (node == null) {
+            node = new Node<>();
+            byId.put(id, node);
+        } else if (node.cellKey != key) {
+            detach(node);
+        }
+        node.item = item;
+        if (node.cellKey != key) {
+            node.cellKey = key;
+            cells.computeIfAbsent(key, k -> new Cell<>()).add(node, latitude, longitude);
+        } else {
+            cells.get(key).move(node, latitude, longitude);
+        }
+    }
+
+    public boolean remove(long id) {
+        Node<T> node = byId.remove(id);
+        if (node == null) return false;
+        detach(node);
+        return true;
+    }
+
+    public T get(long id) {
+        Node<T> node = byId.get(id);
+        return node != null ? node.item : null;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Up to k points within radiusKm of (latitude, longitude) that pass the filter,
+     * nearest first.
+     *
+     * Only cells that can hold a point within the radius are visited: rows within radiusKm of
+     * the query latitude, and on each row the columns within that row's longitude span. When
+     * that box holds more cells than are occupied (a large radius, or near the poles, over a
+     * sparse grid), the occupied cells are scanned directly instead.
+     */
+    public List<Hit<T>> nearest(double latitude, double longitude, double radiusKm, int k, Predicate<T> filter) {
+        if (k <= 0) return List.of();
+        TopK<T> top = new TopK<>(k);
+
+        double reachDegrees = radiusKm / KM_PER_DEGREE;
+        int row = row(latitude);
+        int column = column(longitude);
+        int rowReach = (int) (reachDegrees / cellDegrees) + 1;
+        int lowest = Math.max(0, row - rowReach);
+        int highest = Math.min(row(90), row + rowReach);
+
+        // Column offsets [from, to] around the query column that each row can reach
+        int[] from = new int[highest - lowest + 1];
+        int[] to = new int[from.length];
+        long boxCells = 0;
+        int maxRing = rowReach;
+        for (int r = lowest; r <= highest; r++) {
+            double south = Math.max(latitude - reachDegrees, r * cellDegrees - 90);
+            double north = Math.min(latitude + reachDegrees, (r + 1) * cellDegrees - 90);
+            int reach = (int) (longitudeSpan(latitude, south, north, radiusKm) / cellDegrees) + 1;
+            if (2 * reach + 1 >= columns) { // the whole parallel, every column once
+                from[r - lowest] = -(columns / 2);
+                to[r - lowest] = columns - 1 - columns / 2;
+            } else {
+                from[r - lowest] = -reach;
+                to[r - lowest] = reach;
+            }
+            boxCells += to[r - lowest] - from[r - lowest] + 1;
+            maxRing = Math.max(maxRing, Math.max(-from[r - lowest], to[r - lowest]));
+        }
+
+        if (boxCells > cells.size()) {
+            for (Cell<T> cell : cells.values()) scan(cell, latitude, longitude, radiusKm, filter, top);
+            return top.toList();
+        }
+
+        // A cell's narrowest side is its width at the latitude furthest from the equator within reach
+        double reachLatitude = Math.min(89.9, Math.abs(latitude) + reachDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(reachLatitude));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Everything in this ring is at least (ring - 1) cells away
+            if (top.isFull() && (ring - 1) * cellKm > top.worstDistance()) break;
+
+            for (int dr = Math.max(-ring, lowest - row); dr <= Math.min(ring, highest - row); dr++) {
+                int rowFrom = from[row + dr - lowest];
+                int rowTo = to[row + dr - lowest];
+                if (Math.abs(dr) == ring) { // full rows at the edges, only the sides in between
+                    for (int dc = Math.max(-ring, rowFrom); dc <= Math.min(ring, rowTo); dc++) {
+                        scanCell(row + dr, column + dc, latitude, longitude, radiusKm, filter, top);
+                    }
+                } else {
+                    if (-ring >= rowFrom) scanCell(row + dr, column - ring, latitude, longitude, radiusKm, filter, top);
+                    if (ring <= rowTo) scanCell(row + dr, column + ring, latitude, longitude, radiusKm, filter, top);
+                }
+            }
+        }
+        return top.toList();
+    }
+
+    /**
+     * Widest longitude difference (degrees, up to 180) between the query and any point within
+     * radiusKm of it whose latitude is in [south, north]. On the sphere, points at latitude p
+     * are within reach up to cos(dLng) >= (cos(d) - sin(q) sin(p)) / (cos(q) cos(p)); over the
+     * band the widest is at one of its edges or at p = asin(sin(q) / cos(d)).
+     */
+    private static double longitudeSpan(double latitude, double south, double north, double radiusKm) {
+        if (south > north) return 0;
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        if (angle >= Math.PI) return 180;
+        double widest = Math.max(longitudeSpanAt(latitude, south, angle), longitudeSpanAt(latitude, north, angle));
+        double peak = Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, Math.sin(Math.toRadians(latitude)) / Math.cos(angle)))));
+        if (Math.cos(angle) > 0 && peak > south && peak < north) {
+            widest = Math.max(widest, longitudeSpanAt(latitude, peak, angle));
+        }
+        return widest;
+    }
+
+    private static double longitudeSpanAt(double latitude, double pointLatitude, double angle) {
+        double q = Math.toRadians(latitude);
+        double p = Math.toRadians(pointLatitude);
+        double denominator = Math.cos(q) * Math.cos(p);
+        if (denominator <= 1e-12) return 180; // a pole: every longitude
+        double cosine = (Math.cos(angle) - Math.sin(q) * Math.sin(p)) / denominator;
+        if (cosine <= -1) return 180;
+        return cosine >= 1 ? 0 : Math.toDegrees(Math.acos(cosine));
+    }
+
+    private void scanCell(int row, int column, double latitude, double longitude, double radiusKm, Predicate<T> filter, TopK<T> top) {
+        Cell<T> cell = cells.get(cellKey(row, Math.floorMod(column, columns)));
+        if (cell != null) scan(cell, latitude, longitude, radiusKm, filter, top);
+    }
+
+    private void scan(Cell<T> cell, double latitude, double longitude, double radiusKm, Predicate<T> filter, TopK<T> top) {
+        double[] latitudes = cell.latitudes;
+        double[] longitudes = cell.longitudes;
+        for (int i = 0; i < cell.size; i++) {
+            double limit = top.isFull() ? Math.min(radiusKm, top.worstDistance()) : radiusKm;
+            // The latitude difference alone is a lower bound of the distance: skip the trigonometry
+            if (Math.abs(latitudes[i] - latitude) * KM_PER_DEGREE > limit) continue;
+            double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+            if (distance <= radiusKm && (!top.isFull() || distance < top.worstDistance())) {
+                T item = cell.nodes[i].item;
+                if (filter.test(item)) top.offer(item, distance);
+            }
+        }
+    }
+
+    /**
+     * Great-circle (haversine) distance.
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void detach(Node<T> node) {
+        Cell<T> cell = cells.get(node.cellKey);
+        cell.remove(node);
+        if (cell.size == 0) cells.remove(node.cellKey);
+        node.cellKey = Long.MIN_VALUE;
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    public record Hit<T>(T item, double distanceKm) {
+    }
+
+    private static final class Node<T> {
+        T item;
+        long cellKey = Long.MIN_VALUE;
+        int slot; // position in its cell
+    }
+
+    /**
+     * Unordered bucket with the coordinates in their own arrays, so a scan reads them
+     * sequentially. Removal swaps the last point into the hole.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class Cell<T> {
+        Node<T>[] nodes = new Node[4];
+        double[] latitudes = new double[4];
+        double[] longitudes = new double[4];
+        int size;
+
+        void add(Node<T> node, double latitude, double longitude) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            node.slot = size;
+            nodes[size] = node;
+            size++;
+            move(node, latitude, longitude);
+        }
+
+        void move(Node<T> node, double latitude, double longitude) {
+            latitudes[node.slot] = latitude;
+            longitudes[node.slot] = longitude;
+        }
+
+        void remove(Node<T> node) {
+            int last = --size;
+            nodes[node.slot] = nodes[last];
+            latitudes[node.slot] = latitudes[last];
+            longitudes[node.slot] = longitudes[last];
+            nodes[node.slot].slot = node.slot;
+            nodes[last] = null;
+        }
+    }
+
+    /** The k smallest distances seen so far, kept sorted (k is small). */
+    private static final class TopK<T> {
+        final Object[] items;
+        final double[] distances;
+        int size;
+
+        TopK(int k) {
+            items = new Object[k];
+            distances = new double[k];
+        }
+
+        boolean isFull() {
+            return size == items.length;
+        }
+
+        double worstDistance() {
+            return distances[size - 1];
+        }
+
+        void offer(T item, double distance) {
+            int i = isFull() ? size - 1 : size++;
+            while (i > 0 && distances[i - 1] > distance) {
+                items[i] = items[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            items[i] = item;
+            distances[i] = distance;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Hit<T>> toList() {
+            List<Hit<T>> hits = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) hits.add(new Hit<>((T) items[i], distances[i]));
+            return hits;
+        }
+    }
+}
@@ -6,7 +6,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_id", columnList = "userName, id"),      // driver history (keyset)
+        @Index(name = "idx_bookings_charger_id", columnList = "charger_id, id"), // charger history (keyset)
+        @Index(name = "idx_bookings_host_id", columnList = "hostName, id")       // host export
+})
 public class Booking {
 
     @Id
@@ -51,6 +55,10 @@ public class Booking {
     private Double totalEnergy;
     private Integer actualDuration; // Total seconds of charging (Synced from CMS/Hardware)
 
+    /** * Idempotency key of the CMS completion that closed this session (null until synced). */
+    @Column(unique = true)
+    private String completionId;
+
     private Integer lateMinutes;
     private Integer idleMinutes;
 
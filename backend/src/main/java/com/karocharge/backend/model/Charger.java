@@ -6,7 +6,10 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "chargers")
+@Table(name = "chargers", indexes = {
+        @Index(name = "idx_chargers_host_id", columnList = "host_name, id"), // host listing (keyset)
+        @Index(name = "idx_chargers_change_version", columnList = "change_version") // delta sync
+})
 @Data
 public class Charger {
 
@@ -34,4 +37,15 @@ public class Charger {
 
     @Column(name = "status")
     private String status = "AVAILABLE";
+
+    // Position for the nearby search (optional: chargers without one are simply not found there)
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    // Stamped by ChargerService on every write, for delta sync (GET /api/chargers/changes)
+    @Column(name = "change_version")
+    private Long changeVersion;
 }
@@ -1,7 +1,10 @@
 package com.karocharge.backend.repository;
 
 import com.karocharge.backend.model.Booking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -16,6 +19,66 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByStatus(String status);
     List<Booking> findByChargerId(Long chargerId);
 
+    /**
+     * The booking with its charger joined in, for responses that include the charger
+     * (one SELECT instead of a second lazy load while serializing).
+     */
+    @EntityGraph(attributePaths = "charger")
+    Optional<Booking> findWithChargerById(Long id);
+
+    /**
+     * A driver's booking history, newest first, the page after (below) 'beforeId'. Keyset
+     * pagination on the (userName, id) index; pass Long.MAX_VALUE for the first page.
+     */
+    @Query("SELECT b.id AS id, b.charger.id AS chargerId, b.brand AS brand, b.type AS type, " +
+            "b.hostName AS hostName, b.location AS location, b.userName AS userName, b.duration AS duration, " +
+            "b.status AS status, b.startTime AS startTime, b.endTime AS endTime, " +
+            "b.chargingStartedAt AS chargingStartedAt, b.totalEnergy AS totalEnergy, " +
+            "b.actualDuration AS actualDuration, b.lateMinutes AS lateMinutes, b.idleMinutes AS idleMinutes, " +
+            "b.cancelledBy AS cancelledBy " +
+            "FROM Booking b WHERE b.userName = :userName AND b.id < :beforeId ORDER BY b.id DESC")
+    List<HistoryView> findHistoryByUserNameBefore(@Param("userName") String userName,
+                                                  @Param("beforeId") long beforeId, Limit limit);
+
+    /**
+     * Same, for one charger (index on charger_id, id). b.charger.id is the foreign key
+     * column, so no join.
+     */
+    @Query("SELECT b.id AS id, b.charger.id AS chargerId, b.brand AS brand, b.type AS type, " +
+            "b.hostName AS hostName, b.location AS location, b.userName AS userName, b.duration AS duration, " +
+            "b.status AS status, b.startTime AS startTime, b.endTime AS endTime, " +
+            "b.chargingStartedAt AS chargingStartedAt, b.totalEnergy AS totalEnergy, " +
+            "b.actualDuration AS actualDuration, b.lateMinutes AS lateMinutes, b.idleMinutes AS idleMinutes, " +
+            "b.cancelledBy AS cancelledBy " +
+            "FROM Booking b WHERE b.charger.id = :chargerId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<HistoryView> findHistoryByChargerIdBefore(@Param("chargerId") Long chargerId,
+                                                   @Param("beforeId") long beforeId, Limit limit);
+
+    interface HistoryView {
+        Long getId();
+        Long getChargerId();
+        String getBrand();
+        String getType();
+        String getHostName();
+        String getLocation();
+        String getUserName();
+        Integer getDuration();
+        String getStatus();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+        LocalDateTime getChargingStartedAt();
+        Double getTotalEnergy();
+        Integer getActualDuration();
+        Integer getLateMinutes();
+        Integer getIdleMinutes();
+        String getCancelledBy();
+    }
+
+    /**
+     * True if a CMS completion with this id was already applied (redelivery from the outbox).
+     */
+    boolean existsByCompletionId(String completionId);
+
     /**
      * Finds the most recent booking for a specific charger that is either
      * CHARGING or CANCELLED. This ensures the billing data from CMS is
@@ -23,12 +86,49 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     Booking findTopByChargerIdAndStatusOrderByStartTimeDesc(Long chargerId, String status);
 
+    /**
+     * Same, restricted to bookings no CMS completion has been applied to yet: an older
+     * cancelled session that was already billed must not take another session's totals.
+     */
+    Booking findTopByChargerIdAndStatusAndCompletionIdIsNullOrderByStartTimeDesc(Long chargerId, String status);
+
     /**
      * Find bookings that are past their expected end time but haven't finished.
      * Useful for cleanup tasks or auto-calculating idle fees.
      */
     List<Booking> findByEndTimeBeforeAndStatus(LocalDateTime time, String status);
 
+    /**
+     * Session started: writes the charging window without reading the row back (no merge).
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CHARGING', b.chargingStartedAt = :startedAt, b.endTime = :endTime, " +
+            "b.lateMinutes = :lateMinutes WHERE b.id = :id")
+    int markCharging(@Param("id") Long id,
+                     @Param("startedAt") LocalDateTime startedAt,
+                     @Param("endTime") LocalDateTime endTime,
+                     @Param("lateMinutes") Integer lateMinutes);
+
+    /**
+     * Session extended: new duration and end, back to CHARGING (in case auto-stop completed it).
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CHARGING', b.duration = :duration, b.bookedDuration = :bookedDuration, " +
+            "b.endTime = :endTime WHERE b.id = :id")
+    int extendSession(@Param("id") Long id,
+                      @Param("duration") Integer duration,
+                      @Param("bookedDuration") Double bookedDuration,
+                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Idle minutes of a session still running past its booked end, as the whole minutes elapsed
+     * since that end (deadline scheduler). Never lowers the count.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.idleMinutes = :minutes " +
+            "WHERE b.id = :id AND b.status = 'CHARGING' AND b.idleMinutes < :minutes")
+    int accrueIdleMinutes(@Param("id") Long id, @Param("minutes") Integer minutes);
+
     /**
      * OPTIONAL: A custom query to find the 'Active' session regardless of
      * whether it was just cancelled or is still charging.
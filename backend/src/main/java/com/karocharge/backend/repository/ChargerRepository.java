@@ -1,8 +1,14 @@
 package com.karocharge.backend.repository;
 
 import com.karocharge.backend.model.Charger;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ChargerRepository extends JpaRepository<Charger, Long> {
@@ -11,4 +17,100 @@ public interface ChargerRepository extends JpaRepository<Charger, Long> {
     List<Charger> findByStatus(String status);
     List<Charger> findByHostName(String hostName);
 
+    /**
+     * Charger listing in id order, the page after 'afterId' (keyset pagination: an index seek,
+     * so a deep page costs the same as the first). Pass 0 for the first page.
+     */
+    @Query("SELECT c.id AS id, c.hostName AS hostName, c.location AS location, c.brand AS brand, c.type AS type, " +
+            "c.availableDate AS availableDate, c.duration AS duration, c.status AS status, " +
+            "c.latitude AS latitude, c.longitude AS longitude, c.changeVersion AS changeVersion " +
+            "FROM Charger c WHERE c.id > :afterId ORDER BY c.id")
+    List<ListingView> findListingAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Same, for one host's chargers (index on host_name, id).
+     */
+    @Query("SELECT c.id AS id, c.hostName AS hostName, c.location AS location, c.brand AS brand, c.type AS type, " +
+            "c.availableDate AS availableDate, c.duration AS duration, c.status AS status, " +
+            "c.latitude AS latitude, c.longitude AS longitude, c.changeVersion AS changeVersion " +
+            "FROM Charger c WHERE c.hostName = :hostName AND c.id > :afterId ORDER BY c.id")
+    List<ListingView> findListingByHostNameAfter(@Param("hostName") String hostName,
+                                                 @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Chargers written after version 'since' and up to 'upTo', oldest change first (delta sync).
+     */
+    @Query("SELECT c.id AS id, c.hostName AS hostName, c.location AS location, c.brand AS brand, c.type AS type, " +
+            "c.availableDate AS availableDate, c.duration AS duration, c.status AS status, " +
+            "c.latitude AS latitude, c.longitude AS longitude, c.changeVersion AS changeVersion " +
+            "FROM Charger c WHERE c.changeVersion > :since AND c.changeVersion <= :upTo " +
+            "ORDER BY c.changeVersion, c.id")
+    List<ListingView> findChangedBetween(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.changeVersion), 0) FROM Charger c")
+    long findMaxChangeVersion();
+
+    /**
+     * Gives rows written before change versions existed a version, so delta sync sees them.
+     */
+    @Modifying
+    @Query("UPDATE Charger c SET c.changeVersion = :version WHERE c.changeVersion IS NULL")
+    int stampUnversioned(@Param("version") long version);
+
+    interface ListingView {
+        Long getId();
+        String getHostName();
+        String getLocation();
+        String getBrand();
+        String getType();
+        LocalDate getAvailableDate();
+        Integer getDuration();
+        String getStatus();
+        Double getLatitude();
+        Double getLongitude();
+        Long getChangeVersion();
+    }
+
+    /**
+     * Current status of a few chargers, without loading the entities (in-memory views).
+     */
+    @Query("SELECT c.id AS id, c.status AS status FROM Charger c WHERE c.id IN :ids")
+    List<StatusView> findStatusByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface StatusView {
+        Long getId();
+        String getStatus();
+    }
+
+    /**
+     * Atomic compare-and-set on the charger status. Only one concurrent caller can
+     * move a charger out of 'expected', every other caller sees 0 rows updated.
+     */
+    @Modifying
+    @Query("UPDATE Charger c SET c.status = :target, c.changeVersion = :version " +
+            "WHERE c.id = :id AND c.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expected") String expected,
+                            @Param("target") String target,
+                            @Param("version") long version);
+
+    /**
+     * Unconditional status change, without loading the row first.
+     */
+    @Modifying
+    @Query("UPDATE Charger c SET c.status = :target, c.changeVersion = :version WHERE c.id = :id")
+    int updateStatus(@Param("id") Long id,
+                     @Param("target") String target,
+                     @Param("version") long version);
+
+    /**
+     * Same as compareAndSetStatus, for many chargers in one statement (fleet operations).
+     */
+    @Modifying
+    @Query("UPDATE Charger c SET c.status = :target, c.changeVersion = :version " +
+            "WHERE c.id IN :ids AND c.status = :expected")
+    int compareAndSetStatusIn(@Param("ids") Collection<Long> ids,
+                              @Param("expected") String expected,
+                              @Param("target") String target,
+                              @Param("version") long version);
 }
@@ -0,0 +1,94 @@
+package com.karocharge.backend.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Non-overlapping half-open intervals [start, end) on a millisecond axis, each tagged with an id.
+ *
+ * Backed by a TreeMap keyed by start. Because stored intervals never overlap, the only one
+ * that can collide with [start, end) is the last interval starting before end, so a conflict
+ * check is a single lowerEntry lookup: O(log n). Adjacent intervals (end == next start) are
+ * allowed.
+ *
+ * Not thread-safe: the owner serializes access.
+ */
+public class IntervalIndex {
+
+    public record Interval(long start, long end, long id) {
+    }
+
+    private final TreeMap<Long, Interval> byStart = new TreeMap<>();
+
+    public boolean overlaps(long start, long end) {
+        Map.Entry<Long, Interval> before = byStart.lowerEntry(end);
+        return before != null && before.getValue().end() > start;
+    }
+
+    /**
+     * Adds [start, end) unless it overlaps a stored interval. Returns false on conflict.
+     */
+    public boolean add(long start, long end, long id) {
+        if (end <= start) throw new IllegalArgumentException("Interval must not be empty");
+        if (overlaps(start, end)) return false;
+        byStart.put(start, new Interval(start, end, id));
+        return true;
+    }
+
+    /**
+     * Adds [start, end) cut short at the start of the next stored interval, for sessions that
+     * are already underway and may not be refused. Returns the stored interval, or null if
+     * start itself lies inside another interval.
+     */
+    public Interval addClamped(long start, long end, long id) {
+        Map.Entry<Long, Interval> floor = byStart.floorEntry(start);
+        if (floor != null && floor.getValue().end() > start) return null;
+        Long next = byStart.higherKey(start);
+        long clampedEnd = next != null ? Math.min(end, next) : end;
+        if (clampedEnd <= start) return null;
+
+        Interval interval = new Interval(start, clampedEnd, id);
+        byStart.put(start, interval);
+        return interval;
+    }
+
+    public boolean remove(long start, long id) {
+        Interval interval = byStart.get(start);
+        if (interval == null || interval.id() != id) return false;
+        byStart.remove(start);
+        return true;
+    }
+
+    /**
+     * Earliest start >= from with at least 'length' free millis after it.
+     * O(log n + k), k being the number of back-to-back intervals skipped.
+     */
+    public long nextFree(long from, long length) {
+        long candidate = from;
+        Map.Entry<Long, Interval> floor = byStart.floorEntry(candidate);
+        if (floor != null && floor.getValue().end() > candidate) candidate = floor.getValue().end();
+
+        for (Interval interval : byStart.tailMap(candidate, true).values()) {
+            if (interval.start() - candidate >= length) return candidate;
+            candidate = interval.end();
+        }
+        return candidate;
+    }
+
+    /**
+     * Intervals overlapping [from, to), in start order.
+     */
+    public List<Interval> between(long from, long to) {
+        List<Interval> result = new ArrayList<>();
+        Map.Entry<Long, Interval> before = byStart.lowerEntry(from);
+        if (before != null && before.getValue().end() > from) result.add(before.getValue());
+        result.addAll(byStart.subMap(from, true, to, false).values());
+        return result;
+    }
+
+    public int size() {
+        return byStart.size();
+    }
+}
@@ -0,0 +1,189 @@
+package com.karocharge.backend.scheduling;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: LEVELS wheels of 64 slots each, level n covering 64^(n+1) ticks.
+ * Schedule, cancel and reschedule are O(1) (timers are nodes of intrusive doubly linked slot
+ * lists); advancing one tick touches only the timers in one level-0 slot, plus an occasional
+ * cascade of one higher-level slot down a level.
+ *
+ * With a 1 s tick, four levels reach ~194 days; later deadlines sit in the top level and are
+ * simply re-placed each time that slot cascades.
+ *
+ * Not thread-safe: the owner serializes access.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Timer<T>[][] wheels; // slot list heads (sentinels)
+    private final Timer<T> due;        // deadlines already passed when scheduled
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.wheels = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] wheel : wheels) {
+            for (int s = 0; s < SLOTS; s++) wheel[s] = Timer.sentinel();
+        }
+        this.due = Timer.sentinel();
+    }
+
+    public Timer<T> schedule(T payload, long deadlineMillis) {
+        Timer<T> timer = new Timer<>(payload);
+        timer.deadlineTick = toTick(deadlineMillis);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Moves a timer to a new deadline, reusing the node. Works for pending and fired timers.
+     */
+    public void reschedule(Timer<T> timer, long deadlineMillis) {
+        if (timer.isPending()) {
+            timer.unlink();
+        } else {
+            size++;
+        }
+        timer.deadlineTick = toTick(deadlineMillis);
+        place(timer);
+    }
+
+    public boolean cancel(Timer<T> timer) {
+        if (!timer.isPending()) return false;
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Fires every timer whose deadline is at or before nowMillis, in deadline-tick order.
+     * Returns the number of timers fired.
+     */
+    public int advanceTo(long nowMillis, Consumer<T> expired) {
+        int fired = drain(due, expired);
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade(1);
+            fired += drain(wheels[0][(int) (currentTick & MASK)], expired);
+            fired += drain(due, expired); // cascaded timers that landed exactly on this tick
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private long toTick(long millis) {
+        // Round up so a timer never fires before its deadline
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.append(timer);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1)) || level == LEVELS - 1) {
+                int slot = (int) ((timer.deadlineTick >>> (SLOT_BITS * level)) & MASK);
+                wheels[level][slot].append(timer);
+                return;
+            }
+        }
+    }
+
+    /**
+     * When a level's lower neighbour wraps, the matching slot of this level is re-placed
+     * (its timers now fall into lower levels, or are due).
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS) return;
+        long shifted = currentTick >>> (SLOT_BITS * (level - 1));
+        if ((shifted & MASK) != 0) return;
+
+        cascade(level + 1);
+        Timer<T> head = wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & MASK)];
+        if (head.next == head) return;
+
+        // Detach the whole slot first: far-future timers may be placed back into it
+        Timer<T> timer = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private int drain(Timer<T> head, Consumer<T> expired) {
+        int fired = 0;
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            timer.unlink();
+            size--;
+            fired++;
+            expired.accept(timer.payload);
+        }
+        return fired;
+    }
+
+    /**
+     * Handle for one scheduled deadline.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload) {
+            this.payload = payload;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> head = new Timer<>(null);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return next != null;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.karocharge.backend.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, laid out like a roaring bitmap: the high 16 bits pick
+ * a chunk, and each chunk stores its low 16 bits either as a sorted char array (up to 4096
+ * values) or as a 65536-bit word array. Sparse sets (one host's chargers) cost a few bytes
+ * per value; dense ones (all AVAILABLE chargers) cost one bit per id.
+ *
+ * Not thread-safe.
+ */
+public final class Bitmap {
+
+    private static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public void set(int bit) {
+        char key = (char) (bit >>> 16);
+        int i = find(key);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) bit);
+        } else {
+            insert(-i - 1, key, new ArrayContainer().add((char) bit));
+        }
+    }
+
+    public void clear(int bit) {
+        int i = find((char) (bit >>> 16));
+        if (i < 0) return;
+        Container container = containers[i].remove((char) bit);
+        if (container.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    public boolean get(int bit) {
+        int i = find((char) (bit >>> 16));
+        return i >= 0 && containers[i].contains((char) bit);
+    }
+
+    public Bitmap copy() {
+        Bitmap copy = new Bitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(4, size));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < size; i++) copy.containers[i] = containers[i].copy();
+        copy.size = size;
+        return copy;
+    }
+
+    /** this &= other */
+    public Bitmap and(Bitmap other) {
+        int kept = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    keys[kept] = keys[i];
+                    containers[kept++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        Arrays.fill(containers, kept, size, null);
+        size = kept;
+        return this;
+    }
+
+    /** this |= other */
+    public Bitmap or(Bitmap other) {
+        char[] mergedKeys = new char[size + other.size];
+        Container[] merged = new Container[size + other.size];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                mergedKeys[n] = keys[i];
+                merged[n++] = containers[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                mergedKeys[n] = other.keys[j];
+                merged[n++] = other.containers[j++].copy();
+            } else {
+                mergedKeys[n] = keys[i];
+                merged[n++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        keys = n > 0 ? mergedKeys : new char[4];
+        containers = n > 0 ? merged : new Container[4];
+        size = n;
+        return this;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < size; i++) count += containers[i].cardinality();
+        return count;
+    }
+
+    /** |this & other| without materializing the intersection. */
+    public int andCardinality(Bitmap other) {
+        int count = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * First set bit at or after 'from', or -1.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) from = 0;
+        char key = (char) (from >>> 16);
+        int i = find(key);
+        if (i >= 0) {
+            int low = containers[i].nextSetBit(from & 0xFFFF);
+            if (low >= 0) return (key << 16) | low;
+            i++;
+        } else {
+            i = -i - 1;
+        }
+        return i < size ? (keys[i] << 16) | containers[i].nextSetBit(0) : -1;
+    }
+
+    /** Calls the action with every set bit, in increasing order. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) containers[i].forEach(keys[i] << 16, action);
+    }
+
+    /** Number of chunks (cost estimate for the caller). */
+    int chunks() {
+        return size;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int at, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = container;
+        size++;
+    }
+
+    private void removeAt(int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        containers[--size] = null;
+    }
+
+    /** The low 16 bits of the values in one chunk. Mutating calls return the container to keep. */
+    private abstract static class Container {
+        abstract Container add(char value);
+        abstract Container remove(char value);
+        abstract boolean contains(char value);
+        abstract int cardinality();
+        abstract int nextSetBit(int from);
+        abstract Container copy();
+        abstract Container and(Container other);
+        abstract Container or(Container other);
+        abstract int andCardinality(Container other);
+        abstract void forEach(int high, IntConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) return this;
+            if (cardinality == ARRAY_MAX) return toBitmap().add(value);
+            i = -i - 1;
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (i < 0) i = -i - 1;
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) i++;
+                    else if (values[i] > array.values[j]) j++;
+                    else {
+                        result[n++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) if (other.contains(values[i])) result[n++] = values[i];
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) return bitmap.copy().or(this);
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < array.cardinality) {
+                if (values[i] < array.values[j]) merged[n++] = values[i++];
+                else if (values[i] > array.values[j]) merged[n++] = array.values[j++];
+                else {
+                    merged[n++] = values[i++];
+                    j++;
+                }
+            }
+            while (i < cardinality) merged[n++] = values[i++];
+            while (j < array.cardinality) merged[n++] = array.values[j++];
+            ArrayContainer result = new ArrayContainer(merged, n);
+            return n > ARRAY_MAX ? result.toBitmap() : result;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) i++;
+                    else if (values[i] > array.values[j]) j++;
+                    else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) if (other.contains(values[i])) count++;
+            }
+            return count;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) action.accept(high | values[i]);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) bitmap.add(values[i]);
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (before != words[value >>> 6]) cardinality--;
+            return cardinality <= ARRAY_MAX / 2 ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int nextSetBit(int from) {
+            int word = from >>> 6;
+            if (word >= words.length) return -1;
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (++word == words.length) return -1;
+                bits = words[word];
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer array) return array.and(this);
+            long[] result = new long[1024];
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < 1024; i++) {
+                result[i] = words[i] & theirs[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        /** Mutates this container (callers pass a copy). */
+        @Override
+        Container or(Container other) {
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) add(array.values[i]);
+                return this;
+            }
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < 1024; i++) {
+                words[i] |= theirs[i];
+                count += Long.bitCount(words[i]);
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) return array.andCardinality(this);
+            long[] theirs = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < 1024; i++) count += Long.bitCount(words[i] & theirs[i]);
+            return count;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < 1024; i++) {
+                long bits = words[i];
+                while (bits != 0) {
+                    action.accept(high | (i << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(1, cardinality)];
+            int n = 0;
+            for (int i = 0; i < 1024; i++) {
+                long bits = words[i];
+                while (bits != 0) {
+                    values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
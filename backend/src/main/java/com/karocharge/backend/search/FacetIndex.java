@@ -0,0 +1,217 @@
+package com.karocharge.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Bitmap index over a fixed set of single-valued string fields: one Bitmap of document ids
+ * per (field, value). Filters are ORs of value bitmaps within a field and ANDs across
+ * fields; facet counts are intersections with the matching set.
+ *
+ * anyOf matches values ignoring case, like the /nearby filters; facets still report each
+ * spelling as stored.
+ *
+ * Values are kept sorted per field, so ISO dates (and other sortable strings) also support
+ * range filters. Each value also gets a small int ordinal and every document remembers its
+ * ordinal per field, so an update only touches the two bitmaps involved and facet counts can
+ * be tallied into an int[] instead of a map. Ordinals are not reused once a value disappears.
+ *
+ * Not thread-safe: the owner serializes writes against reads.
+ */
+public class FacetIndex {
+
+    private final List<String> names;
+    private final Field[] fields;
+    private final Bitmap live = new Bitmap();
+    private int size;
+
+    public FacetIndex(String... fields) {
+        this.names = List.of(fields);
+        this.fields = new Field[fields.length];
+        for (int f = 0; f < fields.length; f++) this.fields[f] = new Field();
+    }
+
+    /**
+     * Sets one field of a document (null clears it). The document becomes live.
+     */
+    public void set(int doc, String field, String value) {
+        Field f = field(field);
+        Value previous = f.valueOf(doc);
+        if (previous == null ? value == null : previous.name.equals(value)) {
+            markLive(doc);
+            return;
+        }
+        if (previous != null) {
+            previous.docs.clear(doc);
+            if (previous.docs.isEmpty()) f.drop(previous);
+        }
+        Value next = value != null ? f.value(value) : null;
+        if (next != null) next.docs.set(doc);
+        f.setOrdinal(doc, next != null ? next.ordinal : -1);
+        markLive(doc);
+    }
+
+    public boolean contains(int doc) {
+        return live.get(doc);
+    }
+
+    public void remove(int doc) {
+        if (!live.get(doc)) return;
+        for (String field : names) set(doc, field, null);
+        live.clear(doc);
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Every live document. */
+    public Bitmap all() {
+        return live.copy();
+    }
+
+    /** Documents whose field holds any of the values, compared ignoring case. */
+    public Bitmap anyOf(String field, Collection<String> values) {
+        Map<String, List<Value>> byFolded = field(field).byFolded;
+        Bitmap result = new Bitmap();
+        for (String name : values) {
+            List<Value> spellings = byFolded.get(fold(name));
+            if (spellings == null) continue;
+            for (Value value : spellings) result.or(value.docs);
+        }
+        return result;
+    }
+
+    /** Documents whose field value lies in [from, to]; either bound may be null. */
+    public Bitmap range(String field, String from, String to) {
+        TreeMap<String, Value> byName = field(field).byName;
+        Map<String, Value> slice = from == null && to == null ? byName
+                : from == null ? byName.headMap(to, true)
+                : to == null ? byName.tailMap(from, true)
+                : byName.subMap(from, true, to, true);
+        Bitmap result = new Bitmap();
+        for (Value value : slice.values()) result.or(value.docs);
+        return result;
+    }
+
+    /**
+     * Value -> number of matching documents for one field, the 'limit' largest first.
+     * Few distinct values against many matches: one intersection count per value. Otherwise
+     * (hosts, dates, narrow filters) one pass over the matches, tallying ordinals.
+     */
+    public Map<String, Integer> counts(String field, Bitmap matches, int matchCount, int limit) {
+        Field f = field(field);
+        int[] counts = new int[f.names.size()];
+
+        // An intersection costs about one container walk per chunk; a pass costs one lookup per match
+        if ((long) f.byName.size() * Math.max(1, matches.chunks()) * 64 <= matchCount) {
+            for (Value value : f.byName.values()) counts[value.ordinal] = matches.andCardinality(value.docs);
+        } else {
+            int[] ordinals = f.ordinalByDoc;
+            matches.forEach(doc -> {
+                int ordinal = doc < ordinals.length ? ordinals[doc] - 1 : -1;
+                if (ordinal >= 0) counts[ordinal]++;
+            });
+        }
+
+        Comparator<Integer> byCount = Comparator.<Integer>comparingInt(o -> counts[o])
+                .thenComparing(o -> f.names.get(o), Comparator.reverseOrder());
+        PriorityQueue<Integer> top = new PriorityQueue<>(byCount);
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] == 0) continue;
+            if (top.size() < limit) {
+                top.add(ordinal);
+            } else if (limit > 0 && byCount.compare(ordinal, top.peek()) > 0) {
+                top.poll();
+                top.add(ordinal);
+            }
+        }
+        Integer[] ranked = top.toArray(new Integer[0]);
+        Arrays.sort(ranked, byCount.reversed());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int ordinal : ranked) result.put(f.names.get(ordinal), counts[ordinal]);
+        return result;
+    }
+
+    public List<String> fields() {
+        return names;
+    }
+
+    private void markLive(int doc) {
+        if (!live.get(doc)) {
+            live.set(doc);
+            size++;
+        }
+    }
+
+    private Field field(String field) {
+        int f = names.indexOf(field);
+        if (f < 0) throw new IllegalArgumentException("Unknown field " + field);
+        return fields[f];
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Value {
+        final String name;
+        final int ordinal;
+        final Bitmap docs = new Bitmap();
+
+        Value(String name, int ordinal) {
+            this.name = name;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class Field {
+        final TreeMap<String, Value> byName = new TreeMap<>();
+        final Map<String, List<Value>> byFolded = new HashMap<>(); // every spelling of a value
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final List<String> names = new ArrayList<>(); // by ordinal
+        int[] ordinalByDoc = new int[1024]; // ordinal + 1, 0 = no value
+
+        Value valueOf(int doc) {
+            int ordinal = doc < ordinalByDoc.length ? ordinalByDoc[doc] - 1 : -1;
+            return ordinal >= 0 ? byName.get(names.get(ordinal)) : null;
+        }
+
+        Value value(String name) {
+            Value value = byName.get(name);
+            if (value == null) {
+                int ordinal = ordinals.computeIfAbsent(name, n -> {
+                    names.add(n);
+                    return names.size() - 1;
+                });
+                value = new Value(name, ordinal);
+                byName.put(name, value);
+                byFolded.computeIfAbsent(fold(name), n -> new ArrayList<>(1)).add(value);
+            }
+            return value;
+        }
+
+        void drop(Value value) {
+            byName.remove(value.name);
+            String folded = fold(value.name);
+            List<Value> spellings = byFolded.get(folded);
+            spellings.remove(value);
+            if (spellings.isEmpty()) byFolded.remove(folded);
+        }
+
+        void setOrdinal(int doc, int ordinal) {
+            if (doc >= ordinalByDoc.length) ordinalByDoc = Arrays.copyOf(ordinalByDoc, Math.max(doc + 1, ordinalByDoc.length * 2));
+            ordinalByDoc[doc] = ordinal + 1;
+        }
+    }
+}
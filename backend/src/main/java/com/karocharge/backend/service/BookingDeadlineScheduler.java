@@ -0,0 +1,319 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.scheduling.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side auto-stop. Every open booking has exactly one deadline in a timing wheel:
+ *
+ *   RESERVED -> ACTIVATE at startTime: charger claimed, booking BOOKED (retried every
+ *                       activation-retry while the previous session overstays, EXPIRED with
+ *                       CHARGER_BUSY once the no-show window has passed)
+ *   BOOKED   -> NO_SHOW at startTime + no-show window: booking EXPIRED, charger released
+ *   CHARGING -> EXPIRY  at endTime: CMS STOP (batched with everything else expiring that tick)
+ *   overstay -> IDLE    every idle-interval while still CHARGING after expiry: idleMinutes set
+ *                       to the whole minutes since endTime, and the STOP is retried
+ *
+ * Deadlines live only in memory; the DB is read once at startup to rebuild them, and once per
+ * batch of fired deadlines to confirm the booking is still in the expected state.
+ */
+@Service
+public class BookingDeadlineScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingDeadlineScheduler.class);
+
+    enum Kind { ACTIVATE, NO_SHOW, EXPIRY, IDLE }
+
+    private static final class Deadline {
+        final Long bookingId;
+        final Long chargerId;
+        Kind kind;
+
+        Deadline(Long bookingId, Long chargerId, Kind kind) {
+            this.bookingId = bookingId;
+            this.chargerId = chargerId;
+            this.kind = kind;
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final ChargerService chargerService;
+    private final LiveSessionRegistry liveSessions;
+    private final ReservationService reservations;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final long tickMillis;
+    private final Duration noShowWindow;
+    private final long idleIntervalMillis;
+    private final long activationRetryMillis;
+
+    // Guarded by 'this'
+    private final TimingWheel<Deadline> wheel;
+    private final Map<Long, TimingWheel.Timer<Deadline>> timers = new HashMap<>();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "booking-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingDeadlineScheduler(BookingRepository bookingRepository,
+                                    ChargerService chargerService,
+                                    LiveSessionRegistry liveSessions,
+                                    ReservationService reservations,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("bookingExecutor") ExecutorService executor,
+                                    @Value("${karocharge.deadlines.tick-ms:1000}") long tickMillis,
+                                    @Value("${karocharge.deadlines.no-show:15m}") Duration noShowWindow,
+                                    @Value("${karocharge.deadlines.idle-interval:60s}") Duration idleInterval,
+                                    @Value("${karocharge.deadlines.activation-retry:60s}") Duration activationRetry) {
+        this.bookingRepository = bookingRepository;
+        this.chargerService = chargerService;
+        this.liveSessions = liveSessions;
+        this.reservations = reservations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.tickMillis = tickMillis;
+        this.noShowWindow = noShowWindow;
+        this.idleIntervalMillis = idleInterval.toMillis();
+        this.activationRetryMillis = activationRetry.toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Rebuilds all deadlines from the open bookings (the only full read), then starts ticking.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Booking booking : bookingRepository.findByStatus("RESERVED")) onReserved(booking);
+        for (Booking booking : bookingRepository.findByStatus("BOOKED")) onBooked(booking);
+        for (Booking booking : bookingRepository.findByStatus("CHARGING")) onChargingStarted(booking);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void onReserved(Booking booking) {
+        arm(booking, Kind.ACTIVATE, millis(booking.getStartTime()));
+    }
+
+    public void onBooked(Booking booking) {
+        arm(booking, Kind.NO_SHOW, millis(booking.getStartTime().plus(noShowWindow)));
+    }
+
+    /**
+     * Start and extend: (re-)arms the expiry at the booking's endTime.
+     */
+    public void onChargingStarted(Booking booking) {
+        LocalDateTime endTime = endTime(booking);
+        if (endTime != null) arm(booking, Kind.EXPIRY, millis(endTime));
+    }
+
+    private static LocalDateTime endTime(Booking booking) {
+        if (booking.getEndTime() != null) return booking.getEndTime();
+        if (booking.getChargingStartedAt() == null) return null;
+        return booking.getChargingStartedAt().plusMinutes(booking.getDuration());
+    }
+
+    public synchronized void onClosed(Long bookingId) {
+        TimingWheel.Timer<Deadline> timer = timers.remove(bookingId);
+        if (timer != null) wheel.cancel(timer);
+    }
+
+    public synchronized int pendingDeadlines() {
+        return wheel.size();
+    }
+
+    synchronized boolean isArmed(Long bookingId) {
+        return timers.containsKey(bookingId);
+    }
+
+    void tick() {
+        List<Deadline> fired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(System.currentTimeMillis(), fired::add);
+        }
+        if (!fired.isEmpty()) {
+            executor.execute(() -> handle(fired));
+        }
+    }
+
+    private synchronized void arm(Booking booking, Kind kind, long deadlineMillis) {
+        TimingWheel.Timer<Deadline> timer = timers.get(booking.getId());
+        if (timer == null) {
+            timers.put(booking.getId(), wheel.schedule(
+                    new Deadline(booking.getId(), booking.getCharger().getId(), kind), deadlineMillis));
+        } else {
+            // Re-arm in place: no allocation, O(1)
+            timer.payload().kind = kind;
+            wheel.reschedule(timer, deadlineMillis);
+        }
+    }
+
+    private synchronized void rearm(Deadline deadline, Kind kind, long deadlineMillis) {
+        TimingWheel.Timer<Deadline> timer = timers.get(deadline.bookingId);
+        if (timer == null || timer.isPending()) return; // closed or re-armed meanwhile
+        timer.payload().kind = kind;
+        wheel.reschedule(timer, deadlineMillis);
+    }
+
+    private synchronized void forget(Deadline deadline) {
+        TimingWheel.Timer<Deadline> timer = timers.get(deadline.bookingId);
+        if (timer != null && !timer.isPending()) timers.remove(deadline.bookingId);
+    }
+
+    private void handle(List<Deadline> fired) {
+        try {
+            Map<Long, Booking> bookings = new HashMap<>();
+            List<Long> ids = new ArrayList<>(fired.size());
+            for (Deadline deadline : fired) ids.add(deadline.bookingId);
+            for (Booking booking : bookingRepository.findAllById(ids)) bookings.put(booking.getId(), booking);
+
+            List<Deadline> overrun = new ArrayList<>();
+            Map<Long, LocalDateTime> idleSince = new HashMap<>();
+            for (Deadline deadline : fired) {
+                Booking booking = bookings.get(deadline.bookingId);
+                String status = booking != null ? booking.getStatus() : null;
+
+                if (deadline.kind == Kind.ACTIVATE && "RESERVED".equals(status)) {
+                    activate(deadline, booking);
+                } else if (deadline.kind == Kind.NO_SHOW && "BOOKED".equals(status)) {
+                    expireNoShow(deadline);
+                    forget(deadline);
+                } else if ((deadline.kind == Kind.EXPIRY || deadline.kind == Kind.IDLE) && "CHARGING".equals(status)) {
+                    overrun.add(deadline);
+                    if (deadline.kind == Kind.IDLE) idleSince.put(deadline.bookingId, endTime(booking));
+                } else {
+                    forget(deadline); // state moved on without us
+                }
+            }
+            if (overrun.isEmpty()) return;
+
+            // Idle accrual for sessions that were already past expiry at the previous deadline:
+            // elapsed time since the end, so it does not depend on how often IDLE fires
+            LocalDateTime now = LocalDateTime.now();
+            idleSince.forEach((bookingId, endTime) -> {
+                if (endTime == null) return;
+                int minutes = (int) Duration.between(endTime, now).toMinutes();
+                if (minutes > 0) {
+                    transactionTemplate.executeWithoutResult(tx -> bookingRepository.accrueIdleMinutes(bookingId, minutes));
+                }
+            });
+
+            List<Long> chargerIds = new ArrayList<>(overrun.size());
+            for (Deadline deadline : overrun) chargerIds.add(deadline.chargerId);
+            chargerService.batchCmsCommand(chargerIds, "STOP");
+
+            // The CMS completion normally closes these within a second; until then, keep accruing
+            long next = System.currentTimeMillis() + idleIntervalMillis;
+            for (Deadline deadline : overrun) rearm(deadline, Kind.IDLE, next);
+        } catch (RuntimeException e) {
+            logger.error("Booking deadline handling failed", e);
+        }
+    }
+
+    /**
+     * The reserved slot has started: claim the charger (AVAILABLE -> BOOKED) and hand the
+     * booking over to the normal no-show flow. If the CMS refuses the block the claim is
+     * undone, as in bookCharger, and the activation is retried until the no-show window
+     * closes; after that the reservation expires (CMS_REFUSED).
+     */
+    private void activate(Deadline deadline, Booking reserved) {
+        long noShowAt = millis(reserved.getStartTime().plus(noShowWindow));
+        Booking activated = transactionTemplate.execute(tx -> {
+            Booking booking = bookingRepository.findById(deadline.bookingId).orElse(null);
+            if (booking == null || !"RESERVED".equals(booking.getStatus())) return null;
+            if (!chargerService.compareAndSetStatus(deadline.chargerId, "AVAILABLE", "BOOKED")) {
+                return booking; // previous session still on the charger
+            }
+            booking.setStatus("BOOKED");
+            return bookingRepository.save(booking);
+        });
+
+        if (activated == null) {
+            forget(deadline);
+        } else if ("BOOKED".equals(activated.getStatus())) {
+            if (chargerService.blockInCms(deadline.chargerId)) {
+                liveSessions.publish(activated);
+                rearm(deadline, Kind.NO_SHOW, noShowAt);
+            } else {
+                undoActivation(deadline);
+                retryOrExpire(deadline, noShowAt, "CMS_REFUSED");
+            }
+        } else {
+            retryOrExpire(deadline, noShowAt, "CHARGER_BUSY");
+        }
+    }
+
+    private void retryOrExpire(Deadline deadline, long noShowAt, String cancelledBy) {
+        if (System.currentTimeMillis() < noShowAt) {
+            rearm(deadline, Kind.ACTIVATE, System.currentTimeMillis() + activationRetryMillis);
+        } else {
+            expire(deadline, "RESERVED", cancelledBy);
+            forget(deadline);
+        }
+    }
+
+    /**
+     * Back to RESERVED with the charger AVAILABLE, as if the activation had not happened.
+     */
+    private void undoActivation(Deadline deadline) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Booking booking = bookingRepository.findById(deadline.bookingId).orElse(null);
+            if (booking == null || !"BOOKED".equals(booking.getStatus())) return;
+            booking.setStatus("RESERVED");
+            bookingRepository.save(booking);
+            chargerService.compareAndSetStatus(deadline.chargerId, "BOOKED", "AVAILABLE");
+        });
+    }
+
+    private void expireNoShow(Deadline deadline) {
+        expire(deadline, "BOOKED", "NO_SHOW");
+    }
+
+    private void expire(Deadline deadline, String expectedStatus, String cancelledBy) {
+        Booking expired = transactionTemplate.execute(tx -> {
+            Booking booking = bookingRepository.findById(deadline.bookingId).orElse(null);
+            if (booking == null || !expectedStatus.equals(booking.getStatus())) return null;
+            booking.setStatus("EXPIRED");
+            booking.setCancelledBy(cancelledBy);
+            if ("BOOKED".equals(expectedStatus)) {
+                chargerService.compareAndSetStatus(deadline.chargerId, "BOOKED", "AVAILABLE");
+            }
+            return bookingRepository.save(booking);
+        });
+        if (expired != null) {
+            reservations.release(deadline.bookingId);
+            liveSessions.publish(expired);
+        }
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,220 @@
+package com.karocharge.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.exc.JacksonIOException;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full booking histories as NDJSON or CSV, for hosts and finance.
+ *
+ * Rows come from one forward-only JDBC cursor (karocharge.export.fetch-size rows per round
+ * trip, inside a read-only transaction so PostgreSQL really uses a cursor) and are written to
+ * the output as they arrive. Nothing is collected, so the heap used does not depend on how
+ * many bookings are exported.
+ */
+@Service
+public class BookingExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Which bookings to export; null fields do not filter. from/to bound the start time
+     * (from inclusive, to exclusive).
+     */
+    public record Filter(String hostName, Long chargerId, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private enum Kind { LONG, INT, DOUBLE, TEXT, TIME }
+
+    private record Column(String name, String sql, Kind kind) {
+    }
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", "id", Kind.LONG),
+            new Column("chargerId", "charger_id", Kind.LONG),
+            new Column("hostName", "host_name", Kind.TEXT),
+            new Column("location", "location", Kind.TEXT),
+            new Column("brand", "brand", Kind.TEXT),
+            new Column("type", "type", Kind.TEXT),
+            new Column("userName", "user_name", Kind.TEXT),
+            new Column("status", "status", Kind.TEXT),
+            new Column("duration", "duration", Kind.INT),
+            new Column("startTime", "start_time", Kind.TIME),
+            new Column("endTime", "end_time", Kind.TIME),
+            new Column("chargingStartedAt", "charging_started_at", Kind.TIME),
+            new Column("actualDuration", "actual_duration", Kind.INT),
+            new Column("totalEnergy", "total_energy", Kind.DOUBLE),
+            new Column("lateMinutes", "late_minutes", Kind.INT),
+            new Column("idleMinutes", "idle_minutes", Kind.INT),
+            new Column("cancelledBy", "cancelled_by", Kind.TEXT)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final JsonMapper jsonMapper;
+
+    public BookingExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                JsonMapper jsonMapper,
+                                @Value("${karocharge.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Writes the matching bookings in id order and returns how many there were. The stream
+     * is flushed but not closed.
+     */
+    public long export(Filter filter, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < COLUMNS.size(); i++) sql.append(i > 0 ? ", " : "").append(COLUMNS.get(i).sql());
+        sql.append(" FROM bookings WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.hostName() != null) { sql.append(" AND host_name = ?"); args.add(filter.hostName()); }
+        if (filter.chargerId() != null) { sql.append(" AND charger_id = ?"); args.add(filter.chargerId()); }
+        if (filter.from() != null) { sql.append(" AND start_time >= ?"); args.add(filter.from()); }
+        if (filter.to() != null) { sql.append(" AND start_time < ?"); args.add(filter.to()); }
+        sql.append(" ORDER BY id");
+
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+        long[] rows = {0};
+        // Client went away: CSV rows wrap the IOException unchecked, the JSON generator in its own
+        try {
+            readOnly.executeWithoutResult(tx -> jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                writer.row(rs);
+                rows[0]++;
+            }, args.toArray()));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (JacksonIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void row(ResultSet rs) throws SQLException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line, keys as in the booking API, times as ISO local date-times.
+     */
+    private class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream out) {
+            this.json = jsonMapper.writer().withRootValueSeparator("").createGenerator(out);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException {
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                Column column = COLUMNS.get(i);
+                json.writeName(column.name());
+                Object value = value(rs, i + 1, column.kind());
+                if (value == null) json.writeNull();
+                else if (value instanceof Long v) json.writeNumber(v);
+                else if (value instanceof Integer v) json.writeNumber(v);
+                else if (value instanceof Double v) json.writeNumber(v);
+                else json.writeString(value.toString());
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() {
+            json.flush();
+        }
+    }
+
+    /**
+     * RFC 4180: header line, CRLF line ends, fields quoted only when they need it.
+     */
+    private static class CsvWriter implements RowWriter {
+
+        private final Writer csv;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) csv.write(',');
+                csv.write(COLUMNS.get(i).name());
+            }
+            csv.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException {
+            try {
+                for (int i = 0; i < COLUMNS.size(); i++) {
+                    if (i > 0) csv.write(',');
+                    Object value = value(rs, i + 1, COLUMNS.get(i).kind());
+                    if (value != null) writeField(value.toString());
+                }
+                csv.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeField(String field) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < field.length() && !quote; i++) {
+                char c = field.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                csv.write(field);
+                return;
+            }
+            csv.write('"');
+            csv.write(field.replace("\"", "\"\""));
+            csv.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            csv.flush();
+        }
+    }
+
+    private static Object value(ResultSet rs, int index, Kind kind) throws SQLException {
+        Object value = switch (kind) {
+            case LONG -> rs.getLong(index);
+            case INT -> rs.getInt(index);
+            case DOUBLE -> rs.getDouble(index);
+            case TEXT -> rs.getString(index);
+            case TIME -> rs.getObject(index, LocalDateTime.class);
+        };
+        return rs.wasNull() ? null : value;
+    }
+}
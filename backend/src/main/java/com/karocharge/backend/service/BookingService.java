@@ -0,0 +1,297 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.dto.KeysetPageDTO;
+import com.karocharge.backend.dto.SessionCompletionDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking versions of the session lifecycle calls used by BookingController.
+ * Work is handed to the booking executor so the servlet thread is released while the
+ * CMS round trip is in flight.
+ */
+@Service
+public class BookingService {
+
+    private final BookingRepository bookingRepository;
+    private final ChargerService chargerService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final LiveSessionRegistry liveSessions;
+    private final BookingDeadlineScheduler deadlines;
+    private final ReservationService reservations;
+
+    public enum StartOutcome { STARTED, NOT_FOUND, NOT_YET, CMS_REFUSED }
+
+    /**
+     * What startCharging did; booking is null for NOT_FOUND and unchanged unless STARTED.
+     */
+    public record StartResult(StartOutcome outcome, Booking booking) {
+    }
+
+    public BookingService(BookingRepository bookingRepository,
+                          ChargerService chargerService,
+                          PlatformTransactionManager transactionManager,
+                          @Qualifier("bookingExecutor") ExecutorService executor,
+                          LiveSessionRegistry liveSessions,
+                          BookingDeadlineScheduler deadlines,
+                          ReservationService reservations) {
+        this.bookingRepository = bookingRepository;
+        this.chargerService = chargerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.liveSessions = liveSessions;
+        this.deadlines = deadlines;
+        this.reservations = reservations;
+    }
+
+    /**
+     * Arms the no-show deadline of a fresh booking.
+     */
+    public void onBooked(Booking booking) {
+        deadlines.onBooked(booking);
+    }
+
+    /**
+     * Reserves a future slot and arms its activation. Returns null if the slot is taken.
+     */
+    public Booking reserve(Long chargerId, String userName, LocalDateTime start, Integer duration) {
+        Booking booking = reservations.reserve(chargerId, userName, start, duration);
+        if (booking != null) deadlines.onReserved(booking);
+        return booking;
+    }
+
+    /**
+     * Cancels a reservation before its slot starts. Returns null if it is not RESERVED.
+     */
+    public Booking cancelReservation(Long id) {
+        Booking booking = reservations.cancel(id);
+        if (booking != null) {
+            deadlines.onClosed(id);
+            liveSessions.publish(booking);
+        }
+        return booking;
+    }
+
+    /**
+     * Cancels a booking whose session has not started (BOOKED, or RESERVED): there is nothing
+     * running on the CMS, so no completion will come to free the charger and the slot. The
+     * charger goes back BOOKED -> AVAILABLE with the booking; deadlines and slot are let go
+     * once that has committed. Returns null if the booking is not in one of those states.
+     */
+    public Booking cancelBeforeStart(Long id, String cancelledBy) {
+        Booking cancelled = transactionTemplate.execute(tx -> {
+            Booking booking = bookingRepository.findById(id).orElse(null);
+            if (booking == null) return null;
+            String status = booking.getStatus();
+            if (!"BOOKED".equals(status) && !"RESERVED".equals(status)) return null;
+            booking.setStatus("CANCELLED");
+            booking.setCancelledBy(cancelledBy);
+            if ("BOOKED".equals(status)) {
+                chargerService.compareAndSetStatus(booking.getCharger().getId(), "BOOKED", "AVAILABLE");
+            }
+            return bookingRepository.save(booking);
+        });
+        if (cancelled != null) {
+            deadlines.onClosed(id);
+            reservations.release(id);
+            liveSessions.publish(cancelled);
+        }
+        return cancelled;
+    }
+
+    /**
+     * One page of a driver's bookings, newest first, after the cursor (null for the first page).
+     */
+    public KeysetPageDTO<BookingRepository.HistoryView> bookingsByUser(String userName, Long after, int limit) {
+        List<BookingRepository.HistoryView> rows = bookingRepository.findHistoryByUserNameBefore(
+                userName, after != null ? after : Long.MAX_VALUE, Limit.of(limit + 1));
+        return KeysetPageDTO.of(rows, limit, BookingRepository.HistoryView::getId);
+    }
+
+    /**
+     * One page of a charger's bookings, newest first, after the cursor (null for the first page).
+     */
+    public KeysetPageDTO<BookingRepository.HistoryView> bookingsByCharger(Long chargerId, Long after, int limit) {
+        List<BookingRepository.HistoryView> rows = bookingRepository.findHistoryByChargerIdBefore(
+                chargerId, after != null ? after : Long.MAX_VALUE, Limit.of(limit + 1));
+        return KeysetPageDTO.of(rows, limit, BookingRepository.HistoryView::getId);
+    }
+
+    /**
+     * Start charging: Late check -> CMS Unblock -> Booking + Charger set to CHARGING (one TX).
+     * NOT_FOUND if the booking does not exist, NOT_YET for a reservation whose slot has not
+     * started, CMS_REFUSED if the CMS did not unblock (the booking is left as it was).
+     */
+    public CompletableFuture<StartResult> startCharging(Long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            Booking booking = bookingRepository.findById(id).orElse(null);
+            if (booking == null) return new StartResult(StartOutcome.NOT_FOUND, null);
+            if ("RESERVED".equals(booking.getStatus())) return new StartResult(StartOutcome.NOT_YET, booking);
+
+            long totalMinutesPassed = Duration.between(booking.getStartTime(), LocalDateTime.now()).toMinutes();
+            booking.setLateMinutes(totalMinutesPassed > 1 ? (int) (totalMinutesPassed - 1) : 0);
+
+            Long chargerId = booking.getCharger().getId();
+            if (!chargerService.triggerCmsUnblock(chargerId)) {
+                return new StartResult(StartOutcome.CMS_REFUSED, booking);
+            }
+
+            booking.setStatus("CHARGING");
+            // IMPORTANT: This timestamp is the "Zero Point" for the timer
+            booking.setChargingStartedAt(LocalDateTime.now());
+            booking.setEndTime(booking.getChargingStartedAt().plusMinutes(booking.getDuration()));
+            Booking started = transactionTemplate.execute(tx -> {
+                bookingRepository.markCharging(id, booking.getChargingStartedAt(), booking.getEndTime(), booking.getLateMinutes());
+                chargerService.setChargerToCharging(chargerId);
+                liveSessions.publish(booking);
+                return booking;
+            });
+            deadlines.onChargingStarted(started);
+            reservations.occupy(started);
+            return new StartResult(StartOutcome.STARTED, started);
+        }, executor);
+    }
+
+    /**
+     * Extend: the duration update and the CMS re-unblock are independent, so they run
+     * side by side and the response waits for whichever finishes last.
+     * Completes with null if the booking does not exist.
+     */
+    public CompletableFuture<Booking> extendBooking(Long id, Integer extraMinutes) {
+        return CompletableFuture
+                .supplyAsync(() -> bookingRepository.findById(id).orElse(null), executor)
+                .thenCompose(booking -> {
+                    if (booking == null) return CompletableFuture.completedFuture(null);
+
+                    // Optional: If the CMS stopped the hardware, we re-trigger unblock
+                    CompletableFuture<Boolean> cms = CompletableFuture.supplyAsync(
+                            () -> chargerService.triggerCmsUnblock(booking.getCharger().getId()), executor);
+
+                    CompletableFuture<Booking> db = CompletableFuture.supplyAsync(() -> {
+                        int newDurationMins = booking.getDuration() + extraMinutes;
+                        booking.setDuration(newDurationMins);
+                        booking.setBookedDuration(newDurationMins / 60.0);
+                        if (booking.getChargingStartedAt() != null) {
+                            booking.setEndTime(booking.getChargingStartedAt().plusMinutes(newDurationMins));
+                        }
+                        // Set status back to CHARGING (in case it was already COMPLETED by auto-stop)
+                        booking.setStatus("CHARGING");
+                        transactionTemplate.executeWithoutResult(tx -> bookingRepository.extendSession(
+                                id, newDurationMins, booking.getBookedDuration(), booking.getEndTime()));
+                        liveSessions.publish(booking);
+                        deadlines.onChargingStarted(booking); // re-arm auto-stop at the new end
+                        reservations.occupy(booking);
+                        return booking;
+                    }, executor);
+
+                    return db.thenCombine(cms, (saved, cmsOk) -> saved);
+                });
+    }
+
+    /**
+     * Applies one CMS completion: status COMPLETED (unless CANCELLED), energy, duration,
+     * charger back to AVAILABLE. Returns APPLIED, DUPLICATE (completionId already seen)
+     * or NOT_FOUND (no CHARGING booking, nor a CANCELLED one still waiting for its totals).
+     * Callers provide the transaction.
+     */
+    public String applyCompletion(SessionCompletionDTO data) {
+        String completionId = data.getCompletionId();
+        if (completionId != null && bookingRepository.existsByCompletionId(completionId)) {
+            return "DUPLICATE";
+        }
+
+        Long chargerId = data.getChargerId();
+        Booking booking = bookingRepository.findTopByChargerIdAndStatusOrderByStartTimeDesc(chargerId, "CHARGING");
+        if (booking == null) {
+            booking = bookingRepository.findTopByChargerIdAndStatusAndCompletionIdIsNullOrderByStartTimeDesc(chargerId, "CANCELLED");
+        }
+        if (booking == null) return "NOT_FOUND";
+
+        if (!"CANCELLED".equals(booking.getStatus())) booking.setStatus("COMPLETED");
+        booking.setTotalEnergy(data.getTotalEnergy());
+        booking.setActualDuration(data.getDurationSeconds() != null ? data.getDurationSeconds().intValue() : null);
+        booking.setCompletionId(completionId);
+        bookingRepository.save(booking);
+        chargerService.unblockChargerLocally(chargerId);
+        liveSessions.publish(booking);
+        Long bookingId = booking.getId();
+        // Not before the commit: a batch that rolls back leaves the session CHARGING, with its
+        // deadlines and its slot
+        afterCommit(() -> {
+            deadlines.onClosed(bookingId);
+            reservations.release(bookingId);
+        });
+        return "APPLIED";
+    }
+
+    public String completeSession(SessionCompletionDTO data) {
+        return transactionTemplate.execute(tx -> applyCompletion(data));
+    }
+
+    /**
+     * Batch sync from the CMS outbox. The whole batch is applied in one transaction; if that
+     * fails, each record is retried in its own transaction so one bad row cannot hold back
+     * the rest. Records that still fail come back with status ERROR.
+     */
+    public List<BatchResultDTO> completeSessions(List<SessionCompletionDTO> batch) {
+        try {
+            return transactionTemplate.execute(tx -> {
+                List<BatchResultDTO> results = new ArrayList<>(batch.size());
+                for (SessionCompletionDTO data : batch) {
+                    results.add(completionResult(data, applyCompletion(data)));
+                }
+                // Flush inside the TX so constraint violations surface here, not at commit
+                bookingRepository.flush();
+                return results;
+            });
+        } catch (RuntimeException batchFailure) {
+            List<BatchResultDTO> results = new ArrayList<>(batch.size());
+            for (SessionCompletionDTO data : batch) {
+                String status;
+                try {
+                    status = completeSession(data);
+                } catch (RuntimeException e) {
+                    status = "ERROR";
+                }
+                results.add(completionResult(data, status));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Runs the action once the current transaction commits (right away if there is none).
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static BatchResultDTO completionResult(SessionCompletionDTO data, String status) {
+        return new BatchResultDTO(data.getChargerId(), "COMPLETE", status, data.getCompletionId());
+    }
+}
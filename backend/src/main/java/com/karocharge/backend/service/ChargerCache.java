@@ -0,0 +1,165 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.cache.LruCache;
+import com.karocharge.backend.dto.KeysetPageDTO;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.ChargerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of charger rows and listing pages, bounded by size and age
+ * (karocharge.cache.*).
+ *
+ * Chargers: a lookup by id reads the row once and serves copies until the charger is written.
+ * ChargerService notifies this cache after every write commits (saves and status transitions
+ * alike), and the entry is dropped. A load that raced with a write (started before the
+ * invalidation, finished after it) is not stored, so a stale row never outlives the write.
+ *
+ * Listing pages: cached with the change version they were read at (see ChargerVersions) and
+ * only served while that is still the current version, so any write retires them all.
+ *
+ * Callers get their own Charger copy and may modify it; listing pages are shared and must be
+ * treated as read-only.
+ */
+@Component
+public class ChargerCache implements ChargerChangeListener {
+
+    private record ListingKey(String hostName, Long after, int limit) {
+    }
+
+    private record Listing(long version, KeysetPageDTO<ChargerRepository.ListingView> page) {
+    }
+
+    private final ChargerRepository chargerRepository;
+    private final Clock clock;
+    private final LruCache<Long, Charger> chargers; // guarded by this
+    private final LruCache<ListingKey, Listing> listings; // guarded by this
+    private long invalidations; // guarded by this
+
+    @Autowired
+    public ChargerCache(ChargerRepository chargerRepository,
+                        @Value("${karocharge.cache.chargers.max-entries:10000}") int maxChargers,
+                        @Value("${karocharge.cache.chargers.ttl:5m}") Duration chargerTtl,
+                        @Value("${karocharge.cache.listings.max-entries:256}") int maxListings,
+                        @Value("${karocharge.cache.listings.ttl:30s}") Duration listingTtl) {
+        this(chargerRepository, Clock.systemUTC(), maxChargers, chargerTtl, maxListings, listingTtl);
+    }
+
+    ChargerCache(ChargerRepository chargerRepository, Clock clock,
+                 int maxChargers, Duration chargerTtl, int maxListings, Duration listingTtl) {
+        this.chargerRepository = chargerRepository;
+        this.clock = clock;
+        this.chargers = new LruCache<>(maxChargers, chargerTtl.toMillis());
+        this.listings = new LruCache<>(maxListings, listingTtl.toMillis());
+    }
+
+    /**
+     * A copy of the charger, or null if there is none.
+     */
+    public Charger get(Long id) {
+        long seen;
+        synchronized (this) {
+            Charger cached = chargers.get(id, clock.millis());
+            if (cached != null) return copy(cached);
+            seen = invalidations;
+        }
+
+        Charger loaded = chargerRepository.findById(id).orElse(null);
+        if (loaded == null) return null;
+        Charger stored = copy(loaded);
+        synchronized (this) {
+            if (invalidations == seen) chargers.put(id, stored, clock.millis());
+        }
+        return copy(stored);
+    }
+
+    /**
+     * A listing page (hostName null for all chargers) as of 'version', loaded on a miss. The
+     * version must be taken before the loader reads, so the page is at least that recent.
+     */
+    public KeysetPageDTO<ChargerRepository.ListingView> listing(String hostName, Long after, int limit, long version,
+                                                                Supplier<KeysetPageDTO<ChargerRepository.ListingView>> loader) {
+        ListingKey key = new ListingKey(hostName, after, limit);
+        synchronized (this) {
+            Listing cached = listings.get(key, clock.millis());
+            if (cached != null && cached.version() == version) return cached.page();
+        }
+
+        KeysetPageDTO<ChargerRepository.ListingView> page = loader.get();
+        synchronized (this) {
+            listings.put(key, new Listing(version, page), clock.millis());
+        }
+        return page;
+    }
+
+    @Override
+    public void onChargerSaved(Charger charger) {
+        invalidate(List.of(charger.getId()));
+    }
+
+    @Override
+    public void onStatusChanged(Collection<Long> chargerIds) {
+        invalidate(chargerIds);
+    }
+
+    /**
+     * Drops everything, for writes that do not say which chargers they touched.
+     */
+    public synchronized void clear() {
+        invalidations++;
+        chargers.clear();
+        listings.clear();
+    }
+
+    /**
+     * Hit / miss / eviction counts and sizes, per cache.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("chargers", stats(chargers));
+        stats.put("listings", stats(listings));
+        return stats;
+    }
+
+    private synchronized void invalidate(Collection<Long> chargerIds) {
+        invalidations++;
+        for (Long id : chargerIds) chargers.remove(id);
+    }
+
+    private static Map<String, Object> stats(LruCache<?, ?> cache) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxEntries", cache.maxEntries());
+        stats.put("hits", cache.hits());
+        stats.put("misses", cache.misses());
+        stats.put("sizeEvictions", cache.sizeEvictions());
+        stats.put("expirations", cache.expirations());
+        return stats;
+    }
+
+    private static Charger copy(Charger source) {
+        Charger copy = new Charger();
+        copy.setId(source.getId());
+        copy.setHostName(source.getHostName());
+        copy.setLocation(source.getLocation());
+        copy.setBrand(source.getBrand());
+        copy.setType(source.getType());
+        copy.setAvailableDate(source.getAvailableDate());
+        copy.setDuration(source.getDuration());
+        copy.setStatus(source.getStatus());
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setChangeVersion(source.getChangeVersion());
+        return copy;
+    }
+}
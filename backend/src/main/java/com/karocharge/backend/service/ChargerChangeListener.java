@@ -0,0 +1,23 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.model.Charger;
+
+import java.util.Collection;
+
+/**
+ * Notified by ChargerService after charger writes commit, for in-memory views of the
+ * chargers table (search indexes, caches).
+ */
+public interface ChargerChangeListener {
+
+    /**
+     * A charger was created or its details changed.
+     */
+    void onChargerSaved(Charger charger);
+
+    /**
+     * These chargers may have changed status (conditional updates do not say which rows
+     * matched); the listener re-reads whatever it needs.
+     */
+    void onStatusChanged(Collection<Long> chargerIds);
+}
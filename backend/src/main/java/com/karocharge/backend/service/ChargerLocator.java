@@ -0,0 +1,139 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.dto.NearbyChargerDTO;
+import com.karocharge.backend.geo.GeoGrid;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.ChargerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index of all chargers that have a position, for the nearby search.
+ *
+ * Loaded once at startup, then kept current by ChargerService: new chargers are added and
+ * status changes re-read the affected rows. Searches never touch the DB. A status re-read
+ * and its update happen under one lock, so when two changes to the same charger race the
+ * later read always wins. The search is only a discovery aid: booking still goes through
+ * the conditional update on the chargers table.
+ */
+@Component
+public class ChargerLocator implements ChargerChangeListener {
+
+    private final ChargerRepository chargerRepository;
+    private final GeoGrid<Located> grid;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object statusRefresh = new Object();
+
+    public ChargerLocator(ChargerRepository chargerRepository,
+                          @Value("${karocharge.geo.cell-degrees:0.01}") double cellDegrees) {
+        this.chargerRepository = chargerRepository;
+        this.grid = new GeoGrid<>(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Charger charger : chargerRepository.findAll()) onChargerSaved(charger);
+    }
+
+    @Override
+    public void onChargerSaved(Charger charger) {
+        lock.writeLock().lock();
+        try {
+            if (charger.getLatitude() == null || charger.getLongitude() == null) {
+                grid.remove(charger.getId());
+            } else {
+                grid.put(charger.getId(), charger.getLatitude(), charger.getLongitude(), new Located(charger));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Collection<Long> chargerIds) {
+        List<Long> indexed = new ArrayList<>(chargerIds.size());
+        for (Long id : chargerIds) if (get(id) != null) indexed.add(id);
+        if (indexed.isEmpty()) return; // no position, nothing to refresh
+
+        synchronized (statusRefresh) {
+            for (ChargerRepository.StatusView row : chargerRepository.findStatusByIdIn(indexed)) {
+                Located located = get(row.getId());
+                if (located != null) located.status = row.getStatus();
+            }
+        }
+    }
+
+    /**
+     * Up to k AVAILABLE chargers within radiusKm, nearest first. brand and type are optional
+     * (case-insensitive exact match).
+     */
+    public List<NearbyChargerDTO> nearby(double latitude, double longitude, double radiusKm, int k,
+                                         String brand, String type) {
+        List<GeoGrid.Hit<Located>> hits;
+        lock.readLock().lock();
+        try {
+            hits = grid.nearest(latitude, longitude, radiusKm, k, c -> "AVAILABLE".equals(c.status)
+                    && (brand == null || brand.equalsIgnoreCase(c.brand))
+                    && (type == null || type.equalsIgnoreCase(c.type)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<NearbyChargerDTO> result = new ArrayList<>(hits.size());
+        for (GeoGrid.Hit<Located> hit : hits) {
+            Located c = hit.item();
+            result.add(new NearbyChargerDTO(c.id, c.hostName, c.location, c.brand, c.type, c.status,
+                    c.latitude, c.longitude, Math.round(hit.distanceKm() * 1000) / 1000.0));
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Located get(Long id) {
+        lock.readLock().lock();
+        try {
+            return grid.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Listing snapshot of one charger; only the status changes in place. */
+    private static final class Located {
+        final Long id;
+        final String hostName;
+        final String location;
+        final String brand;
+        final String type;
+        final double latitude;
+        final double longitude;
+        volatile String status;
+
+        Located(Charger charger) {
+            this.id = charger.getId();
+            this.hostName = charger.getHostName();
+            this.location = charger.getLocation();
+            this.brand = charger.getBrand();
+            this.type = charger.getType();
+            this.latitude = charger.getLatitude();
+            this.longitude = charger.getLongitude();
+            this.status = charger.getStatus();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.dto.ChargerSearchResultDTO;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.ChargerRepository;
+import com.karocharge.backend.search.Bitmap;
+import com.karocharge.backend.search.FacetIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes over the charger attributes the UI filters on (brand, type, status, host,
+ * available date), for the faceted search.
+ *
+ * Built once at startup and kept current by ChargerService, like ChargerLocator: new chargers
+ * are indexed as saved. Status changes only mark the chargers stale; the next search re-reads
+ * all stale rows in one query, so booking and charging pay nothing for the index. A search
+ * resolves the filters to a bitmap in memory; only the requested page of chargers is read
+ * from the DB.
+ */
+@Component
+public class ChargerSearchIndex implements ChargerChangeListener {
+
+    static final String BRAND = "brand";
+    static final String TYPE = "type";
+    static final String STATUS = "status";
+    static final String HOST = "host";
+    static final String AVAILABLE_DATE = "availableDate";
+
+    private static final int FACET_VALUES = 20;
+    private static final int REFRESH_BATCH = 1000;
+
+    private final ChargerRepository chargerRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object statusRefresh = new Object();
+    private final Set<Long> staleStatus = ConcurrentHashMap.newKeySet();
+    private FacetIndex index = newIndex(); // guarded by lock
+
+    public ChargerSearchIndex(ChargerRepository chargerRepository) {
+        this.chargerRepository = chargerRepository;
+    }
+
+    /**
+     * (Re)builds the index from the chargers table. Saves arriving meanwhile wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (statusRefresh) {
+            lock.writeLock().lock();
+            try {
+                staleStatus.clear();
+                index = newIndex();
+                for (Charger charger : chargerRepository.findAll()) put(index, charger);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void onChargerSaved(Charger charger) {
+        lock.writeLock().lock();
+        try {
+            put(index, charger);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Collection<Long> chargerIds) {
+        staleStatus.addAll(chargerIds);
+    }
+
+    /**
+     * Chargers matching every given filter (a filter with several values matches any of
+     * them; empty or null means no filter), ordered by id, one page at a time.
+     */
+    public ChargerSearchResultDTO search(Collection<String> brands, Collection<String> types,
+                                         Collection<String> statuses, Collection<String> hosts,
+                                         LocalDate availableFrom, LocalDate availableTo,
+                                         int page, int size) {
+        List<Long> ids = new ArrayList<>(size);
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        int total;
+
+        refreshStatuses();
+        lock.readLock().lock();
+        try {
+            Bitmap matches = index.all();
+            if (brands != null && !brands.isEmpty()) matches.and(index.anyOf(BRAND, brands));
+            if (types != null && !types.isEmpty()) matches.and(index.anyOf(TYPE, types));
+            if (statuses != null && !statuses.isEmpty()) matches.and(index.anyOf(STATUS, statuses));
+            if (hosts != null && !hosts.isEmpty()) matches.and(index.anyOf(HOST, hosts));
+            if (availableFrom != null || availableTo != null) {
+                matches.and(index.range(AVAILABLE_DATE,
+                        availableFrom != null ? availableFrom.toString() : null,
+                        availableTo != null ? availableTo.toString() : null));
+            }
+            total = matches.cardinality();
+
+            long skip = (long) page * size;
+            int doc = matches.nextSetBit(0);
+            for (long i = 0; i < skip && doc >= 0; i++) doc = matches.nextSetBit(doc + 1);
+            for (; doc >= 0 && ids.size() < size; doc = matches.nextSetBit(doc + 1)) ids.add((long) doc);
+
+            for (String field : index.fields()) facets.put(field, index.counts(field, matches, total, FACET_VALUES));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Charger> chargers = new ArrayList<>(chargerRepository.findAllById(ids));
+        chargers.sort(Comparator.comparing(Charger::getId));
+        return new ChargerSearchResultDTO(total, page, size, chargers, facets);
+    }
+
+    public int size() {
+        refreshStatuses();
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the status of every charger marked stale. Ids are taken off the set before
+     * the read, so a change committed meanwhile is either seen by this read or marked again.
+     */
+    private void refreshStatuses() {
+        if (staleStatus.isEmpty()) return;
+        synchronized (statusRefresh) {
+            List<Long> ids = new ArrayList<>(staleStatus);
+            staleStatus.removeAll(ids);
+            for (int from = 0; from < ids.size(); from += REFRESH_BATCH) {
+                List<ChargerRepository.StatusView> rows =
+                        chargerRepository.findStatusByIdIn(ids.subList(from, Math.min(ids.size(), from + REFRESH_BATCH)));
+                lock.writeLock().lock();
+                try {
+                    for (ChargerRepository.StatusView row : rows) {
+                        int doc = Math.toIntExact(row.getId());
+                        if (index.contains(doc)) index.set(doc, STATUS, row.getStatus());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private static void put(FacetIndex index, Charger charger) {
+        int doc = Math.toIntExact(charger.getId());
+        index.set(doc, BRAND, charger.getBrand());
+        index.set(doc, TYPE, charger.getType());
+        index.set(doc, STATUS, charger.getStatus());
+        index.set(doc, HOST, charger.getHostName());
+        index.set(doc, AVAILABLE_DATE, charger.getAvailableDate() != null ? charger.getAvailableDate().toString() : null);
+    }
+
+    private static FacetIndex newIndex() {
+        return new FacetIndex(BRAND, TYPE, STATUS, HOST, AVAILABLE_DATE);
+    }
+}
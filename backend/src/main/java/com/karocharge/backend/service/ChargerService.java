@@ -1,79 +1,239 @@
 package com.karocharge.backend.service;
 
+import com.karocharge.backend.dto.BatchCommandDTO;
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.dto.ChargerChangesDTO;
+import com.karocharge.backend.dto.KeysetPageDTO;
 import com.karocharge.backend.model.Booking;
 import com.karocharge.backend.model.Charger;
 import com.karocharge.backend.repository.BookingRepository;
 import com.karocharge.backend.repository.ChargerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class ChargerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChargerService.class);
+
     private final ChargerRepository chargerRepository;
     private final BookingRepository bookingRepository;
     private final RestTemplate restTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationService reservations;
+    private final List<ChargerChangeListener> listeners;
+    private final ChargerVersions versions;
+    private final ChargerCache cache;
+    private final ExecutorService bookingExecutor;
+    private final MeterRegistry meterRegistry;
+    private final String cmsBaseUrl;
+    private final int cmsBatchSize;
 
     public ChargerService(ChargerRepository chargerRepository,
                           BookingRepository bookingRepository,
-                          RestTemplate restTemplate) {
+                          RestTemplate restTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ReservationService reservations,
+                          List<ChargerChangeListener> listeners,
+                          ChargerVersions versions,
+                          ChargerCache cache,
+                          @Qualifier("bookingExecutor") ExecutorService bookingExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${karocharge.cms.base-url}") String cmsBaseUrl,
+                          @Value("${karocharge.cms.batch-size:500}") int cmsBatchSize) {
         this.chargerRepository = chargerRepository;
         this.bookingRepository = bookingRepository;
         this.restTemplate = restTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservations = reservations;
+        this.listeners = listeners;
+        this.versions = versions;
+        this.cache = cache;
+        this.bookingExecutor = bookingExecutor;
+        this.meterRegistry = meterRegistry;
+        this.cmsBaseUrl = cmsBaseUrl;
+        this.cmsBatchSize = cmsBatchSize;
     }
 
     public Charger createCharger(Charger charger) {
-        charger.setStatus("AVAILABLE");
-        return chargerRepository.save(charger);
+        return transactionTemplate.execute(tx -> {
+            charger.setStatus("AVAILABLE");
+            charger.setChangeVersion(nextVersion());
+            Charger saved = chargerRepository.save(charger);
+            afterCommit(() -> listeners.forEach(listener -> listener.onChargerSaved(saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * One page of all chargers in id order, after the cursor (null for the first page).
+     */
+    public KeysetPageDTO<ChargerRepository.ListingView> listChargers(Long after, int limit) {
+        return cache.listing(null, after, limit, versions.stable(), () -> {
+            List<ChargerRepository.ListingView> rows =
+                    chargerRepository.findListingAfter(after != null ? after : 0L, Limit.of(limit + 1));
+            return KeysetPageDTO.of(rows, limit, ChargerRepository.ListingView::getId);
+        });
     }
 
-    public List<Charger> getAllChargers() {
-        return chargerRepository.findAll();
+    /**
+     * One page of a host's chargers in id order, after the cursor (null for the first page).
+     */
+    public KeysetPageDTO<ChargerRepository.ListingView> listChargersByHost(String hostName, Long after, int limit) {
+        return cache.listing(hostName, after, limit, versions.stable(), () -> {
+            List<ChargerRepository.ListingView> rows = chargerRepository.findListingByHostNameAfter(
+                    hostName, after != null ? after : 0L, Limit.of(limit + 1));
+            return KeysetPageDTO.of(rows, limit, ChargerRepository.ListingView::getId);
+        });
     }
 
     public Charger getChargerById(Long id) {
-        return chargerRepository.findById(id).orElse(null);
+        return cache.get(id);
+    }
+
+    /**
+     * Chargers created or changed after version 'since', oldest change first, and the version
+     * to ask with next time. A page never ends in the middle of one version (a fleet
+     * operation stamps all its chargers with the same one), so it can run over 'limit'.
+     */
+    public ChargerChangesDTO changesSince(long since, int limit) {
+        long upTo = versions.stable();
+        List<ChargerRepository.ListingView> rows = chargerRepository.findChangedBetween(since, upTo, Limit.of(limit + 1));
+        if (rows.size() <= limit) return new ChargerChangesDTO(upTo, rows, false);
+
+        long cut = rows.get(limit).getChangeVersion();
+        List<ChargerRepository.ListingView> page = new ArrayList<>(rows.subList(0, limit));
+        page.removeIf(row -> row.getChangeVersion() == cut);
+        if (page.isEmpty()) page = chargerRepository.findChangedBetween(cut - 1, cut, Limit.unlimited());
+        return new ChargerChangesDTO(page.getLast().getChangeVersion(), page, true);
+    }
+
+    /**
+     * Version of the chargers table as a whole (see ChargerVersions.stable), for ETags.
+     */
+    public long currentVersion() {
+        return versions.stable();
+    }
+
+    /**
+     * Versions rows written before change versions existed, once at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void stampUnversioned() {
+        transactionTemplate.executeWithoutResult(tx -> chargerRepository.stampUnversioned(nextVersion()));
+        cache.clear();
     }
 
     // --- CORE LOGIC METHODS ---
 
     /**
-     * Handles the booking flow: Checks availability -> CMS Block -> DB Update -> Create Booking
+     * Handles the booking flow: Checks availability -> Claim + Create Booking (one TX) -> CMS Block
+     *
+     * The claim is a conditional UPDATE (AVAILABLE -> BOOKED), so when many users hit the same
+     * charger at once exactly one of them gets a row back. If the CMS then refuses the block,
+     * the claim is rolled back by a compensating transaction. The same happens if the session
+     * would run into an upcoming reservation on the charger.
+     *
+     * Timed as karocharge.bookings, tagged with the outcome (booked, unavailable, taken,
+     * slot_conflict, cms_refused).
      */
     public Booking bookCharger(Long id, String userName, Integer duration) {
-        Charger charger = chargerRepository.findById(id).orElse(null);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Charger charger = cache.get(id);
         if (charger == null || !"AVAILABLE".equalsIgnoreCase(charger.getStatus())) {
-            return null;
+            return bookingOutcome(sample, "unavailable", null);
+        }
+
+        // Validates duration and snapshots the charger before anything is written
+        Booking booking = new Booking(charger, duration, "BOOKED", userName);
+
+        // Step 1: Atomically claim the charger and insert the booking
+        Booking saved = transactionTemplate.execute(tx -> {
+            if (!compareAndSetStatus(id, "AVAILABLE", "BOOKED")) {
+                return null; // Someone else won the race
+            }
+            return bookingRepository.save(booking);
+        });
+        if (saved == null) {
+            return bookingOutcome(sample, "taken", null);
         }
 
-        // Step 1: Tell CMS to physically block the hardware
+        // Step 2: Take the time slot, then tell CMS to physically block the hardware
+        if (!reservations.holdWalkIn(saved)) {
+            releaseClaim(saved);
+            return bookingOutcome(sample, "slot_conflict", null);
+        }
         if (!blockInCms(id)) {
-            return null;
+            reservations.release(saved.getId());
+            releaseClaim(saved);
+            return bookingOutcome(sample, "cms_refused", null);
         }
 
-        // Step 2: Update local DB status
         charger.setStatus("BOOKED");
-        chargerRepository.save(charger);
+        return bookingOutcome(sample, "booked", saved);
+    }
 
-        Booking booking = new Booking(charger, duration, "BOOKED", userName);
-        return bookingRepository.save(booking);
+    private Booking bookingOutcome(Timer.Sample sample, String outcome, Booking booking) {
+        sample.stop(meterRegistry.timer("karocharge.bookings", "outcome", outcome));
+        return booking;
+    }
+
+    /**
+     * Same as bookCharger, but runs on the booking executor so the caller's thread is free
+     * while the CMS block is in flight.
+     */
+    public CompletableFuture<Booking> bookChargerAsync(Long id, String userName, Integer duration) {
+        return CompletableFuture.supplyAsync(() -> bookCharger(id, userName, duration), bookingExecutor);
+    }
+
+    /**
+     * Undo a claim made by bookCharger when the CMS could not block the hardware.
+     */
+    private void releaseClaim(Booking booking) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            bookingRepository.delete(booking);
+            compareAndSetStatus(booking.getCharger().getId(), "BOOKED", "AVAILABLE");
+        });
     }
 
     /**
      * RESTORES missing method: Manual block logic called by ChargerController
      */
     public Charger blockCharger(Long id) {
-        Charger charger = chargerRepository.findById(id).orElse(null);
+        Charger charger = cache.get(id);
         if (charger == null || !"AVAILABLE".equalsIgnoreCase(charger.getStatus())) {
             return null;
         }
 
         if (blockInCms(id)) {
-            charger.setStatus("BLOCKED");
-            return chargerRepository.save(charger);
+            return transactionTemplate.execute(tx -> {
+                // Booked meanwhile: the booking owns the charger now
+                if (!compareAndSetStatus(id, "AVAILABLE", "BLOCKED")) return null;
+                charger.setStatus("BLOCKED");
+                return charger;
+            });
         }
         return null;
     }
@@ -82,49 +242,179 @@ public class ChargerService {
      * Called by CMS confirmed unblock (Normal or Cancelled) to reset status to AVAILABLE
      */
     public Charger unblockChargerLocally(Long id) {
-        Charger charger = chargerRepository.findById(id).orElse(null);
-        if (charger == null) return null;
+        return transactionTemplate.execute(tx -> {
+            Charger charger = cache.get(id);
+            if (charger == null) return null;
 
-        // Reset the hardware to available for the next guest
-        charger.setStatus("AVAILABLE");
-        return chargerRepository.save(charger);
+            // Reset the hardware to available for the next guest
+            Long version = setStatus(id, "AVAILABLE");
+            if (version == null) return null;
+            charger.setStatus("AVAILABLE");
+            charger.setChangeVersion(version);
+            return charger;
+        });
     }
 
     /**
-     * Updates status to CHARGING when session starts
+     * Updates status to CHARGING when session starts. False if there is no such charger.
      */
-    public Charger setChargerToCharging(Long id) {
-        Charger charger = chargerRepository.findById(id).orElse(null);
-        if (charger == null) return null;
+    public boolean setChargerToCharging(Long id) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> setStatus(id, "CHARGING") != null));
+    }
 
-        charger.setStatus("CHARGING");
-        return chargerRepository.save(charger);
+    /**
+     * One UPDATE, no read. Returns the change version stamped, or null if there is no such charger.
+     */
+    private Long setStatus(Long id, String status) {
+        long version = nextVersion();
+        if (chargerRepository.updateStatus(id, status, version) == 0) return null;
+        statusChanged(List.of(id));
+        return version;
+    }
+
+    /**
+     * Conditional status change (see ChargerRepository.compareAndSetStatus) for callers outside
+     * this service, so listeners hear about it. Join the caller's transaction if there is one.
+     */
+    public boolean compareAndSetStatus(Long id, String expected, String target) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            if (chargerRepository.compareAndSetStatus(id, expected, target, nextVersion()) == 0) return false;
+            statusChanged(List.of(id));
+            return true;
+        }));
+    }
+
+    /**
+     * Fleet operation: runs the same CMS command (BLOCK / UNBLOCK / STOP) on many chargers.
+     * One CMS round trip per chunk of karocharge.cms.batch-size chargers instead of one per charger.
+     * Chargers that the CMS blocked are marked BLOCKED locally (only if they were AVAILABLE).
+     */
+    public List<BatchResultDTO> batchCmsCommand(List<Long> ids, String operation) {
+        List<BatchCommandDTO> commands = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            commands.add(new BatchCommandDTO(id, operation.toUpperCase()));
+        }
+        List<BatchResultDTO> results = sendCmsBatch(commands);
+
+        if ("BLOCK".equalsIgnoreCase(operation)) {
+            List<Long> blocked = new ArrayList<>();
+            for (BatchResultDTO result : results) {
+                if ("SUCCESS".equalsIgnoreCase(result.getStatus())) blocked.add(result.getChargerId());
+            }
+            if (!blocked.isEmpty()) {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    chargerRepository.compareAndSetStatusIn(blocked, "AVAILABLE", "BLOCKED", nextVersion());
+                    statusChanged(blocked);
+                });
+            }
+        }
+        return results;
+    }
+
+    // --- CHANGE NOTIFICATION ---
+
+    /**
+     * Change version for a write in the current transaction; released once it completes.
+     */
+    private long nextVersion() {
+        long version = versions.next();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                versions.done(version);
+            }
+        });
+        return version;
+    }
+
+    private void statusChanged(Collection<Long> ids) {
+        afterCommit(() -> listeners.forEach(listener -> listener.onStatusChanged(ids)));
+    }
+
+    /**
+     * Runs the action once the current transaction commits (right away if there is none),
+     * so listeners never see a change that is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     // --- CMS API CALLS ---
 
-    private boolean blockInCms(Long id) {
-        try {
-            String cmsUrl = "http://localhost:9090/api/cms/chargers/" + id + "/block";
-            ResponseEntity<String> response = restTemplate.postForEntity(cmsUrl, null, String.class);
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception e) {
-            System.err.println("CMS Block Failed for ID " + id + ": " + e.getMessage());
-            return false;
+    /**
+     * Sends commands to the CMS batch endpoint in chunks. A chunk that fails as a whole
+     * (CMS down, circuit open) yields FAIL results for its chargers instead of an exception.
+     */
+    public List<BatchResultDTO> sendCmsBatch(List<BatchCommandDTO> commands) {
+        List<BatchResultDTO> results = new ArrayList<>(commands.size());
+        for (int from = 0; from < commands.size(); from += cmsBatchSize) {
+            List<BatchCommandDTO> chunk = commands.subList(from, Math.min(from + cmsBatchSize, commands.size()));
+            try {
+                BatchResultDTO[] response = restTemplate.postForObject(cmsBaseUrl + "/batch", chunk, BatchResultDTO[].class);
+                results.addAll(Arrays.asList(response != null ? response : new BatchResultDTO[0]));
+            } catch (Exception e) {
+                logger.warn("CMS batch failed for {} chargers: {}", chunk.size(), e.getMessage());
+                for (BatchCommandDTO command : chunk) {
+                    results.add(new BatchResultDTO(command.getChargerId(), command.getOperation(), "FAIL", e.getMessage()));
+                }
+            }
         }
+        return results;
+    }
+
+    boolean blockInCms(Long id) {
+        return callCms(id, "block", "CMS Block Failed");
     }
 
     /**
      * Tells CMS to unblock (used when starting a session or cancelling a booking)
      */
     public boolean triggerCmsUnblock(Long id) {
+        return callCms(id, "unblock", "CMS Unblock Trigger Failed");
+    }
+
+    /**
+     * Tells CMS to cut power; the CMS answers by posting the final totals to /api/bookings/complete
+     */
+    public boolean triggerCmsStop(Long id) {
+        return callCms(id, "stop", "CMS Stop Trigger Failed");
+    }
+
+    /**
+     * One single-charger command to the CMS, timed as karocharge.cms.requests by operation,
+     * outcome and CMS status: the HTTP status, or the underlying exception's name if no
+     * response came back (ConnectException, SocketTimeoutException, CircuitOpenException, ...).
+     */
+    private boolean callCms(Long id, String operation, String failure) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status;
+        boolean success = false;
         try {
-            String cmsUrl = "http://localhost:9090/api/cms/chargers/" + id + "/unblock";
-            ResponseEntity<String> response = restTemplate.postForEntity(cmsUrl, null, String.class);
-            return response.getStatusCode().is2xxSuccessful();
+            ResponseEntity<String> response = restTemplate.postForEntity(cmsBaseUrl + "/" + id + "/" + operation, null, String.class);
+            status = String.valueOf(response.getStatusCode().value());
+            success = response.getStatusCode().is2xxSuccessful();
         } catch (Exception e) {
-            System.err.println("CMS Unblock Trigger Failed for ID " + id + ": " + e.getMessage());
-            return false;
+            logger.warn("{} for ID {}: {}", failure, id, e.getMessage());
+            status = e instanceof RestClientResponseException http
+                    ? String.valueOf(http.getStatusCode().value())
+                    : rootCause(e).getClass().getSimpleName();
         }
+        sample.stop(meterRegistry.timer("karocharge.cms.requests",
+                "operation", operation, "outcome", success ? "success" : "failure", "status", status));
+        return success;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) e = e.getCause();
+        return e;
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.repository.ChargerRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.TreeSet;
+
+/**
+ * Change versions of the chargers table. Every write in ChargerService stamps the row with the
+ * next number, so "what changed since v" is a range scan on the change_version index.
+ *
+ * Numbers are handed out in memory (one backend instance, like the other in-memory views) and
+ * seeded from the highest stored version on first use. A version is in flight from the moment
+ * it is handed out until its transaction completes. stable() is the highest version below
+ * every in-flight one: a client that has synced up to stable() cannot miss a change that
+ * commits later with a smaller number.
+ */
+@Component
+public class ChargerVersions {
+
+    private final ChargerRepository chargerRepository;
+    private final TreeSet<Long> inFlight = new TreeSet<>(); // guarded by this
+    private long last = -1; // guarded by this; -1 until seeded
+
+    public ChargerVersions(ChargerRepository chargerRepository) {
+        this.chargerRepository = chargerRepository;
+    }
+
+    /**
+     * Next version, in flight until done() is called for it.
+     */
+    public synchronized long next() {
+        seed();
+        long version = ++last;
+        inFlight.add(version);
+        return version;
+    }
+
+    /**
+     * The transaction that used this version committed or rolled back.
+     */
+    public synchronized void done(long version) {
+        inFlight.remove(version);
+    }
+
+    /**
+     * Every change up to this version is committed (or will never be).
+     */
+    public synchronized long stable() {
+        seed();
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    private void seed() {
+        if (last < 0) last = chargerRepository.findMaxChangeVersion();
+    }
+}
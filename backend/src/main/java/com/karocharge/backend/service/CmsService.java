@@ -2,6 +2,9 @@ package com.karocharge.backend.service;
 
 import com.karocharge.backend.dto.CmsRequestDTO;
 import com.karocharge.backend.dto.CmsResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -9,12 +12,15 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class CmsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CmsService.class);
+
     private final RestTemplate restTemplate;
     // Matches your CMS port and RequestMapping
-    private final String CMS_BASE_URL = "http://localhost:9090/api/cms/chargers";
+    private final String CMS_BASE_URL;
 
-    public CmsService() {
-        this.restTemplate = new RestTemplate();
+    public CmsService(RestTemplate restTemplate, @Value("${karocharge.cms.base-url}") String cmsBaseUrl) {
+        this.restTemplate = restTemplate;
+        this.CMS_BASE_URL = cmsBaseUrl;
     }
 
     public boolean unblockCharger(CmsRequestDTO request) {
@@ -22,7 +28,7 @@ public class CmsService {
             // This builds: http://localhost:9090/api/cms/chargers/38/unblock
             String url = CMS_BASE_URL + "/" + request.getChargerId() + "/unblock";
 
-            System.out.println("Calling CMS at: " + url);
+            logger.debug("Calling CMS at: {}", url);
 
             // Using postForEntity with 'null' for the body because the ID is in the URL
             ResponseEntity<CmsResponseDTO> response = restTemplate.postForEntity(
@@ -32,12 +38,12 @@ public class CmsService {
             );
 
             if (response.getBody() != null) {
-                System.out.println("CMS Response: " + response.getBody().getStatus());
+                logger.debug("CMS Response: {}", response.getBody().getStatus());
                 return "success".equalsIgnoreCase(response.getBody().getStatus());
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Failed to connect to CMS Simulator: " + e.getMessage());
+            logger.warn("Failed to connect to CMS Simulator: {}", e.getMessage());
             return false; // Triggers the 500 error in your BookingController
         }
     }
@@ -0,0 +1,220 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory view of live booking sessions, pushed to the frontend over Server-Sent Events.
+ *
+ * A session is loaded from the DB once (on subscribe, or at startup for CHARGING bookings).
+ * After that it is kept current by the lifecycle calls (start / extend / stop / complete)
+ * and by meter updates keyed by charger id, so the 1-second push tick never touches the DB.
+ * Terminal states (COMPLETED, CANCELLED) are pushed once, then the session is dropped.
+ */
+@Component
+public class LiveSessionRegistry {
+
+    private final BookingRepository bookingRepository;
+    private final long emitterTimeoutMs;
+
+    private final Map<Long, LiveSession> byBooking = new ConcurrentHashMap<>();
+    private final Map<Long, LiveSession> byCharger = new ConcurrentHashMap<>();
+
+    public LiveSessionRegistry(BookingRepository bookingRepository,
+                               @Value("${karocharge.live.emitter-timeout:30m}") Duration emitterTimeout) {
+        this.bookingRepository = bookingRepository;
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+    }
+
+    /**
+     * Sessions that were CHARGING before a restart keep receiving meter updates.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveSessions() {
+        for (Booking booking : bookingRepository.findByStatus("CHARGING")) {
+            track(booking);
+        }
+    }
+
+    /**
+     * Opens an event stream for a booking. Returns null if the booking does not exist.
+     */
+    public SseEmitter subscribe(Long bookingId) {
+        LiveSession session = byBooking.get(bookingId);
+        if (session == null) {
+            Booking booking = bookingRepository.findById(bookingId).orElse(null);
+            if (booking == null) return null;
+            session = track(booking);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        LiveSession subscribed = session;
+        emitter.onCompletion(() -> subscribed.emitters.remove(emitter));
+        emitter.onTimeout(() -> subscribed.emitters.remove(emitter));
+        emitter.onError(e -> subscribed.emitters.remove(emitter));
+        session.emitters.add(emitter);
+
+        // First frame straight away, so the client does not wait for the next tick
+        push(session, System.currentTimeMillis());
+        return emitter;
+    }
+
+    /**
+     * Status transition. Inside a transaction the push waits for the commit, so clients
+     * never see a state that is later rolled back.
+     */
+    public void publish(Booking booking) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(booking);
+                }
+            });
+        } else {
+            apply(booking);
+        }
+    }
+
+    /**
+     * Live meter value for whatever session is running on this charger (ignored if none).
+     */
+    public void updateEnergy(Long chargerId, double energyKwh) {
+        LiveSession session = byCharger.get(chargerId);
+        if (session != null) session.liveEnergy = energyKwh;
+    }
+
+    public int activeSessions() {
+        return byBooking.size();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void pushTick() {
+        long now = System.currentTimeMillis();
+        for (LiveSession session : byBooking.values()) {
+            if (!session.emitters.isEmpty()) push(session, now);
+        }
+    }
+
+    private void apply(Booking booking) {
+        LiveSession session = byBooking.get(booking.getId());
+        if (session == null) {
+            if (!"CHARGING".equals(booking.getStatus())) return; // nobody is watching it
+            session = track(booking);
+        } else {
+            session.copyFrom(booking);
+        }
+
+        push(session, System.currentTimeMillis());
+    }
+
+    private LiveSession track(Booking booking) {
+        LiveSession session = new LiveSession(booking);
+        LiveSession existing = byBooking.putIfAbsent(booking.getId(), session);
+        if (existing != null) return existing;
+        if (session.chargerId != null) byCharger.put(session.chargerId, session);
+        return session;
+    }
+
+    private void push(LiveSession session, long now) {
+        Map<String, Object> frame = session.toFrame(now);
+        for (SseEmitter emitter : session.emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("session").data(frame));
+            } catch (IOException | IllegalStateException e) {
+                session.emitters.remove(emitter); // client went away
+            }
+        }
+
+        if (session.isFinished()) {
+            for (SseEmitter emitter : session.emitters) emitter.complete();
+            byBooking.remove(session.bookingId, session);
+            if (session.chargerId != null) byCharger.remove(session.chargerId, session);
+        }
+    }
+
+    private static final class LiveSession {
+        final Long bookingId;
+        final Long chargerId;
+        final String userName;
+        final String chargerType;
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        volatile String status;
+        volatile Long chargingStartedAtMillis;
+        volatile Double bookedDuration;
+        volatile Integer lateMinutes;
+        volatile Integer idleMinutes;
+        volatile String cancelledBy;
+        volatile Double totalEnergy;
+        volatile Integer actualDuration;
+        volatile Double liveEnergy;
+
+        LiveSession(Booking booking) {
+            this.bookingId = booking.getId();
+            this.chargerId = booking.getCharger() != null ? booking.getCharger().getId() : null;
+            this.userName = booking.getUserName();
+            this.chargerType = booking.getType();
+            copyFrom(booking);
+        }
+
+        void copyFrom(Booking booking) {
+            this.status = booking.getStatus();
+            this.chargingStartedAtMillis = booking.getChargingStartedAt() != null
+                    ? booking.getChargingStartedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : null;
+            this.bookedDuration = booking.getBookedDuration();
+            this.lateMinutes = booking.getLateMinutes();
+            this.idleMinutes = booking.getIdleMinutes();
+            this.cancelledBy = booking.getCancelledBy();
+            this.totalEnergy = booking.getTotalEnergy();
+            this.actualDuration = booking.getActualDuration();
+        }
+
+        boolean isFinished() {
+            if ("COMPLETED".equals(status) || "EXPIRED".equals(status)) return true;
+            // A cancelled session that was charging stays open until the CMS totals arrive
+            return "CANCELLED".equals(status) && (totalEnergy != null || chargingStartedAtMillis == null);
+        }
+
+        Map<String, Object> toFrame(long now) {
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("id", bookingId);
+            frame.put("status", status);
+            frame.put("userName", userName);
+            frame.put("chargerType", chargerType);
+            frame.put("bookedDuration", bookedDuration);
+            frame.put("lateMinutes", lateMinutes);
+            frame.put("idleMinutes", idleMinutes);
+            frame.put("cancelledBy", cancelledBy);
+            frame.put("totalEnergy", totalEnergy);
+            frame.put("liveEnergy", liveEnergy);
+
+            // Same rule as GET /api/bookings/{id}: live seconds while charging, synced value after
+            Long startedAt = chargingStartedAtMillis;
+            if ("CHARGING".equals(status) && startedAt != null) {
+                frame.put("actualDuration", (now - startedAt) / 1000);
+            } else {
+                frame.put("actualDuration", actualDuration);
+            }
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.dto.MeterBatchDTO;
+import com.karocharge.backend.timeseries.EnergySeriesStore;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latest meter reading (Wh) per charger, rebuilt from the CMS meter stream.
+ * Keyframes replace the whole view; delta frames are only accepted on top of the frame
+ * they were computed against. Anything else (CMS restart, lost frame, backend restart)
+ * is rejected so the CMS falls back to a keyframe.
+ * Every accepted reading is forwarded to the live session registry and recorded in the
+ * energy curve store; a charger's curve chunk is sealed when its session ends.
+ */
+@Component
+public class MeterReadings {
+
+    private final LiveSessionRegistry liveSessions;
+    private final EnergySeriesStore energySeries;
+
+    private final Object seriesWrites = new Object();
+    private final Map<Long, Long> energyWh = new HashMap<>();
+    private long epoch;
+    private long lastSequence = -1;
+
+    public MeterReadings(LiveSessionRegistry liveSessions, EnergySeriesStore energySeries) {
+        this.liveSessions = liveSessions;
+        this.energySeries = energySeries;
+    }
+
+    /**
+     * Applies one frame. Returns false if a delta frame does not fit the current state.
+     * The view is updated under the monitor; the curve store (which may write a chunk to
+     * disk) is fed afterwards, under a separate lock that keeps frames in order without
+     * making readers of the view wait for the file.
+     */
+    public boolean apply(MeterBatchDTO frame) throws IOException {
+        long[] ids = frame.getChargerIds() != null ? frame.getChargerIds() : new long[0];
+        long[] values = frame.getEnergyWh() != null ? frame.getEnergyWh() : new long[0];
+        if (ids.length != values.length) throw new IllegalArgumentException("chargerIds and energyWh differ in length");
+
+        long sampledAt = frame.getSampledAtMillis() > 0 ? frame.getSampledAtMillis() : System.currentTimeMillis();
+        long[] readings = new long[ids.length];
+        synchronized (seriesWrites) {
+            synchronized (this) {
+                if (frame.isKeyframe()) {
+                    energyWh.clear();
+                    epoch = frame.getEpoch();
+                } else if (frame.getEpoch() != epoch || frame.getBaseSequence() != lastSequence) {
+                    return false;
+                }
+
+                for (int i = 0; i < ids.length; i++) {
+                    long value = frame.isKeyframe() ? values[i] : energyWh.getOrDefault(ids[i], 0L) + values[i];
+                    energyWh.put(ids[i], value);
+                    liveSessions.updateEnergy(ids[i], value / 1000.0);
+                    readings[i] = value;
+                }
+                if (frame.getRemovedChargerIds() != null) {
+                    for (long id : frame.getRemovedChargerIds()) energyWh.remove(id);
+                }
+                lastSequence = frame.getSequence();
+            }
+
+            for (int i = 0; i < ids.length; i++) energySeries.append(ids[i], sampledAt, readings[i]);
+            if (frame.getRemovedChargerIds() != null) {
+                for (long id : frame.getRemovedChargerIds()) energySeries.seal(id);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Latest reading in Wh, or null if the charger has no running session.
+     */
+    public synchronized Long energyWh(Long chargerId) {
+        return energyWh.get(chargerId);
+    }
+
+    public synchronized int size() {
+        return energyWh.size();
+    }
+}
@@ -1,32 +1,135 @@
 package com.karocharge.backend.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * One-time codes per booking.
+ *
+ * Entries expire after the TTL and are removed lazily: on lookup, and by a sweep that
+ * generateOtp runs at most once per 1/SWEEP_SLICES of the TTL, so the scan costs the same
+ * whatever the request rate and a full store of live codes is not rescanned per request.
+ * While the store is full, generateOtp refuses (returns null) instead of growing.
+ *
+ * Wrong guesses are counted per booking, not per code: regenerating keeps the count, and the
+ * count is kept until lockout has passed since the last wrong guess. At maxAttempts the code
+ * is discarded and the booking is locked out (no new code, no verification) for lockout.
+ *
+ * Codes come from a small set of SecureRandom stripes, so concurrent requests (virtual
+ * threads included) do not queue on one generator or seed a new one per thread.
+ */
 @Service
 public class OtpService {
 
+    private static final int SWEEP_SLICES = 16;
+
+    /**
+     * otp is null while locked out or once the code has expired; keepUntil is when the
+     * whole entry (failure count included) can go.
+     */
+    private record Entry(String otp, long expiresAt, int failedAttempts, long lockedUntil, long keepUntil) {
+    }
+
     // Stores OTPs for bookingId
-    private final Map<Long, String> otpStorage = new HashMap<>();
-    private final Random random = new Random();
+    private final Map<Long, Entry> otpStorage = new ConcurrentHashMap<>();
+    private final SecureRandom[] randoms;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final int maxAttempts;
+    private final long lockoutMillis;
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    @Autowired
+    public OtpService(@Value("${karocharge.otp.ttl:5m}") Duration ttl,
+                      @Value("${karocharge.otp.max-entries:100000}") int maxEntries,
+                      @Value("${karocharge.otp.max-attempts:5}") int maxAttempts,
+                      @Value("${karocharge.otp.lockout:15m}") Duration lockout) {
+        this(Clock.systemUTC(), ttl, maxEntries, maxAttempts, lockout);
+    }
 
-    // Generate OTP for a booking
+    OtpService(Clock clock, Duration ttl, int maxEntries, int maxAttempts, Duration lockout) {
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.maxAttempts = maxAttempts;
+        this.lockoutMillis = lockout.toMillis();
+
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+        this.randoms = new SecureRandom[stripes];
+        for (int i = 0; i < stripes; i++) randoms[i] = new SecureRandom();
+    }
+
+    // Generate OTP for a booking (null if the store is full of live codes, or the booking is locked out)
     public String generateOtp(Long bookingId) {
+        long now = clock.millis();
+        long due = nextSweepAt.get();
+        if (now >= due && nextSweepAt.compareAndSet(due, now + Math.max(1, ttlMillis / SWEEP_SLICES))) {
+            sweep(now);
+        }
+        if (otpStorage.size() >= maxEntries && !otpStorage.containsKey(bookingId)) {
+            return null;
+        }
+
+        SecureRandom random = randoms[ThreadLocalRandom.current().nextInt(randoms.length)];
         String otp = String.format("%04d", random.nextInt(10000)); // 4-digit OTP
-        otpStorage.put(bookingId, otp);
-        return otp;
+        boolean[] lockedOut = {false};
+        otpStorage.compute(bookingId, (id, entry) -> {
+            if (entry == null || entry.keepUntil() <= now) return new Entry(otp, now + ttlMillis, 0, 0, now + ttlMillis);
+            if (entry.lockedUntil() > now) {
+                lockedOut[0] = true;
+                return entry;
+            }
+            return new Entry(otp, now + ttlMillis, entry.failedAttempts(), 0, Math.max(entry.keepUntil(), now + ttlMillis));
+        });
+        return lockedOut[0] ? null : otp;
     }
 
     // Verify OTP for a booking
     public boolean verifyOtp(Long bookingId, String otp) {
-        String storedOtp = otpStorage.get(bookingId);
-        if (storedOtp != null && storedOtp.equals(otp)) {
-            otpStorage.remove(bookingId); // OTP can be used only once
-            return true;
+        long now = clock.millis();
+        boolean[] verified = {false};
+        otpStorage.computeIfPresent(bookingId, (id, entry) -> {
+            if (entry.keepUntil() <= now) return null;
+            if (entry.lockedUntil() > now || entry.otp() == null || entry.expiresAt() <= now) return entry;
+            if (otp != null && MessageDigest.isEqual(
+                    entry.otp().getBytes(StandardCharsets.US_ASCII), otp.getBytes(StandardCharsets.US_ASCII))) {
+                verified[0] = true;
+                return null; // OTP can be used only once
+            }
+            int failed = entry.failedAttempts() + 1;
+            long keepUntil = Math.max(entry.keepUntil(), now + lockoutMillis);
+            return failed >= maxAttempts
+                    ? new Entry(null, 0, failed, now + lockoutMillis, now + lockoutMillis)
+                    : new Entry(entry.otp(), entry.expiresAt(), failed, 0, keepUntil);
+        });
+        return verified[0];
+    }
+
+    public boolean isLockedOut(Long bookingId) {
+        Entry entry = otpStorage.get(bookingId);
+        return entry != null && entry.lockedUntil() > clock.millis();
+    }
+
+    public int size() {
+        return otpStorage.size();
+    }
+
+    private void sweep(long now) {
+        for (Iterator<Entry> it = otpStorage.values().iterator(); it.hasNext(); ) {
+            if (it.next().keepUntil() <= now) it.remove();
         }
-        return false;
     }
 }
@@ -0,0 +1,194 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.scheduling.IntervalIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-slot occupancy of every charger, for advance bookings.
+ *
+ * Each charger has an IntervalIndex of the slots taken by RESERVED bookings (future slots)
+ * and by the session currently on it (BOOKED / CHARGING). New reservations and walk-in
+ * bookings are checked against it in O(log n) instead of flipping the whole charger.
+ *
+ * The index lives only in memory; it is rebuilt from the open bookings at startup.
+ * Reserving holds the charger's index lock across the insert so two overlapping
+ * reservations can never both be saved.
+ */
+@Service
+public class ReservationService {
+
+    private record Slot(long chargerId, long start) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final ChargerCache chargers;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, IntervalIndex> byCharger = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>(); // bookingId -> where it sits
+
+    public ReservationService(BookingRepository bookingRepository,
+                              ChargerCache chargers,
+                              PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.chargers = chargers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Rebuilds all indexes: reservations first (they never overlap), then the running
+     * sessions, cut short where they would run into a reservation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        byCharger.clear();
+        slots.clear();
+        for (Booking booking : bookingRepository.findByStatus("RESERVED")) {
+            long chargerId = booking.getCharger().getId();
+            long start = millis(booking.getStartTime());
+            if (index(chargerId).add(start, millis(booking.getEndTime()), booking.getId())) {
+                slots.put(booking.getId(), new Slot(chargerId, start));
+            }
+        }
+        for (String status : List.of("BOOKED", "CHARGING")) {
+            for (Booking booking : bookingRepository.findByStatus(status)) occupy(booking);
+        }
+    }
+
+    /**
+     * Reserves [start, start + duration) on a charger. Returns null if the slot overlaps
+     * another booking; throws IllegalArgumentException for an unknown charger or a slot
+     * in the past.
+     */
+    public Booking reserve(Long chargerId, String userName, LocalDateTime start, Integer duration) {
+        Charger charger = chargers.get(chargerId);
+        if (charger == null) throw new IllegalArgumentException("Charger not found");
+        if (start == null || start.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Start time must be in the future");
+        }
+
+        Booking booking = new Booking(charger, duration, "RESERVED", userName);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusMinutes(duration));
+        long from = millis(booking.getStartTime());
+        long to = millis(booking.getEndTime());
+
+        IntervalIndex index = index(chargerId);
+        synchronized (index) {
+            if (index.overlaps(from, to)) return null;
+            Booking saved = transactionTemplate.execute(tx -> bookingRepository.save(booking));
+            index.add(from, to, saved.getId());
+            slots.put(saved.getId(), new Slot(chargerId, from));
+            return saved;
+        }
+    }
+
+    /**
+     * Takes the slot for a walk-in booking made right now. Returns false if the session
+     * would run into a reservation.
+     */
+    public boolean holdWalkIn(Booking booking) {
+        long chargerId = booking.getCharger().getId();
+        long start = millis(booking.getStartTime());
+        IntervalIndex index = index(chargerId);
+        synchronized (index) {
+            if (!index.add(start, start + booking.getDuration() * 60_000L, booking.getId())) return false;
+            slots.put(booking.getId(), new Slot(chargerId, start));
+            return true;
+        }
+    }
+
+    /**
+     * Start and extend: moves the booking's slot to its actual charging window. A session that
+     * is already running is never refused; it is cut short in the index at the next
+     * reservation, which then waits for the charger when it activates.
+     */
+    public void occupy(Booking booking) {
+        LocalDateTime startTime = booking.getChargingStartedAt() != null ? booking.getChargingStartedAt() : booking.getStartTime();
+        LocalDateTime endTime = booking.getEndTime() != null ? booking.getEndTime() : startTime.plusMinutes(booking.getDuration());
+        long chargerId = booking.getCharger().getId();
+        long start = millis(startTime);
+        long end = Math.max(millis(endTime), start + 1);
+
+        IntervalIndex index = index(chargerId);
+        synchronized (index) {
+            Slot previous = slots.remove(booking.getId());
+            if (previous != null) index.remove(previous.start(), booking.getId());
+            if (index.addClamped(start, end, booking.getId()) != null) {
+                slots.put(booking.getId(), new Slot(chargerId, start));
+            }
+        }
+    }
+
+    /**
+     * Frees the booking's slot (completed, expired or cancelled).
+     */
+    public void release(Long bookingId) {
+        Slot slot = slots.remove(bookingId);
+        if (slot == null) return;
+        IntervalIndex index = index(slot.chargerId());
+        synchronized (index) {
+            index.remove(slot.start(), bookingId);
+        }
+    }
+
+    /**
+     * Cancels a reservation that has not started yet. Returns the cancelled booking, or null
+     * if it does not exist or is no longer RESERVED.
+     */
+    public Booking cancel(Long bookingId) {
+        Booking cancelled = transactionTemplate.execute(tx -> {
+            Booking booking = bookingRepository.findById(bookingId).orElse(null);
+            if (booking == null || !"RESERVED".equals(booking.getStatus())) return null;
+            booking.setStatus("CANCELLED");
+            booking.setCancelledBy("DRIVER");
+            return bookingRepository.save(booking);
+        });
+        if (cancelled != null) release(bookingId);
+        return cancelled;
+    }
+
+    /**
+     * Earliest start at or after 'from' with 'durationMinutes' free on the charger.
+     */
+    public LocalDateTime nextFreeSlot(Long chargerId, LocalDateTime from, int durationMinutes) {
+        IntervalIndex index = index(chargerId);
+        long start;
+        synchronized (index) {
+            start = index.nextFree(millis(from), durationMinutes * 60_000L);
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneId.systemDefault());
+    }
+
+    /**
+     * Number of slots currently held on a charger.
+     */
+    public int slotCount(Long chargerId) {
+        IntervalIndex index = index(chargerId);
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    private IntervalIndex index(long chargerId) {
+        return byCharger.computeIfAbsent(chargerId, id -> new IntervalIndex());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
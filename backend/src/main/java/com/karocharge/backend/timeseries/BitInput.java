@@ -0,0 +1,39 @@
+package com.karocharge.backend.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back what BitOutput wrote.
+ */
+final class BitInput {
+
+    private final long[] words;
+    private long position;
+
+    BitInput(byte[] data) {
+        ByteBuffer padded = ByteBuffer.allocate((data.length + 7) / 8 * 8).put(data).rewind();
+        this.words = new long[padded.capacity() / Long.BYTES];
+        for (int i = 0; i < words.length; i++) words[i] = padded.getLong();
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * Reads 'count' bits (1..64) as an unsigned value.
+     */
+    long readBits(int count) {
+        int index = (int) (position >>> 6);
+        int used = (int) (position & 63);
+        int available = 64 - used;
+        position += count;
+
+        if (count <= available) {
+            return (words[index] << used) >>> (64 - count);
+        }
+        int spill = count - available;
+        long high = words[index] & ((1L << available) - 1);
+        return (high << spill) | (words[index + 1] >>> (64 - spill));
+    }
+}
@@ -0,0 +1,54 @@
+package com.karocharge.backend.timeseries;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Append-only bit buffer (most significant bit first), backed by a growable long[].
+ */
+final class BitOutput {
+
+    private long[] words;
+    private long bits;
+
+    BitOutput(int initialWords) {
+        this.words = new long[Math.max(1, initialWords)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes the low 'count' bits of value (1..64).
+     */
+    void writeBits(long value, int count) {
+        long end = bits + count;
+        if (end > (long) words.length << 6) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, (int) ((end + 63) >>> 6)));
+        }
+
+        int index = (int) (bits >>> 6);
+        int free = 64 - (int) (bits & 63);
+        long v = count == 64 ? value : value & ((1L << count) - 1);
+        if (count <= free) {
+            words[index] |= v << (free - count);
+        } else {
+            int spill = count - free;
+            words[index] |= v >>> spill;
+            words[index + 1] |= v << (64 - spill);
+        }
+        bits = end;
+    }
+
+    long bitLength() {
+        return bits;
+    }
+
+    byte[] toByteArray() {
+        int used = (int) ((bits + 63) >>> 6);
+        ByteBuffer buffer = ByteBuffer.allocate(used * Long.BYTES);
+        for (int i = 0; i < used; i++) buffer.putLong(words[i]);
+        return Arrays.copyOf(buffer.array(), (int) ((bits + 7) >>> 3));
+    }
+}
@@ -0,0 +1,267 @@
+package com.karocharge.backend.timeseries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded, append-only store of meter samples (timestamp millis, energy Wh) per charger.
+ *
+ * Each charger has one open SeriesChunk in memory. When it reaches chunkSamples, or the
+ * charger's session ends (seal), the chunk is appended to a single data file:
+ *
+ *   MAGIC | chargerId | firstTimestamp | lastTimestamp | count | length | compressed bytes
+ *
+ * The per-charger chunk index (offset + time range) is kept in memory and rebuilt by
+ * scanning the file on startup; a chunk cut short by a crash is truncated away. Samples
+ * still in an open chunk are lost on a crash (at most one chunk per charger).
+ */
+public class EnergySeriesStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x4B435453; // "KCTS"
+    private static final int HEADER_SIZE = 36;
+
+    private final Path file;
+    private final int chunkSamples;
+    private final FileChannel channel;
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+    private long fileSize;
+
+    public EnergySeriesStore(Path file, int chunkSamples) throws IOException {
+        this.file = file;
+        this.chunkSamples = chunkSamples;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    /**
+     * Appends one sample. Returns false if it is older than the charger's last sample.
+     */
+    public boolean append(long chargerId, long timestampMillis, long energyWh) throws IOException {
+        Series s = series.computeIfAbsent(chargerId, id -> new Series());
+        synchronized (s) {
+            if (s.open == null) s.open = new SeriesChunk(chunkSamples);
+            if (!s.open.append(timestampMillis, energyWh)) return false;
+            if (s.open.count() >= chunkSamples) flush(chargerId, s);
+            return true;
+        }
+    }
+
+    /**
+     * Writes the charger's open chunk to disk (end of session).
+     */
+    public void seal(long chargerId) throws IOException {
+        Series s = series.get(chargerId);
+        if (s == null) return;
+        synchronized (s) {
+            flush(chargerId, s);
+        }
+    }
+
+    /**
+     * Samples in [fromMillis, toMillis]. With stepMillis > 0 the range is cut into buckets of
+     * that width and only the last sample of each bucket is kept (energy is cumulative, so
+     * the last value is the bucket's reading).
+     */
+    public Curve query(long chargerId, long fromMillis, long toMillis, long stepMillis) throws IOException {
+        Series s = series.get(chargerId);
+        if (s == null) return Curve.EMPTY;
+
+        List<ChunkRef> chunks;
+        byte[] openBytes = null;
+        int openCount = 0;
+        synchronized (s) {
+            chunks = new ArrayList<>(s.sealed);
+            if (s.open != null && s.open.count() > 0 && s.open.lastTimestamp() >= fromMillis
+                    && s.open.firstTimestamp() <= toMillis) {
+                openBytes = s.open.toByteArray();
+                openCount = s.open.count();
+            }
+        }
+
+        CurveBuilder curve = new CurveBuilder(fromMillis, toMillis, stepMillis);
+        for (ChunkRef chunk : chunks) {
+            if (chunk.lastTimestamp() < fromMillis || chunk.firstTimestamp() > toMillis) continue;
+            SeriesChunk.decode(read(chunk), chunk.count(), curve);
+        }
+        if (openBytes != null) SeriesChunk.decode(openBytes, openCount, curve);
+        return curve.build();
+    }
+
+    /**
+     * Bytes and samples on disk plus in open chunks (for capacity planning / benchmarks).
+     */
+    public Stats stats() {
+        long samples = 0;
+        long bytes = 0;
+        for (Series s : series.values()) {
+            synchronized (s) {
+                for (ChunkRef chunk : s.sealed) {
+                    samples += chunk.count();
+                    bytes += HEADER_SIZE + chunk.length();
+                }
+                if (s.open != null) {
+                    samples += s.open.count();
+                    bytes += (s.open.toByteArray().length);
+                }
+            }
+        }
+        return new Stats(series.size(), samples, bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Map.Entry<Long, Series> entry : series.entrySet()) {
+            synchronized (entry.getValue()) {
+                flush(entry.getKey(), entry.getValue());
+            }
+        }
+        channel.force(true);
+        channel.close();
+    }
+
+    private void flush(long chargerId, Series s) throws IOException {
+        SeriesChunk chunk = s.open;
+        if (chunk == null || chunk.count() == 0) return;
+
+        byte[] data = chunk.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + data.length);
+        record.putInt(MAGIC)
+                .putLong(chargerId)
+                .putLong(chunk.firstTimestamp())
+                .putLong(chunk.lastTimestamp())
+                .putInt(chunk.count())
+                .putInt(data.length)
+                .put(data)
+                .flip();
+
+        long offset = reserve(record.remaining());
+        while (record.hasRemaining()) {
+            channel.write(record, offset + record.position());
+        }
+        s.sealed.add(new ChunkRef(offset + HEADER_SIZE, chunk.firstTimestamp(), chunk.lastTimestamp(), chunk.count(), data.length));
+        s.open = null;
+    }
+
+    private synchronized long reserve(int bytes) {
+        long offset = fileSize;
+        fileSize += bytes;
+        return offset;
+    }
+
+    private byte[] read(ChunkRef chunk) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(chunk.length());
+        while (data.hasRemaining()) {
+            if (channel.read(data, chunk.offset() + data.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+        return data.array();
+    }
+
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            if (header.getInt() != MAGIC) break;
+
+            long chargerId = header.getLong();
+            long first = header.getLong();
+            long last = header.getLong();
+            int count = header.getInt();
+            int length = header.getInt();
+            if (position + HEADER_SIZE + length > size) break; // torn chunk
+
+            series.computeIfAbsent(chargerId, id -> new Series()).sealed
+                    .add(new ChunkRef(position + HEADER_SIZE, first, last, count, length));
+            position += HEADER_SIZE + length;
+        }
+
+        if (position < size) {
+            channel.truncate(position);
+        }
+        fileSize = position;
+    }
+
+    private static final class Series {
+        final List<ChunkRef> sealed = new ArrayList<>();
+        SeriesChunk open;
+    }
+
+    private record ChunkRef(long offset, long firstTimestamp, long lastTimestamp, int count, int length) {
+    }
+
+    /**
+     * Columnar query result: timestamps[i] (epoch millis) pairs with energyWh[i].
+     */
+    public record Curve(long[] timestamps, long[] energyWh) {
+        static final Curve EMPTY = new Curve(new long[0], new long[0]);
+
+        public int size() {
+            return timestamps.length;
+        }
+    }
+
+    public record Stats(int chargers, long samples, long bytes) {
+        public double bytesPerSample() {
+            return samples == 0 ? 0 : (double) bytes / samples;
+        }
+    }
+
+    private static final class CurveBuilder implements SeriesChunk.SampleSink {
+        private final long from;
+        private final long to;
+        private final long step;
+        private long[] timestamps = new long[64];
+        private long[] values = new long[64];
+        private int size;
+        private long lastBucket = Long.MIN_VALUE;
+
+        CurveBuilder(long from, long to, long step) {
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        @Override
+        public void accept(long timestamp, long value) {
+            if (timestamp < from || timestamp > to) return;
+
+            if (step > 0) {
+                long bucket = (timestamp - from) / step;
+                if (bucket == lastBucket) {
+                    // Same bucket: the later sample replaces the earlier one
+                    timestamps[size - 1] = timestamp;
+                    values[size - 1] = value;
+                    return;
+                }
+                lastBucket = bucket;
+            }
+
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        Curve build() {
+            return new Curve(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.karocharge.backend.timeseries;
+
+/**
+ * One compressed block of (timestamp, value) samples for a single charger.
+ *
+ * Both columns are encoded Gorilla-style as delta-of-delta with variable-width buckets:
+ *   0                      -> '0'
+ *   fits  7 bits (signed)  -> '10'   + 7 bits
+ *   fits  9 bits           -> '110'  + 9 bits
+ *   fits 12 bits           -> '1110' + 12 bits
+ *   otherwise              -> '1111' + 64 bits
+ * The first sample is stored raw. At a steady 1 s cadence and constant power both deltas
+ * barely move, so a sample usually costs a few bits for the timestamp jitter and one bit
+ * for the energy.
+ */
+final class SeriesChunk {
+
+    private final BitOutput out;
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long timestampDelta;
+    private long lastValue;
+    private long valueDelta;
+
+    SeriesChunk(int expectedSamples) {
+        // ~12 bits per sample is typical; BitOutput grows if the guess is low
+        this.out = new BitOutput(expectedSamples * 12 / 64 + 4);
+    }
+
+    /**
+     * Appends a sample. Timestamps must not go backwards; returns false (and drops it) if they do.
+     */
+    boolean append(long timestamp, long value) {
+        if (count == 0) {
+            out.writeBits(timestamp, 64);
+            out.writeBits(value, 64);
+            firstTimestamp = timestamp;
+        } else {
+            if (timestamp < lastTimestamp) return false;
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(out, delta - timestampDelta);
+            timestampDelta = delta;
+
+            long change = value - lastValue;
+            writeDeltaOfDelta(out, change - valueDelta);
+            valueDelta = change;
+        }
+        lastTimestamp = timestamp;
+        lastValue = value;
+        count++;
+        return true;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes 'count' samples from data and hands each to the sink, oldest first.
+     */
+    static void decode(byte[] data, int count, SampleSink sink) {
+        if (count == 0) return;
+        BitInput in = new BitInput(data);
+        long timestamp = in.readBits(64);
+        long value = in.readBits(64);
+        sink.accept(timestamp, value);
+
+        long timestampDelta = 0;
+        long valueDelta = 0;
+        for (int i = 1; i < count; i++) {
+            timestampDelta += readDeltaOfDelta(in);
+            timestamp += timestampDelta;
+            valueDelta += readDeltaOfDelta(in);
+            value += valueDelta;
+            sink.accept(timestamp, value);
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitOutput out, long dod) {
+        if (dod == 0) {
+            out.writeBit(false);
+        } else if (fits(dod, 7)) {
+            out.writeBits(0b10, 2);
+            out.writeBits(dod, 7);
+        } else if (fits(dod, 9)) {
+            out.writeBits(0b110, 3);
+            out.writeBits(dod, 9);
+        } else if (fits(dod, 12)) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(dod, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitInput in) {
+        if (!in.readBit()) return 0;
+        if (!in.readBit()) return signed(in.readBits(7), 7);
+        if (!in.readBit()) return signed(in.readBits(9), 9);
+        if (!in.readBit()) return signed(in.readBits(12), 12);
+        return in.readBits(64);
+    }
+
+    private static boolean fits(long value, int bits) {
+        long limit = 1L << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+
+    private static long signed(long raw, int bits) {
+        return (raw << (64 - bits)) >> (64 - bits);
+    }
+
+    interface SampleSink {
+        void accept(long timestamp, long value);
+    }
+}
@@ -0,0 +1,51 @@
+package com.karocharge.backend;
+
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.repository.ChargerRepository;
+import com.karocharge.backend.service.ChargerCache;
+import com.karocharge.backend.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Base for the Spring tests that read and write chargers and bookings. The in-memory DB is
+ * shared by every test of a context, so each test starts from empty tables, an empty
+ * reservation index and an empty charger cache. Subclass set-ups run after the reset.
+ */
+public abstract class AbstractStoreTest {
+
+    @Autowired
+    protected BookingRepository bookingRepository;
+
+    @Autowired
+    protected ChargerRepository chargerRepository;
+
+    @Autowired
+    protected ReservationService reservations;
+
+    @Autowired
+    protected ChargerCache chargerCache;
+
+    @BeforeEach
+    void resetStore() {
+        bookingRepository.deleteAll();
+        chargerRepository.deleteAll();
+        reservations.rebuild();
+        chargerCache.clear();
+    }
+
+    /**
+     * An unsaved AVAILABLE Tata DC charger in Pune, hosted by "host" for 60 minutes.
+     * Tests set whatever else they care about before saving it.
+     */
+    protected static Charger newCharger() {
+        Charger charger = new Charger();
+        charger.setHostName("host");
+        charger.setLocation("Pune");
+        charger.setBrand("Tata");
+        charger.setType("DC");
+        charger.setDuration(60);
+        return charger;
+    }
+}
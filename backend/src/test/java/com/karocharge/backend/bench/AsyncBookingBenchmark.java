@@ -0,0 +1,163 @@
+package com.karocharge.backend.bench;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.repository.ChargerRepository;
+import com.karocharge.backend.service.ChargerService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Blocking vs async booking under a slow CMS.
+ * Run with: mvn test -Dtest=AsyncBookingBenchmark -Dbenchmark=true [-DcmsDelayMs=1000] [-Drequests=400]
+ *
+ * A stub CMS answers every block after CMS_DELAY_MS. Tomcat is capped at a small thread
+ * pool so the blocking endpoint saturates the way production does at peak hour.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=32", "karocharge.http.default-max-per-route=500",
+                "karocharge.http.max-total=500", "karocharge.http.read-timeout=30s",
+                "karocharge.http.connection-request-timeout=30s", "spring.datasource.hikari.maximum-pool-size=50"})
+@Import(AsyncBookingBenchmark.BlockingBookingController.class)
+class AsyncBookingBenchmark {
+
+    private static final int CMS_DELAY_MS = Integer.getInteger("cmsDelayMs", 1000);
+    private static final int REQUESTS = Integer.getInteger("requests", 400);
+
+    private static final HttpServer slowCms = startSlowCms();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChargerRepository chargerRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @DynamicPropertySource
+    static void cmsUrl(DynamicPropertyRegistry registry) {
+        registry.add("karocharge.cms.base-url",
+                () -> "http://localhost:" + slowCms.getAddress().getPort() + "/api/cms/chargers");
+    }
+
+    @AfterAll
+    static void stopCms() {
+        slowCms.stop(0);
+    }
+
+    @Test
+    void compareBlockingAndAsyncBooking() throws Exception {
+        run("warmup", "/bench/blocking/", 100);
+        run("warmup", "/api/chargers/", 100);
+
+        run("blocking", "/bench/blocking/", REQUESTS);
+        run("async", "/api/chargers/", REQUESTS);
+    }
+
+    private void run(String label, String prefix, int requests) throws Exception {
+        bookingRepository.deleteAll();
+        chargerRepository.deleteAll();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            Charger charger = new Charger();
+            charger.setHostName("bench");
+            charger.setLocation("bench");
+            charger.setBrand("bench");
+            charger.setType("DC");
+            ids.add(chargerRepository.save(charger).getId());
+        }
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long[] latencies = new long[requests];
+        List<CompletableFuture<HttpResponse<Void>>> calls = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int slot = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + prefix + ids.get(i) + "/book"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"userName\":\"bench\",\"duration\":30}"))
+                    .build();
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((r, e) -> latencies[slot] = System.nanoTime() - sent));
+        }
+        long ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> call : calls) {
+            if (call.join().statusCode() == 200) ok++;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s requests=%d ok=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms%n",
+                label, requests, ok, requests / (elapsed / 1e9),
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6);
+    }
+
+    private static HttpServer startSlowCms() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(0), 4096);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(CMS_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = "{\"status\":\"SUCCESS\"}".getBytes();
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The pre-async endpoint: the servlet thread waits for the whole CMS round trip.
+     */
+    @TestConfiguration
+    @RestController
+    static class BlockingBookingController {
+
+        @Autowired
+        private ChargerService chargerService;
+
+        @PostMapping("/bench/blocking/{id}/book")
+        public ResponseEntity<?> book(@PathVariable Long id) {
+            Booking booking = chargerService.bookCharger(id, "bench", 30);
+            return booking == null ? ResponseEntity.badRequest().build() : ResponseEntity.ok(booking);
+        }
+    }
+}
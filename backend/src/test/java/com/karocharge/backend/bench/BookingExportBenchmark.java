@@ -0,0 +1,118 @@
+package com.karocharge.backend.bench;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.service.BookingExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporting 500k bookings: the streaming cursor (GET /api/bookings/export) vs materializing
+ * them with a List finder first. Reports time and the live heap (after a GC) held while the
+ * export is under way. Run with:
+ *   mvn test -Dtest=BookingExportBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingExportBenchmark {
+
+    private static final int BOOKINGS = 500_000;
+
+    @Autowired
+    private BookingExportService exports;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void exportHalfAMillionBookings() throws Exception {
+        bookingRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM chargers");
+        jdbcTemplate.update("INSERT INTO chargers (id, host_name, location, brand, type, duration, status) " +
+                "VALUES (1, 'asha', 'Pune', 'Tata', 'DC', 60, 'AVAILABLE')");
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            rows.add(new Object[]{start.plusMinutes(i), "driver" + (i % 1000)});
+            if (rows.size() == 10_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+
+        for (int round = 0; round < 3; round++) { // first round warms up the JIT
+            long begin = System.nanoTime();
+            HeapProbe probe = new HeapProbe(2 * 1024 * 1024); // about halfway through the ~4 MB gzipped export
+            long exported = exports.export(new BookingExportService.Filter("asha", null, null, null),
+                    BookingExportService.Format.CSV, new GZIPOutputStream(probe));
+            report("stream ", exported, begin, probe.used - probe.baseline);
+
+            begin = System.nanoTime();
+            System.gc();
+            long baseline = usedHeap();
+            List<Booking> all = bookingRepository.findAll();
+            long used = usedHeap();
+            report("findAll", all.size(), begin, used - baseline);
+        }
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (charger_id, brand, type, host_name, location, user_name, " +
+                "duration, status, start_time, booked_duration, late_minutes, idle_minutes) " +
+                "VALUES (1, 'Tata', 'DC', 'asha', 'Pune', ?2, 30, 'COMPLETED', ?1, 0.5, 0, 0)", rows);
+    }
+
+    private static void report(String label, long rows, long begin, long retained) {
+        System.out.printf("%s %,d rows in %,d ms, heap retained mid-export %,d MB%n",
+                label, rows, (System.nanoTime() - begin) / 1_000_000, retained / (1024 * 1024));
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the output; once 'at' bytes have gone through, records the live heap (after a GC).
+     */
+    private static class HeapProbe extends OutputStream {
+
+        private final long at;
+        private final long baseline = usedHeap();
+        private long written;
+        private long used;
+
+        HeapProbe(long at) {
+            this.at = at;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (written < at && written + len >= at) used = usedHeap();
+            written += len;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.karocharge.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        LruCache<Integer, String> cache = new LruCache<>(2, 1_000);
+        cache.put(1, "one", 0);
+        cache.put(2, "two", 0);
+        assertThat(cache.get(1, 0)).isEqualTo("one"); // 2 is now the eldest
+        cache.put(3, "three", 0);
+
+        assertThat(cache.get(2, 0)).isNull();
+        assertThat(cache.get(1, 0)).isEqualTo("one");
+        assertThat(cache.get(3, 0)).isEqualTo("three");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.sizeEvictions()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesOnLookupAfterTheTtl() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 1_000);
+        cache.put(1, "one", 0);
+        assertThat(cache.get(1, 999)).isEqualTo("one");
+        assertThat(cache.get(1, 1_000)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.expirations()).isEqualTo(1);
+
+        cache.put(1, "again", 1_000); // a new put restarts the clock
+        assertThat(cache.get(1, 1_500)).isEqualTo("again");
+        cache.remove(1);
+        assertThat(cache.get(1, 1_500)).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Exact SQL statement count of each booking endpoint, so an N+1 or a stray lazy load shows up
+ * as a failing number here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingEndpointStatementsTest extends AbstractStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("SUCCESS"));
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void sessionLifecycle() throws Exception {
+        Long chargerId = charger().getId();
+
+        // Charger read (cache miss), claim UPDATE, booking INSERT
+        MvcResult created = perform(3, post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"charger\":{\"id\":" + chargerId + "},\"userName\":\"driver\",\"duration\":30}"));
+        Long id = bookingRepository.findByUserName("driver").getFirst().getId();
+        assertThat(created.getResponse().getContentAsString()).doesNotContain("hibernateLazyInitializer");
+
+        // Booking and charger in one joined SELECT
+        MvcResult read = perform(1, get("/api/bookings/" + id));
+        assertThat(read.getResponse().getContentAsString())
+                .contains("\"status\":\"BOOKED\"")
+                .doesNotContain("hibernateLazyInitializer");
+
+        // Booking SELECT, booking UPDATE, charger UPDATE (no merge re-read, no charger read)
+        performAsync(3, post("/api/bookings/" + id + "/start"));
+        assertThat(bookingRepository.findById(id).orElseThrow().getStatus()).isEqualTo("CHARGING");
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("CHARGING");
+
+        // Booking SELECT, booking UPDATE
+        performAsync(2, post("/api/bookings/" + id + "/extend").param("extraMinutes", "15"));
+        assertThat(bookingRepository.findById(id).orElseThrow().getDuration()).isEqualTo(45);
+
+        perform(1, get("/api/bookings/" + id + "/energy-curve"));
+
+        // Booking SELECT, booking UPDATE
+        perform(2, post("/api/bookings/" + id + "/stop").param("cancelledBy", "DRIVER"));
+    }
+
+    @Test
+    void historyPagesAreOneStatementEach() throws Exception {
+        Charger charger = charger();
+        for (int i = 0; i < 5; i++) bookingRepository.save(new Booking(charger, 30, "COMPLETED", "driver"));
+
+        perform(1, get("/api/bookings/user/driver").param("limit", "3"));
+        perform(1, get("/api/bookings/charger/" + charger.getId()).param("limit", "3"));
+    }
+
+    private MvcResult perform(int statements, RequestBuilder request) throws Exception {
+        stats.clear();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(stats.getPrepareStatementCount()).as("statements").isEqualTo(statements);
+        return result;
+    }
+
+    private MvcResult performAsync(int statements, RequestBuilder request) throws Exception {
+        stats.clear();
+        MvcResult result = mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn())).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(stats.getPrepareStatementCount()).as("statements").isEqualTo(statements);
+        return result;
+    }
+
+    private Charger charger() {
+        return chargerRepository.save(newCharger());
+    }
+}
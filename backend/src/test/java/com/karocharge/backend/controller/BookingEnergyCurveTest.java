@@ -0,0 +1,117 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.MeterBatchDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.service.MeterReadings;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/bookings/{id}/energy-curve: meter frames in, downsampled curve out.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingEnergyCurveTest extends AbstractStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterReadings meterReadings;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    // Charger ids restart with the in-memory DB, so a shared series file would mix in curves of earlier runs
+    @DynamicPropertySource
+    static void seriesDir(DynamicPropertyRegistry registry) {
+        registry.add("karocharge.timeseries.dir", () -> "target/test-data/curve-" + UUID.randomUUID());
+    }
+
+    @Test
+    void curveOfACompletedSessionNarrowedAndDownsampled() throws Exception {
+        LocalDateTime startedAt = LocalDateTime.now().minusDays(1).withNano(0);
+        long start = startedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Booking booking = completedBooking(startedAt, 600);
+        long chargerId = booking.getCharger().getId();
+
+        // One reading every 10 s for the 10 minutes, 100 Wh apart; the session end seals the chunk
+        for (int i = 0; i <= 60; i++) {
+            MeterBatchDTO frame = frame(i, start + i * 10_000L, chargerId, i == 0 ? 0 : 100);
+            if (i == 60) frame.setRemovedChargerIds(new long[]{chargerId});
+            meterReadings.apply(frame);
+        }
+
+        // Buckets of 60 s from minute 1: the last reading of each, the fifth bucket holding only 300 s
+        mockMvc.perform(get("/api/bookings/" + booking.getId() + "/energy-curve")
+                        .param("from", String.valueOf(start + 60_000))
+                        .param("to", String.valueOf(start + 300_000))
+                        .param("step", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookingId").value(booking.getId()))
+                .andExpect(jsonPath("$.from").value(start + 60_000))
+                .andExpect(jsonPath("$.to").value(start + 300_000))
+                .andExpect(jsonPath("$.timestamps").value(contains(
+                        start + 110_000, start + 170_000, start + 230_000, start + 290_000, start + 300_000)))
+                .andExpect(jsonPath("$.energyKwh.length()").value(5))
+                .andExpect(jsonPath("$.energyKwh[0]").value(closeTo(1.1, 1e-9)))
+                .andExpect(jsonPath("$.energyKwh[4]").value(closeTo(3.0, 1e-9)));
+
+        // Without bounds: the whole session, every reading
+        mockMvc.perform(get("/api/bookings/" + booking.getId() + "/energy-curve"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value(start))
+                .andExpect(jsonPath("$.timestamps.length()").value(61))
+                .andExpect(jsonPath("$.energyKwh[60]").value(closeTo(6.0, 1e-9)));
+    }
+
+    @Test
+    void unknownOrNotStartedBookings() throws Exception {
+        mockMvc.perform(get("/api/bookings/" + Long.MAX_VALUE + "/energy-curve")).andExpect(status().isNotFound());
+
+        Booking booked = bookingRepository.save(new Booking(charger(), 30, "BOOKED", "driver"));
+        mockMvc.perform(get("/api/bookings/" + booked.getId() + "/energy-curve")).andExpect(status().isBadRequest());
+    }
+
+    private Booking completedBooking(LocalDateTime chargingStartedAt, int seconds) {
+        Booking booking = new Booking(charger(), 30, "COMPLETED", "driver");
+        booking.setChargingStartedAt(chargingStartedAt);
+        booking.setActualDuration(seconds);
+        return bookingRepository.save(booking);
+    }
+
+    private Charger charger() {
+        return chargerRepository.save(newCharger());
+    }
+
+    private static MeterBatchDTO frame(long sequence, long sampledAt, long chargerId, long energyWh) {
+        MeterBatchDTO frame = new MeterBatchDTO();
+        frame.setEpoch(42L);
+        frame.setSequence(sequence + 1);
+        frame.setBaseSequence(sequence);
+        frame.setKeyframe(sequence == 0);
+        frame.setSampledAtMillis(sampledAt);
+        frame.setChargerIds(new long[]{chargerId});
+        frame.setEnergyWh(new long[]{energyWh});
+        return frame;
+    }
+}
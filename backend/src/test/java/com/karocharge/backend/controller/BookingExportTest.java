@@ -0,0 +1,148 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.service.BookingExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportTest extends AbstractStoreTest {
+
+    private static final LocalDateTime Q1 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private BookingExportService exports;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void gzippedNdjsonOfOneHostOverOneQuarter() throws Exception {
+        Charger asha = charger("asha");
+        Charger ravi = charger("ravi");
+        List<Long> expected = new ArrayList<>();
+        for (int day = 0; day < 120; day += 10) {
+            Booking inQuarter = booking(asha, Q1.plusDays(day));
+            if (day < 90) expected.add(inQuarter.getId());
+            booking(ravi, Q1.plusDays(day));
+        }
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/bookings/export")
+                        .param("hostName", "asha")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+
+        String[] lines = gunzip(response.getContentAsByteArray()).split("\n");
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode row = jsonMapper.readTree(line);
+            assertThat(row.get("hostName").asString()).isEqualTo("asha");
+            assertThat(row.get("chargerId").asLong()).isEqualTo(asha.getId());
+            assertThat(row.get("totalEnergy").isNull()).isTrue();
+            ids.add(row.get("id").asLong());
+        }
+        assertThat(ids).isEqualTo(expected);
+    }
+
+    @Test
+    void csvOfOneChargerQuotesFieldsThatNeedIt() throws Exception {
+        Charger charger = charger("asha");
+        charger.setLocation("Baner, Pune");
+        charger = chargerRepository.save(charger);
+        Booking booking = booking(charger, Q1);
+        booking.setTotalEnergy(12.5);
+        booking.setCancelledBy("HOST \"late\"");
+        bookingRepository.save(booking);
+        booking(charger("ravi"), Q1);
+
+        String csv = mockMvc.perform(get("/api/bookings/export").param("format", "csv").param("chargerId", charger.getId().toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,chargerId,hostName,location,");
+        assertThat(lines[1]).startsWith(booking.getId() + "," + charger.getId() + ",asha,\"Baner, Pune\",Tata,DC,driver,COMPLETED,30,2026-01-01T00:00,")
+                .endsWith(",12.5,0,0,\"HOST \"\"late\"\"\"");
+    }
+
+    @Test
+    void rejectsUnknownFormatsAndEmptyRanges() throws Exception {
+        mockMvc.perform(get("/api/bookings/export").param("format", "xml")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/bookings/export").param("from", "2026-04-01T00:00:00").param("to", "2026-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void clientGoingAwayMidStreamIsAnIOExceptionInEitherFormat() {
+        Charger charger = charger("asha");
+        for (int i = 0; i < 200; i++) booking(charger, Q1.plusHours(i));
+        OutputStream hungUp = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        for (BookingExportService.Format format : BookingExportService.Format.values()) {
+            assertThatThrownBy(() -> exports.export(new BookingExportService.Filter(null, null, null, null), format, hungUp))
+                    .as(format.name())
+                    .isExactlyInstanceOf(IOException.class)
+                    .hasMessage("Broken pipe");
+        }
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Charger charger(String host) {
+        Charger charger = newCharger();
+        charger.setHostName(host);
+        return chargerRepository.save(charger);
+    }
+
+    private Booking booking(Charger charger, LocalDateTime start) {
+        Booking booking = new Booking(charger, 30, "COMPLETED", "driver");
+        booking.setStartTime(start);
+        return bookingRepository.save(booking);
+    }
+}
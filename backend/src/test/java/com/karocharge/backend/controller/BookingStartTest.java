@@ -0,0 +1,91 @@
+package com.karocharge.backend.controller;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Status code of POST /api/bookings/{id}/start for each outcome of the start.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingStartTest extends AbstractStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void startsABookedSession() throws Exception {
+        cmsAnswers(true);
+        Booking booking = booking("BOOKED");
+
+        MvcResult result = start(booking.getId());
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentAsString()).contains("Charging started");
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus()).isEqualTo("CHARGING");
+    }
+
+    @Test
+    void cmsRefusalOnAnAlreadyChargingSessionIsReportedAsAFailure() throws Exception {
+        cmsAnswers(false);
+        Booking booking = booking("CHARGING");
+
+        // The booking was CHARGING before the call, which used to read as "Charging started"
+        MvcResult result = start(booking.getId());
+        assertThat(result.getResponse().getStatus()).isEqualTo(500);
+        assertThat(result.getResponse().getContentAsString()).contains("CMS");
+    }
+
+    @Test
+    void reservationBeforeItsSlotIsAConflict() throws Exception {
+        cmsAnswers(true);
+        assertThat(start(booking("RESERVED").getId()).getResponse().getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void unknownBookingIsABadRequest() throws Exception {
+        assertThat(start(Long.MAX_VALUE).getResponse().getStatus()).isEqualTo(400);
+    }
+
+    private void cmsAnswers(boolean success) {
+        if (success) {
+            when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                    .thenReturn(ResponseEntity.ok("SUCCESS"));
+        } else {
+            when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                    .thenThrow(new ResourceAccessException("CMS down"));
+        }
+    }
+
+    private MvcResult start(Long id) throws Exception {
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/bookings/" + id + "/start")).andReturn()))
+                .andReturn();
+    }
+
+    private Booking booking(String status) {
+        Charger charger = chargerRepository.save(newCharger());
+
+        return bookingRepository.save(new Booking(charger, 30, status, "driver"));
+    }
+}
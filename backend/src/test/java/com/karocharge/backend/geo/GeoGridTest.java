@@ -0,0 +1,123 @@
+package com.karocharge.backend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class GeoGridTest {
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(9);
+        int points = 50_000;
+        double[] lat = new double[points];
+        double[] lng = new double[points];
+        GeoGrid<Integer> grid = new GeoGrid<>(0.01);
+        for (int i = 0; i < points; i++) {
+            lat[i] = 17 + random.nextDouble() * 3;   // around Pune / Mumbai
+            lng[i] = 72 + random.nextDouble() * 3;
+            grid.put(i, lat[i], lng[i], i);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double qLat = 16.9 + random.nextDouble() * 3.2;
+            double qLng = 71.9 + random.nextDouble() * 3.2;
+            double radius = 1 + random.nextDouble() * 30;
+            int k = 1 + random.nextInt(20);
+
+            List<Integer> expected = IntStream.range(0, points)
+                    .filter(i -> i % 3 != 0) // filtered out, like non-AVAILABLE chargers
+                    .boxed()
+                    .filter(i -> GeoGrid.distanceKm(qLat, qLng, lat[i], lng[i]) <= radius)
+                    .sorted(Comparator.comparingDouble(i -> GeoGrid.distanceKm(qLat, qLng, lat[i], lng[i])))
+                    .limit(k)
+                    .toList();
+            List<Integer> actual = grid.nearest(qLat, qLng, radius, k, i -> i % 3 != 0).stream()
+                    .map(GeoGrid.Hit::item)
+                    .toList();
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void movesAndRemovesPoints() {
+        GeoGrid<String> grid = new GeoGrid<>(0.05);
+        grid.put(1, 18.52, 73.85, "pune");
+        grid.put(2, 19.07, 72.87, "mumbai");
+
+        assertThat(grid.nearest(18.5, 73.8, 20, 5, s -> true)).extracting(GeoGrid.Hit::item).containsExactly("pune");
+
+        grid.put(1, 19.08, 72.88, "moved");
+        assertThat(grid.nearest(18.5, 73.8, 20, 5, s -> true)).isEmpty();
+        assertThat(grid.nearest(19.07, 72.87, 5, 5, s -> true)).extracting(GeoGrid.Hit::item)
+                .containsExactly("mumbai", "moved");
+
+        assertThat(grid.remove(2)).isTrue();
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(grid.nearest(19.07, 72.87, 5, 5, s -> true)).extracting(GeoGrid.Hit::item).containsExactly("moved");
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        GeoGrid<String> grid = new GeoGrid<>(0.05);
+        grid.put(1, -17.0, 179.99, "east");
+        grid.put(2, -17.0, -179.99, "west");
+
+        assertThat(grid.nearest(-17.0, 179.999, 5, 5, s -> true)).extracting(GeoGrid.Hit::item)
+                .containsExactly("east", "west");
+    }
+
+    @Test
+    void sparseFilterAtHighLatitudeMatchesBruteForce() {
+        Random random = new Random(14);
+        int points = 5_000;
+        double[] lat = new double[points];
+        double[] lng = new double[points];
+        GeoGrid<Integer> grid = new GeoGrid<>(0.01);
+        for (int i = 0; i < points; i++) {
+            lat[i] = 60 + random.nextDouble() * 30;
+            lng[i] = -180 + random.nextDouble() * 360;
+            grid.put(i, lat[i], lng[i], i);
+        }
+
+        for (int q = 0; q < 100; q++) {
+            double qLat = 60 + random.nextDouble() * 29.99;
+            double qLng = -180 + random.nextDouble() * 360;
+            // Small radii walk the rings, large ones fall back to scanning the occupied cells
+            double radius = random.nextBoolean() ? 1 + random.nextDouble() * 8 : 100 + random.nextDouble() * 400;
+
+            List<Integer> expected = IntStream.range(0, points)
+                    .filter(i -> i % 50 == 0) // few matches: the search cannot stop early
+                    .boxed()
+                    .filter(i -> GeoGrid.distanceKm(qLat, qLng, lat[i], lng[i]) <= radius)
+                    .sorted(Comparator.comparingDouble(i -> GeoGrid.distanceKm(qLat, qLng, lat[i], lng[i])))
+                    .limit(5)
+                    .toList();
+            List<Integer> actual = grid.nearest(qLat, qLng, radius, 5, i -> i % 50 == 0).stream()
+                    .map(GeoGrid.Hit::item)
+                    .toList();
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void filterMatchingNothingDoesNotScanEveryCellInReach() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put(1, 18.52, 73.85, "pune");
+
+        // Used to walk ~10^6 empty cells per query (seconds at these latitudes)
+        assertTimeout(Duration.ofMillis(200), () -> {
+            assertThat(grid.nearest(20, 73, 500, 5, s -> false)).isEmpty();
+            assertThat(grid.nearest(80, 73, 500, 5, s -> false)).isEmpty();
+            assertThat(grid.nearest(88, 73, 100, 5, s -> false)).isEmpty();
+            assertThat(grid.nearest(-89.99, 0, 500, 5, s -> true)).isEmpty();
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.karocharge.backend.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalIndexTest {
+
+    @Test
+    void rejectsOverlapsButAllowsAdjacentSlots() {
+        IntervalIndex index = new IntervalIndex();
+        assertThat(index.add(100, 200, 1)).isTrue();
+        assertThat(index.add(200, 300, 2)).isTrue();   // back to back
+        assertThat(index.add(0, 100, 3)).isTrue();
+        assertThat(index.add(150, 160, 4)).isFalse();  // inside
+        assertThat(index.add(50, 250, 5)).isFalse();   // spans two
+        assertThat(index.add(299, 400, 6)).isFalse();  // tail overlap
+
+        assertThat(index.nextFree(0, 50)).isEqualTo(300);
+        assertThat(index.remove(100, 1)).isTrue();
+        assertThat(index.nextFree(0, 50)).isEqualTo(100);
+        assertThat(index.nextFree(0, 150)).isEqualTo(300); // the 100 ms gap is too short
+        assertThat(index.between(90, 210)).extracting(IntervalIndex.Interval::id).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void clampedSlotStopsAtTheNextReservation() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(1_000, 2_000, 1);
+
+        assertThat(index.addClamped(500, 1_500, 2)).isEqualTo(new IntervalIndex.Interval(500, 1_000, 2));
+        assertThat(index.addClamped(1_200, 3_000, 3)).isNull(); // starts inside a reservation
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void agreesWithLinearScanOnRandomSlots() {
+        Random random = new Random(5);
+        IntervalIndex index = new IntervalIndex();
+        List<long[]> stored = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            long start = random.nextInt(10_000_000);
+            long end = start + 1 + random.nextInt(5_000);
+            boolean expectedConflict = stored.stream().anyMatch(s -> s[0] < end && start < s[1]);
+            assertThat(index.add(start, end, i)).isEqualTo(!expectedConflict);
+            if (!expectedConflict) stored.add(new long[]{start, end});
+        }
+        assertThat(index.size()).isEqualTo(stored.size());
+    }
+}
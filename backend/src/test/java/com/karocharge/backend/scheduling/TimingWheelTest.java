@@ -0,0 +1,72 @@
+package com.karocharge.backend.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEveryTimerOnItsTickAcrossAllLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1_000, 0);
+        Random random = new Random(3);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            // Spread over seconds .. ~300 days, so some start beyond the top level
+            long deadline = switch ((int) (id % 4)) {
+                case 0 -> random.nextInt(64_000);
+                case 1 -> random.nextInt(4_096_000);
+                case 2 -> (long) random.nextInt(262_144) * 1_000;
+                default -> (long) random.nextInt(26_000_000) * 1_000;
+            };
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        List<Long> late = new ArrayList<>();
+        int fired = 0;
+        for (long now = 0; now <= 26_000_000_000L && wheel.size() > 0; now += 1_000) {
+            long tickStart = now;
+            fired += wheel.advanceTo(now, id -> {
+                long deadline = deadlines.get(id);
+                if (deadline > tickStart || deadline <= tickStart - 1_000) late.add(id);
+            });
+        }
+        assertThat(fired).isEqualTo(20_000);
+        assertThat(late).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduleAndCancelAreHonoured() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000, 0);
+        TimingWheel.Timer<String> extended = wheel.schedule("extended", 10_000);
+        TimingWheel.Timer<String> cancelled = wheel.schedule("cancelled", 5_000);
+        wheel.schedule("overdue", -1);
+
+        wheel.reschedule(extended, 900_000);
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(0, fired::add);
+        assertThat(fired).containsExactly("overdue");
+
+        wheel.advanceTo(899_000, fired::add);
+        assertThat(fired).containsExactly("overdue");
+        wheel.advanceTo(900_000, fired::add);
+        assertThat(fired).containsExactly("overdue", "extended");
+
+        // A fired timer can be re-armed (idle accrual reuses the node)
+        wheel.reschedule(extended, 960_000);
+        assertThat(wheel.size()).isEqualTo(1);
+        wheel.advanceTo(960_000, fired::add);
+        assertThat(fired).containsExactly("overdue", "extended", "extended");
+    }
+}
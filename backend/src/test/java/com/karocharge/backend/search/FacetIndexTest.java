@@ -0,0 +1,172 @@
+package com.karocharge.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    private static final String[] BRANDS = {"Tata", "Ather", "Ola", "MG"};
+    private static final String[] TYPES = {"AC", "DC"};
+    private static final String[] STATUSES = {"AVAILABLE", "BOOKED", "CHARGING"};
+
+    @Test
+    void filtersAndCountsMatchBruteForceAcrossUpdates() {
+        Random random = new Random(21);
+        FacetIndex index = new FacetIndex("brand", "type", "status", "host", "date");
+        Map<Integer, String[]> docs = new HashMap<>();
+        for (int doc = 1; doc <= 20_000; doc++) {
+            String[] values = {
+                    BRANDS[random.nextInt(BRANDS.length)], TYPES[random.nextInt(2)], STATUSES[random.nextInt(3)],
+                    "host" + random.nextInt(5_000), "2026-0" + (1 + random.nextInt(9)) + "-15"};
+            docs.put(doc, values);
+            put(index, doc, values);
+        }
+        // Status churn and deletions, as bookings come and go
+        for (int i = 0; i < 10_000; i++) {
+            int doc = 1 + random.nextInt(20_000);
+            if (!docs.containsKey(doc)) continue;
+            if (i % 10 == 0) {
+                index.remove(doc);
+                docs.remove(doc);
+            } else {
+                docs.get(doc)[2] = STATUSES[random.nextInt(3)];
+                index.set(doc, "status", docs.get(doc)[2]);
+            }
+        }
+
+        Bitmap matches = index.all()
+                .and(index.anyOf("brand", List.of("Tata", "Ola")))
+                .and(index.anyOf("status", List.of("AVAILABLE")))
+                .and(index.range("date", "2026-03-01", "2026-06-30"));
+
+        List<Integer> expected = new ArrayList<>();
+        Map<String, Integer> expectedHosts = new HashMap<>();
+        Map<String, Integer> expectedTypes = new HashMap<>();
+        docs.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            String[] v = entry.getValue();
+            if (Set.of("Tata", "Ola").contains(v[0]) && v[2].equals("AVAILABLE")
+                    && v[4].compareTo("2026-03-01") >= 0 && v[4].compareTo("2026-06-30") <= 0) {
+                expected.add(entry.getKey());
+                expectedHosts.merge(v[3], 1, Integer::sum);
+                expectedTypes.merge(v[1], 1, Integer::sum);
+            }
+        });
+
+        List<Integer> actual = new ArrayList<>();
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) actual.add(doc);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(index.size()).isEqualTo(docs.size());
+
+        int total = matches.cardinality();
+        assertThat(index.counts("type", matches, total, 10)).isEqualTo(expectedTypes);
+        Map<String, Integer> hosts = index.counts("host", matches, total, 5);
+        assertThat(hosts).hasSize(5);
+        hosts.forEach((host, count) -> assertThat(expectedHosts.get(host)).isEqualTo(count));
+        int maxHostCount = expectedHosts.values().stream().max(Integer::compare).orElseThrow();
+        assertThat(hosts.values().iterator().next()).isEqualTo(maxHostCount);
+    }
+
+    @Test
+    void anyOfIgnoresCaseAndForgetsSpellingsThatDisappear() {
+        FacetIndex index = new FacetIndex("brand");
+        index.set(1, "brand", "Tata");
+        index.set(2, "brand", "TATA");
+        index.set(3, "brand", "Ather");
+
+        assertThat(index.anyOf("brand", List.of("tata")).cardinality()).isEqualTo(2);
+        assertThat(index.anyOf("brand", List.of("ATHER", "ola")).nextSetBit(0)).isEqualTo(3);
+        // Facets keep each spelling as stored
+        assertThat(index.counts("brand", index.all(), 3, 10)).containsKeys("Tata", "TATA", "Ather");
+
+        index.set(2, "brand", "Ather");
+        assertThat(index.anyOf("brand", List.of("tata")).nextSetBit(0)).isEqualTo(1);
+        assertThat(index.anyOf("brand", List.of("tata")).cardinality()).isEqualTo(1);
+        index.remove(1);
+        assertThat(index.anyOf("brand", List.of("Tata")).isEmpty()).isTrue();
+    }
+
+    @Test
+    void bitmapBasics() {
+        Bitmap bitmap = new Bitmap();
+        bitmap.set(3);
+        bitmap.set(64);
+        bitmap.set(1_000_000);
+        assertThat(bitmap.cardinality()).isEqualTo(3);
+        assertThat(bitmap.nextSetBit(4)).isEqualTo(64);
+        assertThat(bitmap.nextSetBit(65)).isEqualTo(1_000_000);
+        assertThat(bitmap.nextSetBit(1_000_001)).isEqualTo(-1);
+
+        Bitmap other = new Bitmap();
+        other.set(64);
+        assertThat(bitmap.andCardinality(other)).isEqualTo(1);
+        assertThat(bitmap.copy().and(other).cardinality()).isEqualTo(1);
+        bitmap.clear(64);
+        assertThat(bitmap.get(64)).isFalse();
+    }
+
+    @Test
+    void bitmapMatchesBitSetAcrossArrayAndDenseChunks() {
+        Random random = new Random(11);
+        Bitmap a = new Bitmap();
+        Bitmap b = new Bitmap();
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        // chunk 0 dense (bitset container), chunk 1 sparse (array container), chunk 3 in b only
+        for (int i = 0; i < 30_000; i++) {
+            int bit = random.nextInt(65_536);
+            a.set(bit);
+            expectedA.set(bit);
+        }
+        for (int i = 0; i < 500; i++) {
+            int bit = 65_536 + random.nextInt(65_536);
+            a.set(bit);
+            expectedA.set(bit);
+            bit = random.nextInt(4 * 65_536);
+            b.set(bit);
+            expectedB.set(bit);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            int bit = random.nextInt(65_536);
+            b.set(bit);
+            expectedB.set(bit);
+        }
+        // drain most of a's dense chunk back below the array threshold
+        for (int bit = 0; bit < 60_000; bit++) {
+            a.clear(bit);
+            expectedA.clear(bit);
+        }
+
+        assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        assertThat(a.andCardinality(b)).isEqualTo(and.cardinality());
+        assertThat(toBitSet(a.copy().and(b))).isEqualTo(and);
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        assertThat(toBitSet(a.copy().or(b))).isEqualTo(or);
+        assertThat(toBitSet(a)).isEqualTo(expectedA);
+    }
+
+    private static BitSet toBitSet(Bitmap bitmap) {
+        BitSet bits = new BitSet();
+        for (int bit = bitmap.nextSetBit(0); bit >= 0; bit = bitmap.nextSetBit(bit + 1)) bits.set(bit);
+        return bits;
+    }
+
+    private static void put(FacetIndex index, int doc, String[] values) {
+        index.set(doc, "brand", values[0]);
+        index.set(doc, "type", values[1]);
+        index.set(doc, "status", values[2]);
+        index.set(doc, "host", values[3]);
+        index.set(doc, "date", values[4]);
+    }
+}
@@ -0,0 +1,167 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.dto.SessionCompletionDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingCompletionTest extends AbstractStoreTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingDeadlineScheduler deadlines;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void redeliveredCompletionIsAppliedOnlyOnce() {
+        Booking booking = chargingBooking();
+        Long chargerId = booking.getCharger().getId();
+
+        SessionCompletionDTO first = completion("c-1", chargerId, 12.5, 1800L);
+        List<BatchResultDTO> results = bookingService.completeSessions(List.of(first, completion("c-2", 999_999L, 1.0, 60L)));
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("APPLIED", "NOT_FOUND");
+
+        Booking completed = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getTotalEnergy()).isEqualTo(12.5);
+        assertThat(completed.getActualDuration()).isEqualTo(1800);
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+
+        // Outbox retry after a lost response: same id, must not be re-applied
+        results = bookingService.completeSessions(List.of(completion("c-1", chargerId, 99.0, 1L)));
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("DUPLICATE");
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getTotalEnergy()).isEqualTo(12.5);
+    }
+
+    @Test
+    void badRecordFallsBackToPerItemTransactionsAndOnlyFailsItself() {
+        Booking first = chargingBooking();
+        Booking second = chargingBooking();
+        Booking third = chargingBooking();
+
+        // Too long for the completion_id column: fails the batch flush, then fails again on its own
+        String tooLong = "c-".repeat(200);
+        List<BatchResultDTO> results = bookingService.completeSessions(List.of(
+                completion("c-1", first.getCharger().getId(), 5.0, 600L),
+                completion(tooLong, second.getCharger().getId(), 6.0, 600L),
+                completion("c-3", third.getCharger().getId(), 7.0, 600L)));
+
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("APPLIED", "ERROR", "APPLIED");
+        assertThat(bookingRepository.findById(first.getId()).orElseThrow().getStatus()).isEqualTo("COMPLETED");
+        assertThat(bookingRepository.findById(second.getId()).orElseThrow().getStatus()).isEqualTo("CHARGING");
+        assertThat(bookingRepository.findById(third.getId()).orElseThrow().getTotalEnergy()).isEqualTo(7.0);
+    }
+
+    @Test
+    void recordsOfARolledBackBatchKeepTheirDeadlinesAndSlots() {
+        Booking applied = chargingBooking();
+        Booking failing = chargingBooking();
+        for (Booking booking : List.of(applied, failing)) {
+            booking.setChargingStartedAt(LocalDateTime.now());
+            deadlines.onChargingStarted(booking); // auto-stop in 30 minutes
+            reservations.occupy(booking);
+        }
+
+        List<BatchResultDTO> results = bookingService.completeSessions(List.of(
+                completion("c-1", applied.getCharger().getId(), 5.0, 600L),
+                completion("c-".repeat(200), failing.getCharger().getId(), 6.0, 600L)));
+
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("APPLIED", "ERROR");
+        assertThat(deadlines.isArmed(applied.getId())).isFalse();
+        // Still CHARGING, so it still needs its auto-stop
+        assertThat(deadlines.isArmed(failing.getId())).isTrue();
+        // and keeps its slot, so nothing can be reserved over it
+        assertThat(reservations.slotCount(applied.getCharger().getId())).isZero();
+        assertThat(reservations.slotCount(failing.getCharger().getId())).isEqualTo(1);
+        deadlines.onClosed(failing.getId());
+        reservations.release(failing.getId());
+    }
+
+    @Test
+    void batchEndpointAnswersEveryRecordSoTheCmsRetriesOnlyTheFailedOnes() throws Exception {
+        Booking ok = chargingBooking();
+        Booking bad = chargingBooking();
+        String body = """
+                [{"completionId": "c-ok", "chargerId": %d, "totalEnergy": 3.0, "durationSeconds": 300},
+                 {"completionId": "%s", "chargerId": %d, "totalEnergy": 4.0, "durationSeconds": 300}]
+                """.formatted(ok.getCharger().getId(), "c-".repeat(200), bad.getCharger().getId());
+
+        // 200 even with a failed record: a 5xx would hold back the whole batch and trip the CMS breaker
+        mockMvc.perform(post("/api/bookings/complete/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[0].message").value("c-ok"))
+                .andExpect(jsonPath("$[1].status").value("ERROR"));
+
+        // The CMS sends the failed record again on its own
+        String retry = """
+                [{"completionId": "c-fixed", "chargerId": %d, "totalEnergy": 4.0, "durationSeconds": 300}]
+                """.formatted(bad.getCharger().getId());
+        mockMvc.perform(post("/api/bookings/complete/batch").contentType(MediaType.APPLICATION_JSON).content(retry))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"));
+    }
+
+    @Test
+    void billedCancelledSessionDoesNotTakeAnotherCompletion() {
+        Booking cancelled = chargingBooking();
+        cancelled.setStatus("CANCELLED");
+        bookingRepository.save(cancelled);
+        Long chargerId = cancelled.getCharger().getId();
+
+        assertThat(bookingService.completeSessions(List.of(completion("c-1", chargerId, 2.0, 120L))))
+                .extracting(BatchResultDTO::getStatus).containsExactly("APPLIED");
+        // A later completion for the charger (new id) finds no session still waiting for totals
+        assertThat(bookingService.completeSessions(List.of(completion("c-2", chargerId, 9.0, 900L))))
+                .extracting(BatchResultDTO::getStatus).containsExactly("NOT_FOUND");
+
+        Booking billed = bookingRepository.findById(cancelled.getId()).orElseThrow();
+        assertThat(billed.getCompletionId()).isEqualTo("c-1");
+        assertThat(billed.getTotalEnergy()).isEqualTo(2.0);
+        assertThat(billed.getActualDuration()).isEqualTo(120);
+    }
+
+    private Booking chargingBooking() {
+        Charger charger = newCharger();
+        charger.setStatus("CHARGING");
+        charger = chargerRepository.save(charger);
+
+        Booking booking = new Booking(charger, 30, "CHARGING", "driver");
+        return bookingRepository.save(booking);
+    }
+
+    private static SessionCompletionDTO completion(String id, Long chargerId, double energy, long seconds) {
+        SessionCompletionDTO dto = new SessionCompletionDTO();
+        dto.setCompletionId(id);
+        dto.setChargerId(chargerId);
+        dto.setTotalEnergy(energy);
+        dto.setDurationSeconds(seconds);
+        return dto;
+    }
+}
@@ -0,0 +1,87 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "karocharge.deadlines.tick-ms=100",
+        "karocharge.deadlines.no-show=1s",
+        "karocharge.deadlines.idle-interval=1s"
+})
+class BookingDeadlineSchedulerTest extends AbstractStoreTest {
+
+    @Autowired
+    private BookingDeadlineScheduler deadlines;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void noShowExpiresBookingAndReleasesCharger() throws Exception {
+        Booking booking = booking("BOOKED");
+        deadlines.onBooked(booking);
+
+        await(() -> "EXPIRED".equals(bookingRepository.findById(booking.getId()).orElseThrow().getStatus()));
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getCancelledBy()).isEqualTo("NO_SHOW");
+        assertThat(chargerRepository.findById(booking.getCharger().getId()).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+    }
+
+    @Test
+    void expiredSessionIsStoppedAndAccruesIdleMinutesUntilClosed() throws Exception {
+        // CMS never confirms the stop, so the session overstays
+        when(restTemplate.postForObject(any(String.class), anyList(), eq(BatchResultDTO[].class)))
+                .thenReturn(new BatchResultDTO[0]);
+
+        Booking booking = booking("CHARGING");
+        booking.setChargingStartedAt(LocalDateTime.now().minusMinutes(33));
+        booking.setEndTime(LocalDateTime.now().minusMinutes(3).minusSeconds(10));
+        Booking charging = bookingRepository.save(booking);
+        deadlines.onChargingStarted(charging);
+
+        // The STOP at expiry, then one retry per idle-interval (1 s here)
+        await(() -> mockingDetails(restTemplate).getInvocations().size() >= 4);
+        verify(restTemplate, atLeastOnce()).postForObject(eq("http://localhost:9090/api/cms/chargers/batch"),
+                anyList(), eq(BatchResultDTO[].class));
+
+        // Minutes since the booked end, not one per firing
+        assertThat(bookingRepository.findById(charging.getId()).orElseThrow().getIdleMinutes()).isEqualTo(3);
+
+        deadlines.onClosed(charging.getId());
+        assertThat(deadlines.pendingDeadlines()).isZero();
+    }
+
+    private Booking booking(String status) {
+        Charger charger = newCharger();
+        charger.setStatus(status);
+        charger = chargerRepository.save(charger);
+        return bookingRepository.save(new Booking(charger, 30, status, "driver"));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long until = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > until) throw new AssertionError("condition not met in 10 s");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.KeysetPageDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.ChargerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ChargerCacheTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("SUCCESS"));
+    }
+
+    @Test
+    void bookingLifecycleReadsTheChargerRowOnce() {
+        Long id = create().getId();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        Booking booking = chargerService.bookCharger(id, "driver", 30); // SELECT, UPDATE, INSERT
+        assertThat(booking).isNotNull();
+        assertThat(chargerService.getChargerById(id).getStatus()).isEqualTo("BOOKED"); // re-read once after the write
+        assertThat(chargerService.getChargerById(id).getStatus()).isEqualTo("BOOKED");
+        assertThat(chargerService.setChargerToCharging(id)).isTrue(); // UPDATE only
+        assertThat(chargerService.getChargerById(id).getStatus()).isEqualTo("CHARGING"); // re-read
+        assertThat(chargerService.unblockChargerLocally(id).getStatus()).isEqualTo("AVAILABLE"); // UPDATE only
+        assertThat(chargerService.getChargerById(id).getStatus()).isEqualTo("AVAILABLE"); // re-read
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(3 + 1 + 1 + 1 + 1 + 1);
+        assertThat(chargerRepository.findById(id).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+    }
+
+    @Test
+    void callersCannotCorruptTheCachedCopy() {
+        Long id = create().getId();
+        chargerService.getChargerById(id).setStatus("CHARGING");
+        assertThat(chargerService.getChargerById(id).getStatus()).isEqualTo("AVAILABLE");
+    }
+
+    @Test
+    void listingPagesAreServedUntilAnyChargerChanges() {
+        Long id = create().getId();
+        create();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        KeysetPageDTO<ChargerRepository.ListingView> first = chargerService.listChargers(null, 50);
+        stats.clear();
+        assertThat(chargerService.listChargers(null, 50)).isSameAs(first);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        chargerService.blockCharger(id);
+        KeysetPageDTO<ChargerRepository.ListingView> after = chargerService.listChargers(null, 50);
+        assertThat(after).isNotSameAs(first);
+        assertThat(after.getItems().get(0).getStatus()).isEqualTo("BLOCKED");
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        Long id = create().getId();
+        long hits = counter("hits");
+        long misses = counter("misses");
+        chargerService.getChargerById(id);
+        chargerService.getChargerById(id);
+        chargerService.getChargerById(id);
+
+        assertThat(counter("misses") - misses).isEqualTo(1);
+        assertThat(counter("hits") - hits).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long counter(String name) {
+        return (Long) ((Map<String, Object>) chargerCache.stats().get("chargers")).get(name);
+    }
+
+    private Charger create() {
+        return chargerService.createCharger(newCharger());
+    }
+}
@@ -0,0 +1,145 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.BatchResultDTO;
+import com.karocharge.backend.dto.ChargerChangesDTO;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.ChargerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChargerChangesTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("SUCCESS"));
+    }
+
+    @Test
+    void deltaContainsOnlyChargersWrittenSinceTheVersion() {
+        create();
+        Long busy = create().getId();
+        long since = chargerService.currentVersion();
+
+        assertThat(chargerService.changesSince(since, 10).getChargers()).isEmpty();
+
+        chargerService.bookCharger(busy, "driver", 30);
+        Long added = create().getId();
+        ChargerChangesDTO delta = chargerService.changesSince(since, 10);
+        assertThat(delta.getChargers()).extracting(ChargerRepository.ListingView::getId).containsExactly(busy, added);
+        assertThat(delta.getChargers().get(0).getStatus()).isEqualTo("BOOKED");
+        assertThat(delta.getVersion()).isEqualTo(chargerService.currentVersion());
+        assertThat(delta.isMore()).isFalse();
+        assertThat(chargerService.changesSince(delta.getVersion(), 10).getChargers()).isEmpty();
+    }
+
+    @Test
+    void pagesNeverSplitOneVersion() {
+        long since = chargerService.currentVersion();
+        Long first = create().getId();
+        List<Long> fleet = List.of(create().getId(), create().getId(), create().getId());
+        when(restTemplate.postForObject(anyString(), anyList(), eq(BatchResultDTO[].class)))
+                .thenReturn(fleet.stream().map(id -> new BatchResultDTO(id, "BLOCK", "SUCCESS", null)).toArray(BatchResultDTO[]::new));
+        chargerService.batchCmsCommand(fleet, "block"); // one UPDATE, one version for the whole fleet
+
+        ChargerChangesDTO page = chargerService.changesSince(since, 2);
+        assertThat(page.getChargers()).extracting(ChargerRepository.ListingView::getId).containsExactly(first);
+        assertThat(page.isMore()).isTrue();
+
+        page = chargerService.changesSince(page.getVersion(), 2); // the whole fleet write, over the limit
+        assertThat(page.getChargers()).extracting(ChargerRepository.ListingView::getId).containsExactlyElementsOf(fleet);
+        assertThat(page.getChargers()).extracting(ChargerRepository.ListingView::getStatus).containsOnly("BLOCKED");
+    }
+
+    @Test
+    void versionStaysBelowAWriteThatHasNotCommitted() throws Exception {
+        Long slow = create().getId();
+        Long fast = create().getId();
+        long since = chargerService.currentVersion();
+
+        CountDownLatch stamped = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                    chargerService.compareAndSetStatus(slow, "AVAILABLE", "BLOCKED");
+                    stamped.countDown();
+                    await(release);
+                }));
+        assertThat(stamped.await(5, TimeUnit.SECONDS)).isTrue();
+
+        chargerService.compareAndSetStatus(fast, "AVAILABLE", "BLOCKED"); // later version, commits first
+        ChargerChangesDTO delta = chargerService.changesSince(since, 10);
+        assertThat(delta.getChargers()).isEmpty();
+        assertThat(delta.getVersion()).isEqualTo(since);
+
+        release.countDown();
+        slowWrite.get(5, TimeUnit.SECONDS);
+        delta = chargerService.changesSince(delta.getVersion(), 10);
+        assertThat(delta.getChargers()).extracting(ChargerRepository.ListingView::getId).containsExactly(slow, fast);
+    }
+
+    @Test
+    void listingAnswers304UntilAChargerChanges() throws Exception {
+        Long id = create().getId();
+        String etag = mockMvc.perform(get("/api/chargers"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo("\"" + chargerService.currentVersion() + "\"");
+
+        mockMvc.perform(get("/api/chargers").header("If-None-Match", etag)).andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/chargers/host/host").header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        chargerService.blockCharger(id);
+        mockMvc.perform(get("/api/chargers").header("If-None-Match", etag)).andExpect(status().isOk());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Charger create() {
+        return chargerService.createCharger(newCharger());
+    }
+}
@@ -0,0 +1,65 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.NearbyChargerDTO;
+import com.karocharge.backend.model.Charger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ChargerLocatorTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private ChargerLocator chargerLocator;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(any(String.class), isNull(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("ok"));
+    }
+
+    @Test
+    void findsNearestAvailableChargersAndFollowsStatusChanges() {
+        Long near = create("Tata", "DC", 18.5204, 73.8567).getId();   // Pune centre
+        Long far = create("Tata", "DC", 18.5600, 73.9100).getId();    // ~7 km away
+        create("Ather", "AC", 18.5210, 73.8570);
+        create("Tata", "DC", 19.0760, 72.8777);                       // Mumbai, out of range
+
+        assertThat(chargerLocator.nearby(18.52, 73.856, 10, 10, "tata", "dc"))
+                .extracting(NearbyChargerDTO::getId).containsExactly(near, far);
+
+        chargerService.bookCharger(near, "driver", 30);
+        assertThat(chargerLocator.nearby(18.52, 73.856, 10, 10, "Tata", null))
+                .extracting(NearbyChargerDTO::getId).containsExactly(far);
+
+        chargerService.unblockChargerLocally(near);
+        assertThat(chargerLocator.nearby(18.52, 73.856, 10, 1, null, null))
+                .extracting(NearbyChargerDTO::getId).containsExactly(near);
+    }
+
+    private Charger create(String brand, String type, double latitude, double longitude) {
+        Charger charger = newCharger();
+        charger.setBrand(brand);
+        charger.setType(type);
+        charger.setLatitude(latitude);
+        charger.setLongitude(longitude);
+        return chargerService.createCharger(charger);
+    }
+}
@@ -0,0 +1,86 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ChargerMetricsTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void timesBookingsAndCmsCallsByOutcome() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class))).thenReturn(ResponseEntity.ok("SUCCESS"));
+        long booked = count("karocharge.bookings", "outcome", "booked");
+        long unavailable = count("karocharge.bookings", "outcome", "unavailable");
+        long blocks = count("karocharge.cms.requests", "operation", "block", "outcome", "success", "status", "200");
+
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+        assertThat(chargerService.bookCharger(chargerId, "asha", 30)).isNotNull();
+        assertThat(chargerService.bookCharger(chargerId, "ravi", 30)).isNull();
+
+        assertThat(count("karocharge.bookings", "outcome", "booked")).isEqualTo(booked + 1);
+        assertThat(count("karocharge.bookings", "outcome", "unavailable")).isEqualTo(unavailable + 1);
+        assertThat(count("karocharge.cms.requests", "operation", "block", "outcome", "success", "status", "200"))
+                .isEqualTo(blocks + 1);
+    }
+
+    @Test
+    void tagsCmsFailuresWithStatusOrCause() {
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+        long refused = count("karocharge.bookings", "outcome", "cms_refused");
+
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        long unavailable = count("karocharge.cms.requests", "operation", "block", "outcome", "failure", "status", "503");
+        assertThat(chargerService.bookCharger(chargerId, "asha", 30)).isNull();
+        assertThat(count("karocharge.cms.requests", "operation", "block", "outcome", "failure", "status", "503"))
+                .isEqualTo(unavailable + 1);
+
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("I/O error", new ConnectException("Connection refused")));
+        long down = count("karocharge.cms.requests", "operation", "stop", "outcome", "failure", "status", "ConnectException");
+        assertThat(chargerService.triggerCmsStop(chargerId)).isFalse();
+        assertThat(count("karocharge.cms.requests", "operation", "stop", "outcome", "failure", "status", "ConnectException"))
+                .isEqualTo(down + 1);
+
+        assertThat(count("karocharge.bookings", "outcome", "cms_refused")).isEqualTo(refused + 1);
+    }
+
+    @Test
+    void exposesStoreGauges() {
+        assertThat(meterRegistry.find("karocharge.otp.entries").gauge()).isNotNull();
+        assertThat(meterRegistry.find("karocharge.sessions.live").gauge()).isNotNull();
+        assertThat(meterRegistry.find("karocharge.deadlines.pending").gauge()).isNotNull();
+    }
+
+    private long count(String name, String... tags) {
+        Timer timer = meterRegistry.find(name).tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.ChargerSearchResultDTO;
+import com.karocharge.backend.model.Charger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChargerSearchIndexTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private ChargerSearchIndex chargerSearch;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        chargerSearch.load();
+        when(restTemplate.postForEntity(any(String.class), isNull(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("ok"));
+    }
+
+    @Test
+    void filtersPagesAndCountsFollowBookings() {
+        Long first = create("Tata", "DC", "asha", LocalDate.of(2026, 5, 1)).getId();
+        Long second = create("Tata", "DC", "ravi", LocalDate.of(2026, 6, 1)).getId();
+        create("Tata", "AC", "asha", LocalDate.of(2026, 5, 1));
+        create("Ather", "DC", "asha", LocalDate.of(2026, 7, 1));
+
+        ChargerSearchResultDTO page = chargerSearch.search(List.of("Tata"), List.of("DC"), List.of("AVAILABLE"),
+                null, null, LocalDate.of(2026, 6, 30), 0, 1);
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getChargers()).extracting(Charger::getId).containsExactly(first);
+        assertThat(chargerSearch.search(List.of("Tata"), List.of("DC"), null, null, null, null, 1, 1).getChargers())
+                .extracting(Charger::getId).containsExactly(second);
+
+        chargerService.bookCharger(first, "driver", 30);
+
+        ChargerSearchResultDTO all = chargerSearch.search(null, null, null, null, null, null, 0, 20);
+        assertThat(all.getTotal()).isEqualTo(4);
+        assertThat(all.getFacets().get("status")).isEqualTo(Map.of("AVAILABLE", 3, "BOOKED", 1));
+        assertThat(all.getFacets().get("brand")).containsExactly(Map.entry("Tata", 3), Map.entry("Ather", 1));
+        assertThat(chargerSearch.search(null, null, List.of("AVAILABLE"), List.of("asha"), null, null, 0, 20).getTotal())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void filtersIgnoreCaseLikeNearby() {
+        create("Tata", "DC", "asha", LocalDate.of(2026, 5, 1));
+        create("Ather", "AC", "asha", LocalDate.of(2026, 5, 1));
+
+        assertThat(chargerSearch.search(List.of("tata"), List.of("dc"), List.of("available"), null, null, null, 0, 20)
+                .getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void invertedAvailabilityRangeIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/chargers/search")
+                        .param("availableFrom", "2026-07-01")
+                        .param("availableTo", "2026-06-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Charger create(String brand, String type, String host, LocalDate availableDate) {
+        Charger charger = newCharger();
+        charger.setHostName(host);
+        charger.setBrand(brand);
+        charger.setType(type);
+        charger.setAvailableDate(availableDate);
+        return chargerService.createCharger(charger);
+    }
+}
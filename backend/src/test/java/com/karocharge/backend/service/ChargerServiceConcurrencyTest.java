@@ -0,0 +1,98 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.model.Booking;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ChargerServiceConcurrencyTest extends AbstractStoreTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("SUCCESS"));
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentBookingsWins() throws Exception {
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Booking>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String user = "driver-" + i;
+            results.add(pool.submit(() -> {
+                start.await();
+                return chargerService.bookCharger(chargerId, user, 30);
+            }));
+        }
+        start.countDown();
+
+        int winners = 0;
+        for (Future<Booking> result : results) {
+            if (result.get() != null) winners++;
+        }
+        pool.shutdown();
+
+        assertThat(winners).isEqualTo(1);
+        assertThat(bookingRepository.findByChargerId(chargerId)).hasSize(1);
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("BOOKED");
+    }
+
+    @Test
+    void bookingCostsOneSelectOneUpdateOneInsert() {
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        Booking booking = chargerService.bookCharger(chargerId, "driver", 30);
+
+        assertThat(booking).isNotNull();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void failedCmsBlockReleasesTheClaim() {
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                .thenReturn(ResponseEntity.status(503).body("FAIL"));
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+
+        assertThat(chargerService.bookCharger(chargerId, "driver", 30)).isNull();
+        assertThat(bookingRepository.findByChargerId(chargerId)).isEmpty();
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+    }
+}
@@ -0,0 +1,84 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.micrometer.tracing.test.autoconfigure.AutoConfigureTracing;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@SpringBootTest(properties = {
+        "management.tracing.sampling.probability=1.0",
+        "karocharge.tracing.file=target/test-data/spans-tracing-test.ndjson"})
+@AutoConfigureTracing
+class CmsTracingTest extends AbstractStoreTest {
+
+    private static final Path SPANS = Path.of("target/test-data/spans-tracing-test.ndjson");
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    private MockRestServiceServer cms;
+
+    @BeforeEach
+    void setUp() {
+        cms = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void cmsCallFromTheBookingExecutorCarriesTheCallersTrace() throws Exception {
+        Long chargerId = chargerService.createCharger(newCharger()).getId();
+        AtomicReference<String> traceparent = new AtomicReference<>();
+        cms.expect(requestTo("http://localhost:9090/api/cms/chargers/" + chargerId + "/block"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(request -> traceparent.set(request.getHeaders().getFirst("traceparent")))
+                .andRespond(withSuccess());
+
+        AtomicReference<String> traceId = new AtomicReference<>();
+        Observation.createNotStarted("test.request", observationRegistry).observe(() -> {
+            traceId.set(tracer.currentSpan().context().traceId());
+            assertThat(chargerService.bookChargerAsync(chargerId, "asha", 30).join()).isNotNull();
+        });
+
+        cms.verify();
+        // W3C: version-traceId-parentSpanId-flags
+        assertThat(traceparent.get()).matches("00-" + traceId.get() + "-[0-9a-f]{16}-01");
+
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<String> spans = Files.readAllLines(SPANS);
+        assertThat(spans).anySatisfy(span -> assertThat(span)
+                .contains("\"traceId\":\"" + traceId.get() + "\"")
+                .contains("\"kind\":\"CLIENT\"")
+                .contains("\"service\":\"backend\""));
+    }
+}
@@ -0,0 +1,96 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.KeysetPageDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.repository.ChargerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class KeysetPaginationTest extends AbstractStoreTest {
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void walksEveryChargerOnceInIdOrderWhileRowsAreAdded() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) created.add(create(i % 2 == 0 ? "asha" : "ravi").getId());
+
+        List<Long> seen = new ArrayList<>();
+        KeysetPageDTO<ChargerRepository.ListingView> page = chargerService.listChargers(null, 3);
+        page.getItems().forEach(c -> seen.add(c.getId()));
+        assertThat(page.getNext()).isEqualTo(created.get(2));
+
+        created.add(create("asha").getId()); // lands after the cursor: still picked up, nothing repeated
+        while (page.getNext() != null) {
+            page = chargerService.listChargers(page.getNext(), 3);
+            page.getItems().forEach(c -> seen.add(c.getId()));
+        }
+        assertThat(seen).isEqualTo(created);
+
+        List<String> hosts = new ArrayList<>();
+        KeysetPageDTO<ChargerRepository.ListingView> hostPage = chargerService.listChargersByHost("ravi", null, 2);
+        assertThat(hostPage.getItems()).hasSize(2);
+        hostPage = chargerService.listChargersByHost("ravi", hostPage.getNext(), 2);
+        hostPage.getItems().forEach(c -> hosts.add(c.getHostName()));
+        assertThat(hostPage.getItems()).extracting(ChargerRepository.ListingView::getId).containsExactly(created.get(5));
+        assertThat(hostPage.getNext()).isNull();
+        assertThat(hosts).containsOnly("ravi");
+    }
+
+    @Test
+    void bookingHistoryIsNewestFirstAndOnePageIsOneStatement() {
+        Charger charger = create("asha");
+        Charger other = create("asha");
+        List<Long> bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookings.add(bookingRepository.save(new Booking(i == 4 ? other : charger, 30, "COMPLETED", "driver")).getId());
+        }
+        bookingRepository.save(new Booking(charger, 30, "COMPLETED", "someone-else"));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        KeysetPageDTO<BookingRepository.HistoryView> page = bookingService.bookingsByUser("driver", null, 2);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page.getItems()).extracting(BookingRepository.HistoryView::getId)
+                .containsExactly(bookings.get(4), bookings.get(3));
+        assertThat(page.getItems().get(0).getChargerId()).isEqualTo(other.getId());
+
+        page = bookingService.bookingsByUser("driver", page.getNext(), 10);
+        assertThat(page.getItems()).extracting(BookingRepository.HistoryView::getId)
+                .containsExactly(bookings.get(2), bookings.get(1), bookings.get(0));
+        assertThat(page.getNext()).isNull();
+
+        assertThat(bookingService.bookingsByCharger(charger.getId(), null, 10).getItems()).hasSize(5);
+    }
+
+    private Charger create(String host) {
+        Charger charger = newCharger();
+        charger.setHostName(host);
+        return chargerService.createCharger(charger);
+    }
+}
@@ -0,0 +1,101 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.dto.SessionCompletionDTO;
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LiveSessionStreamTest extends AbstractStoreTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private LiveSessionRegistry liveSessions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @Test
+    void streamsLiveTicksWithoutDatabaseReadsAndClosesOnCompletion() throws Exception {
+        Booking booking = chargingBooking();
+        Long chargerId = booking.getCharger().getId();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings/" + booking.getId() + "/events")).build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(response.body()))) {
+            assertThat(nextFrame(events)).contains("\"status\":\"CHARGING\"");
+
+            stats.clear();
+            liveSessions.updateEnergy(chargerId, 1.25);
+            // A tick may already be in flight; the meter value shows up within the next two
+            String tick = nextFrame(events);
+            if (!tick.contains("liveEnergy\":1.25")) tick = nextFrame(events);
+            assertThat(tick).contains("\"liveEnergy\":1.25");
+            nextFrame(events);
+            assertThat(stats.getPrepareStatementCount()).isZero();
+
+            SessionCompletionDTO completion = new SessionCompletionDTO();
+            completion.setCompletionId("done-1");
+            completion.setChargerId(chargerId);
+            completion.setTotalEnergy(2.5);
+            completion.setDurationSeconds(300L);
+            bookingService.completeSession(completion);
+
+            String last = nextFrame(events);
+            while (!last.contains("COMPLETED")) last = nextFrame(events);
+            assertThat(last).contains("\"totalEnergy\":2.5");
+            assertThat(events.readLine()).isEmpty(); // end of the final event
+            assertThat(events.readLine()).isNull();  // server closed the stream
+        }
+        assertThat(liveSessions.activeSessions()).isZero();
+    }
+
+    private static String nextFrame(BufferedReader events) throws Exception {
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (line.startsWith("data:")) return line;
+        }
+        throw new AssertionError("stream closed");
+    }
+
+    private Booking chargingBooking() {
+        Charger charger = newCharger();
+        charger.setStatus("CHARGING");
+        charger = chargerRepository.save(charger);
+
+        Booking booking = new Booking(charger, 30, "CHARGING", "driver");
+        booking.setChargingStartedAt(LocalDateTime.now());
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,92 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.dto.MeterBatchDTO;
+import com.karocharge.backend.timeseries.EnergySeriesStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MeterReadingsTest {
+
+    @Test
+    void deltasApplyOnlyOnTopOfTheAcknowledgedFrame() throws Exception {
+        LiveSessionRegistry liveSessions = mock(LiveSessionRegistry.class);
+        MeterReadings readings = new MeterReadings(liveSessions, mock(EnergySeriesStore.class));
+
+        assertThat(readings.apply(frame(1L, 1, 0, false, new long[]{5}, new long[]{10}))).isFalse();
+
+        assertThat(readings.apply(frame(1L, 1, 0, true, new long[]{5, 6}, new long[]{100, 200}))).isTrue();
+        assertThat(readings.apply(frame(1L, 2, 1, false, new long[]{5}, new long[]{25}))).isTrue();
+        assertThat(readings.energyWh(5L)).isEqualTo(125L);
+        assertThat(readings.energyWh(6L)).isEqualTo(200L);
+        verify(liveSessions).updateEnergy(5L, 0.125);
+
+        // Stale base (frame 2 was never seen by the CMS as acknowledged) or new CMS epoch
+        assertThat(readings.apply(frame(1L, 3, 1, false, new long[]{5}, new long[]{1}))).isFalse();
+        assertThat(readings.apply(frame(2L, 3, 2, false, new long[]{5}, new long[]{1}))).isFalse();
+        assertThat(readings.energyWh(5L)).isEqualTo(125L);
+
+        MeterBatchDTO removal = frame(1L, 4, 2, false, new long[0], new long[0]);
+        removal.setRemovedChargerIds(new long[]{6});
+        assertThat(readings.apply(removal)).isTrue();
+        assertThat(readings.energyWh(6L)).isNull();
+    }
+
+    @Test
+    void readersDoNotWaitForTheCurveStoreToWriteAChunk() throws Exception {
+        EnergySeriesStore energySeries = mock(EnergySeriesStore.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(energySeries).seal(6L);
+        MeterReadings readings = new MeterReadings(mock(LiveSessionRegistry.class), energySeries);
+        readings.apply(frame(1L, 1, 0, true, new long[]{5, 6}, new long[]{100, 200}));
+
+        MeterBatchDTO removal = frame(1L, 2, 1, false, new long[]{5}, new long[]{50});
+        removal.setRemovedChargerIds(new long[]{6});
+        CompletableFuture<Boolean> applying = CompletableFuture.supplyAsync(() -> {
+            try {
+                return readings.apply(removal);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // The frame is visible while its chunk is still being written
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                assertThat(readings.energyWh(5L)).isEqualTo(150L);
+                assertThat(readings.size()).isEqualTo(1);
+            });
+        } finally {
+            release.countDown();
+        }
+        assertThat(applying.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static MeterBatchDTO frame(long epoch, long sequence, long base, boolean keyframe, long[] ids, long[] wh) {
+        MeterBatchDTO frame = new MeterBatchDTO();
+        frame.setEpoch(epoch);
+        frame.setSequence(sequence);
+        frame.setBaseSequence(base);
+        frame.setKeyframe(keyframe);
+        frame.setChargerIds(ids);
+        frame.setEnergyWh(wh);
+        return frame;
+    }
+}
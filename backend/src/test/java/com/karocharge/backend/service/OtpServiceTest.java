@@ -0,0 +1,160 @@
+package com.karocharge.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OtpServiceTest {
+
+    /** Clock the test moves by hand. */
+    private static final class ManualClock extends Clock {
+        final AtomicLong millis = new AtomicLong();
+
+        @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis.get()); }
+    }
+
+    @Test
+    void codesExpireAndAllowLimitedAttempts() {
+        ManualClock clock = new ManualClock();
+        OtpService otps = new OtpService(clock, Duration.ofMinutes(5), 100, 3, Duration.ofMinutes(15));
+
+        String otp = otps.generateOtp(1L);
+        assertThat(otps.verifyOtp(1L, wrong(otp))).isFalse();
+        assertThat(otps.verifyOtp(1L, otp)).isTrue();
+        assertThat(otps.verifyOtp(1L, otp)).isFalse(); // single use
+
+        otp = otps.generateOtp(2L);
+        clock.millis.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertThat(otps.verifyOtp(2L, otp)).isFalse(); // expired
+
+        otp = otps.generateOtp(3L);
+        for (int i = 0; i < 3; i++) assertThat(otps.verifyOtp(3L, wrong(otp))).isFalse();
+        assertThat(otps.verifyOtp(3L, otp)).isFalse(); // locked out after 3 wrong guesses
+    }
+
+    @Test
+    void regeneratingKeepsTheWrongGuessesAndLocksTheBookingOut() {
+        ManualClock clock = new ManualClock();
+        OtpService otps = new OtpService(clock, Duration.ofMinutes(5), 100, 3, Duration.ofMinutes(15));
+
+        // Alternating generate and guess used to reset the count with every new code
+        for (int i = 0; i < 3; i++) {
+            String otp = otps.generateOtp(1L);
+            assertThat(otp).isNotNull();
+            assertThat(otps.verifyOtp(1L, wrong(otp))).isFalse();
+        }
+        assertThat(otps.isLockedOut(1L)).isTrue();
+        assertThat(otps.generateOtp(1L)).isNull();
+
+        // Other bookings are not affected
+        String other = otps.generateOtp(2L);
+        assertThat(otps.verifyOtp(2L, other)).isTrue();
+
+        clock.millis.addAndGet(Duration.ofMinutes(15).toMillis());
+        assertThat(otps.isLockedOut(1L)).isFalse();
+        String otp = otps.generateOtp(1L);
+        assertThat(otps.verifyOtp(1L, otp)).isTrue();
+    }
+
+    @Test
+    void wrongGuessesOutliveTheCodeUntilTheLockoutWindowPasses() {
+        ManualClock clock = new ManualClock();
+        OtpService otps = new OtpService(clock, Duration.ofMinutes(5), 100, 3, Duration.ofMinutes(15));
+
+        String otp = otps.generateOtp(1L);
+        assertThat(otps.verifyOtp(1L, wrong(otp))).isFalse();
+        assertThat(otps.verifyOtp(1L, wrong(otp))).isFalse();
+
+        // The code expires, the two wrong guesses do not
+        clock.millis.addAndGet(Duration.ofMinutes(6).toMillis());
+        otp = otps.generateOtp(1L);
+        assertThat(otps.verifyOtp(1L, wrong(otp))).isFalse();
+        assertThat(otps.isLockedOut(1L)).isTrue();
+    }
+
+    @Test
+    void memoryStaysFlatOverMillionsOfUnverifiedGenerations() {
+        ManualClock clock = new ManualClock();
+        OtpService otps = new OtpService(clock, Duration.ofSeconds(60), 10_000, 5, Duration.ofMinutes(15));
+        Runtime runtime = Runtime.getRuntime();
+
+        long heapAfterFirstMillion = 0;
+        int refused = 0;
+        for (long i = 1; i <= 3_000_000; i++) {
+            if (otps.generateOtp(i) == null) refused++;
+            if (i % 1_000 == 0) clock.millis.addAndGet(1_000); // ~1000 new bookings per second
+            assertThat(otps.size()).isLessThanOrEqualTo(10_000);
+            if (i == 1_000_000) heapAfterFirstMillion = usedHeapAfterGc(runtime);
+        }
+        long heapAtEnd = usedHeapAfterGc(runtime);
+
+        // 60 s TTL at 1000/s keeps ~60k codes live, so the 10k bound refuses the overflow
+        assertThat(refused).isPositive();
+        assertThat(otps.size()).isLessThanOrEqualTo(10_000);
+        assertThat(heapAtEnd - heapAfterFirstMillion).isLessThan(16L << 20);
+    }
+
+    @Test
+    void expiredCodesAreSweptByTimeNotByRequestCount() {
+        ManualClock clock = new ManualClock();
+        OtpService otps = new OtpService(clock, Duration.ofSeconds(160), 10_000, 5, Duration.ofMinutes(15));
+        for (long id = 0; id <= 100; id++) otps.generateOtp(id); // the first sweeps the empty store; next due at 10 s
+
+        clock.millis.set(155_000);
+        otps.generateOtp(500L); // due: sweeps, nothing has expired yet; next due at 165 s
+        assertThat(otps.size()).isEqualTo(102);
+
+        clock.millis.set(161_000);
+        otps.generateOtp(600L); // the first 101 codes have expired, but no sweep is due
+        assertThat(otps.size()).isEqualTo(103);
+
+        clock.millis.set(165_000);
+        otps.generateOtp(700L);
+        assertThat(otps.size()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentGenerateAndVerifyStaysConsistent() throws Exception {
+        OtpService otps = new OtpService(Clock.systemUTC(), Duration.ofMinutes(5), 100_000, 5, Duration.ofMinutes(15));
+        AtomicInteger verified = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (long id = 0; id < 20_000; id++) {
+                    String otp = otps.generateOtp(id);
+                    if (otps.verifyOtp(id, otp)) verified.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        pool.shutdown();
+
+        // Codes get overwritten by other threads, so only some verify; none leak past the loop
+        assertThat(verified.get()).isPositive().isLessThanOrEqualTo(8 * 20_000);
+        assertThat(otps.size()).isLessThanOrEqualTo(20_000);
+    }
+
+    private static String wrong(String otp) {
+        return otp.equals("0000") ? "0001" : "0000";
+    }
+
+    private static long usedHeapAfterGc(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,144 @@
+package com.karocharge.backend.service;
+
+import com.karocharge.backend.AbstractStoreTest;
+import com.karocharge.backend.controller.BookingController;
+import com.karocharge.backend.model.Booking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "karocharge.deadlines.tick-ms=100",
+        "karocharge.deadlines.no-show=10m",
+        "karocharge.deadlines.activation-retry=1s"
+})
+class ReservationServiceTest extends AbstractStoreTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ChargerService chargerService;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private BookingDeadlineScheduler deadlines;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    private Long chargerId;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.postForEntity(any(String.class), isNull(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("ok"));
+
+        chargerId = chargerService.createCharger(newCharger()).getId();
+    }
+
+    @Test
+    void overlappingReservationsAreRefusedAndSuggestTheNextGap() {
+        LocalDateTime nine = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS).plusHours(9);
+
+        assertThat(bookingService.reserve(chargerId, "a", nine, 60)).isNotNull();
+        assertThat(bookingService.reserve(chargerId, "b", nine.plusMinutes(30), 60)).isNull();
+        assertThat(bookingService.reserve(chargerId, "c", nine.plusMinutes(60), 30)).isNotNull(); // adjacent
+        assertThat(reservations.nextFreeSlot(chargerId, nine, 45)).isEqualTo(nine.plusMinutes(90));
+
+        // The charger itself stays bookable for the walk-in that ends before 9:00
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+
+        reservations.rebuild(); // as after a restart
+        assertThat(reservations.slotCount(chargerId)).isEqualTo(2);
+        assertThat(bookingService.reserve(chargerId, "d", nine.plusMinutes(15), 15)).isNull();
+    }
+
+    @Test
+    void walkInCannotRunIntoAnUpcomingReservation() {
+        bookingService.reserve(chargerId, "a", LocalDateTime.now().plusMinutes(20), 60);
+
+        assertThat(chargerService.bookCharger(chargerId, "walk-in", 30)).isNull();
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+        assertThat(chargerService.bookCharger(chargerId, "walk-in", 15)).isNotNull();
+    }
+
+    @Test
+    void reservationActivatesWhenItsSlotBegins() throws Exception {
+        Booking reserved = bookingService.reserve(chargerId, "a", LocalDateTime.now().plusNanos(300_000_000), 30);
+
+        await(() -> "BOOKED".equals(bookingRepository.findById(reserved.getId()).orElseThrow().getStatus()));
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("BOOKED");
+    }
+
+    @Test
+    void cancelledReservationFreesItsSlot() {
+        LocalDateTime start = LocalDateTime.now().plusHours(3);
+        Booking reserved = bookingService.reserve(chargerId, "a", start, 60);
+
+        assertThat(bookingService.cancelReservation(reserved.getId()).getStatus()).isEqualTo("CANCELLED");
+        assertThat(bookingService.cancelReservation(reserved.getId())).isNull();
+        assertThat(bookingService.reserve(chargerId, "b", start, 60)).isNotNull();
+    }
+
+    @Test
+    void activationRefusedByTheCmsIsUndoneAndRetried() throws Exception {
+        when(restTemplate.postForEntity(endsWith("/block"), isNull(), eq(String.class)))
+                .thenReturn(ResponseEntity.status(503).body("down"));
+        Booking reserved = bookingService.reserve(chargerId, "a", LocalDateTime.now().plusNanos(300_000_000), 30);
+
+        verify(restTemplate, timeout(5_000)).postForEntity(endsWith("/block"), isNull(), eq(String.class));
+        await(() -> "RESERVED".equals(bookingRepository.findById(reserved.getId()).orElseThrow().getStatus())
+                && "AVAILABLE".equals(chargerRepository.findById(chargerId).orElseThrow().getStatus()));
+
+        when(restTemplate.postForEntity(endsWith("/block"), isNull(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("ok"));
+        await(() -> "BOOKED".equals(bookingRepository.findById(reserved.getId()).orElseThrow().getStatus()));
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("BOOKED");
+    }
+
+    @Test
+    void cancelledWalkInFreesItsSlot() {
+        Booking walkIn = chargerService.bookCharger(chargerId, "walk-in", 30);
+        LocalDateTime soon = LocalDateTime.now().plusMinutes(10);
+        assertThat(bookingService.reserve(chargerId, "a", soon, 60)).isNull();
+
+        bookingService.onBooked(walkIn);
+
+        assertThat(bookingController.stopCharging(walkIn.getId(), "DRIVER").getStatusCode().value()).isEqualTo(200);
+        assertThat(bookingService.reserve(chargerId, "a", soon, 60)).isNotNull();
+        // Nothing runs on the CMS yet, so no stop (and no completion): the cancel frees the charger itself
+        assertThat(chargerRepository.findById(chargerId).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+        assertThat(bookingRepository.findById(walkIn.getId()).orElseThrow().getStatus()).isEqualTo("CANCELLED");
+        assertThat(deadlines.isArmed(walkIn.getId())).isFalse();
+        verify(restTemplate, never()).postForEntity(endsWith("/" + chargerId + "/stop"), isNull(), eq(String.class));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long until = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > until) throw new AssertionError("condition not met in 10 s");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.karocharge.backend.timeseries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnergySeriesStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsIrregularSamplesAcrossChunksAndRestart() throws Exception {
+        Path file = dir.resolve("series.dat");
+        Random random = new Random(42);
+        long[] timestamps = new long[1_000];
+        long[] values = new long[1_000];
+        long t = 1_700_000_000_000L;
+        long v = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            // Mostly 1 s cadence with jitter, plus the odd gap and meter jump to hit every bucket
+            t += i % 97 == 0 ? random.nextInt(10_000_000) : 1_000 + random.nextInt(40) - 20;
+            v += i % 89 == 0 ? random.nextInt(1_000_000) : 10 + random.nextInt(3) - 1;
+            timestamps[i] = t;
+            values[i] = v;
+        }
+
+        try (EnergySeriesStore store = new EnergySeriesStore(file, 128)) {
+            for (int i = 0; i < timestamps.length; i++) assertThat(store.append(7L, timestamps[i], values[i])).isTrue();
+            assertThat(store.append(7L, timestamps[0], 0)).isFalse(); // out of order
+
+            EnergySeriesStore.Curve live = store.query(7L, Long.MIN_VALUE, Long.MAX_VALUE, 0);
+            assertThat(live.timestamps()).containsExactly(timestamps);
+            assertThat(live.energyWh()).containsExactly(values);
+        }
+
+        try (EnergySeriesStore reopened = new EnergySeriesStore(file, 128)) {
+            EnergySeriesStore.Curve curve = reopened.query(7L, timestamps[100], timestamps[199], 0);
+            assertThat(curve.size()).isEqualTo(100);
+            assertThat(curve.energyWh()[0]).isEqualTo(values[100]);
+            assertThat(curve.energyWh()[99]).isEqualTo(values[199]);
+            assertThat(reopened.query(8L, 0, Long.MAX_VALUE, 0).size()).isZero();
+        }
+    }
+
+    @Test
+    void downsamplingKeepsLastReadingPerStep() throws Exception {
+        try (EnergySeriesStore store = new EnergySeriesStore(dir.resolve("series.dat"), 720)) {
+            for (int s = 0; s < 600; s++) store.append(1L, s * 1_000L, s * 10L);
+
+            EnergySeriesStore.Curve perMinute = store.query(1L, 0, 599_000, 60_000);
+            assertThat(perMinute.size()).isEqualTo(10);
+            assertThat(perMinute.timestamps()[0]).isEqualTo(59_000);
+            assertThat(perMinute.energyWh()[9]).isEqualTo(5_990);
+        }
+    }
+
+    @Test
+    void tornChunkIsDroppedOnStartup() throws Exception {
+        Path file = dir.resolve("series.dat");
+        try (EnergySeriesStore store = new EnergySeriesStore(file, 10)) {
+            for (int s = 0; s < 20; s++) store.append(1L, s * 1_000L, s * 10L);
+        }
+        long intact = Files.size(file);
+        Files.write(file, new byte[]{0x4B, 0x43, 0x54, 0x53, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (EnergySeriesStore store = new EnergySeriesStore(file, 10)) {
+            assertThat(store.query(1L, 0, Long.MAX_VALUE, 0).size()).isEqualTo(20);
+        }
+        assertThat(Files.size(file)).isEqualTo(intact);
+    }
+}
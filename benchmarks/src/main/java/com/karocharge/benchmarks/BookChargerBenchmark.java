@@ -0,0 +1,98 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.service.ChargerService;
+import com.karocharge.backend.service.ReservationService;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChargerService.bookCharger end to end: charger read, claim UPDATE + booking INSERT on an
+ * embedded H2, slot hold, and the CMS block call over HTTP to a local stub that answers 200.
+ *
+ * Every invocation books the same charger; the reset (slot release, status back to AVAILABLE)
+ * runs outside the measurement. A booking costs milliseconds, well above the
+ * per-invocation setup overhead JMH warns about.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookChargerBenchmark {
+
+    private HttpServer cmsStub;
+    private ConfigurableApplicationContext backend;
+    private ChargerService chargerService;
+    private ReservationService reservations;
+    private Long chargerId;
+    private Booking booking;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        // Without it every response sits out a delayed ACK (~40 ms) and swamps the booking itself
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        cmsStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        cmsStub.createContext("/", exchange -> {
+            byte[] body = "SUCCESS".getBytes(StandardCharsets.UTF_8);
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        cmsStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        cmsStub.start();
+
+        backend = EmbeddedBackend.start("http://127.0.0.1:" + cmsStub.getAddress().getPort() + "/api/cms/chargers");
+        chargerService = backend.getBean(ChargerService.class);
+        reservations = backend.getBean(ReservationService.class);
+
+        Charger charger = new Charger();
+        charger.setHostName("host");
+        charger.setLocation("Pune");
+        charger.setBrand("Tata");
+        charger.setType("DC");
+        charger.setDuration(60);
+        chargerId = chargerService.createCharger(charger).getId();
+    }
+
+    @TearDown(Level.Invocation)
+    public void release() {
+        if (booking == null) throw new IllegalStateException("booking failed");
+        reservations.release(booking.getId());
+        chargerService.unblockChargerLocally(chargerId);
+        booking = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        backend.close();
+        cmsStub.stop(0);
+    }
+
+    @Benchmark
+    public Booking bookCharger() {
+        booking = chargerService.bookCharger(chargerId, "driver", 30);
+        return booking;
+    }
+}
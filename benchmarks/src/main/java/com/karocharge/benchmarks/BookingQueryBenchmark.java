@@ -0,0 +1,120 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.repository.BookingRepository;
+import com.karocharge.backend.repository.ChargerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The table-side versions of IntervalIndexBenchmark and TimingWheelBenchmark, on an embedded
+ * H2 without an index on (charger_id, start_time) or end_time:
+ * overlapQuery is the reservation conflict check against one charger's 10k reservations;
+ * deadlineScan is the once-a-second sweep the deadline wheel replaced, reading every CHARGING
+ * booking already past its end time among 100k whose end times are spread over the next hour.
+ * Successive scans walk the first 10 minutes, so they return from a few dozen to ~17k rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingQueryBenchmark {
+
+    private static final int RESERVATIONS = 10_000;
+    private static final int TICKS = 600;
+    private static final String OVERLAP = "SELECT COUNT(*) FROM bookings WHERE charger_id = ? "
+            + "AND status IN ('RESERVED', 'BOOKED', 'CHARGING') AND start_time < ? AND end_time > ?";
+    private static final String INSERT = "INSERT INTO bookings (charger_id, brand, type, host_name, location, user_name, "
+            + "duration, status, start_time, end_time, late_minutes, idle_minutes) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    private ConfigurableApplicationContext backend;
+    private JdbcTemplate jdbcTemplate;
+    private BookingRepository bookingRepository;
+    private Long reservedChargerId;
+    private LocalDateTime base;
+    private Random random;
+    private int tick;
+
+    @Setup
+    public void start() throws IOException {
+        // No CMS calls are made: nothing is booked through the services
+        backend = EmbeddedBackend.start("http://127.0.0.1:9/api/cms/chargers");
+        jdbcTemplate = backend.getBean(JdbcTemplate.class);
+        bookingRepository = backend.getBean(BookingRepository.class);
+        ChargerRepository chargerRepository = backend.getBean(ChargerRepository.class);
+        base = LocalDateTime.now().plusDays(1);
+        random = new Random(7);
+
+        reservedChargerId = chargerRepository.save(charger("AVAILABLE")).getId();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            LocalDateTime from = base.plusMinutes(60L * i);
+            rows.add(row(reservedChargerId, "RESERVED", from, from.plusMinutes(30)));
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+
+        Long chargingChargerId = chargerRepository.save(charger("CHARGING")).getId();
+        rows.clear();
+        for (int i = 0; i < TimingWheelBenchmark.DEADLINES; i++) {
+            LocalDateTime end = base.plusSeconds(1 + random.nextInt(TimingWheelBenchmark.HORIZON_SECONDS));
+            rows.add(row(chargingChargerId, "CHARGING", base, end));
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    @TearDown
+    public void stop() {
+        backend.close();
+    }
+
+    @Benchmark
+    public Integer overlapQuery() {
+        LocalDateTime from = base.plusMinutes(random.nextInt(60 * RESERVATIONS));
+        return jdbcTemplate.queryForObject(OVERLAP, Integer.class, reservedChargerId,
+                Timestamp.valueOf(from.plusMinutes(15)), Timestamp.valueOf(from));
+    }
+
+    @Benchmark
+    public List<Booking> deadlineScan() {
+        tick = tick % TICKS + 1;
+        return bookingRepository.findByEndTimeBeforeAndStatus(base.plusSeconds(tick), "CHARGING");
+    }
+
+    private static Charger charger(String status) {
+        Charger charger = new Charger();
+        charger.setHostName("host");
+        charger.setLocation("Pune");
+        charger.setBrand("Tata");
+        charger.setType("DC");
+        charger.setDuration(60);
+        charger.setStatus(status);
+        return charger;
+    }
+
+    private static Object[] row(Long chargerId, String status, LocalDateTime start, LocalDateTime end) {
+        return new Object[]{chargerId, "Tata", "DC", "host", "Pune", "driver", 30, status,
+                Timestamp.valueOf(start), Timestamp.valueOf(end), 0, 0};
+    }
+}
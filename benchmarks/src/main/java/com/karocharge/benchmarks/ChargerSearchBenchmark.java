@@ -0,0 +1,100 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.model.Charger;
+import com.karocharge.backend.search.Bitmap;
+import com.karocharge.backend.search.FacetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filtered search with facet counts over 1M chargers: FacetIndex bitmaps (brand, type,
+ * status and an availability window, then counts for every field) vs filtering the full list
+ * in memory, as the UI does with GET /api/chargers. Successive calls rotate the brands and type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChargerSearchBenchmark {
+
+    private static final int CHARGERS = 1_000_000;
+    private static final String[] BRANDS = {"Tata", "Ather", "Ola", "MG", "Hyundai", "Kia", "BYD", "Mahindra"};
+    private static final String[] TYPES = {"AC", "DC", "CCS2", "Type2"};
+    private static final String[] STATUSES = {"AVAILABLE", "AVAILABLE", "AVAILABLE", "BOOKED", "CHARGING", "BLOCKED"};
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 5, 31);
+
+    private List<Charger> chargers;
+    private FacetIndex index;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        chargers = new ArrayList<>(CHARGERS);
+        index = new FacetIndex("brand", "type", "status", "host", "availableDate");
+        for (int id = 1; id <= CHARGERS; id++) {
+            Charger charger = new Charger();
+            charger.setId((long) id);
+            charger.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            charger.setType(TYPES[random.nextInt(TYPES.length)]);
+            charger.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            charger.setHostName("host" + random.nextInt(200_000));
+            charger.setAvailableDate(LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365)));
+            chargers.add(charger);
+            index.set(id, "brand", charger.getBrand());
+            index.set(id, "type", charger.getType());
+            index.set(id, "status", charger.getStatus());
+            index.set(id, "host", charger.getHostName());
+            index.set(id, "availableDate", charger.getAvailableDate().toString());
+        }
+    }
+
+    @Benchmark
+    public int facetIndex() {
+        int q = query++;
+        Bitmap matches = index.all()
+                .and(index.anyOf("brand", List.of(BRANDS[q % BRANDS.length], BRANDS[(q + 3) % BRANDS.length])))
+                .and(index.anyOf("type", List.of(TYPES[q % TYPES.length])))
+                .and(index.anyOf("status", List.of("AVAILABLE")))
+                .and(index.range("availableDate", FROM.toString(), TO.toString()));
+        int count = matches.cardinality();
+        for (String field : index.fields()) index.counts(field, matches, count, 20);
+        return count;
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Integer>> listFilter() {
+        int q = query++;
+        Set<String> brands = Set.of(BRANDS[q % BRANDS.length], BRANDS[(q + 3) % BRANDS.length]);
+        String type = TYPES[q % TYPES.length];
+        Map<String, Map<String, Integer>> facets = new HashMap<>();
+        for (Charger c : chargers) {
+            if (brands.contains(c.getBrand()) && type.equals(c.getType()) && "AVAILABLE".equals(c.getStatus())
+                    && !c.getAvailableDate().isBefore(FROM) && !c.getAvailableDate().isAfter(TO)) {
+                facets.computeIfAbsent("brand", f -> new HashMap<>()).merge(c.getBrand(), 1, Integer::sum);
+                facets.computeIfAbsent("host", f -> new HashMap<>()).merge(c.getHostName(), 1, Integer::sum);
+            }
+        }
+        return facets;
+    }
+}
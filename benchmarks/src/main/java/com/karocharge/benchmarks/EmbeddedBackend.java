@@ -0,0 +1,36 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.BackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * The backend as the benchmarks run it: no web server, an in-memory H2 with the schema
+ * Hibernate creates, and neither app's application.properties.
+ */
+final class EmbeddedBackend {
+
+    private EmbeddedBackend() {
+    }
+
+    /**
+     * Starts the backend with CMS calls going to cmsBaseUrl (".../api/cms/chargers").
+     */
+    static ConfigurableApplicationContext start(String cmsBaseUrl) throws IOException {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=WARN",
+                        "karocharge.cms.base-url=" + cmsBaseUrl,
+                        "karocharge.timeseries.dir=" + Files.createTempDirectory("bench-timeseries"))
+                .run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The counter update of one 1 s energy tick: the old boxed ConcurrentHashMap of counters vs
+ * EnergyCounterEngine, with no journal and no logging (EnergyTickBenchmark and
+ * TickLoggingBenchmark have those). Run with -prof gc for the allocation per tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergyCounterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int sessions;
+
+    private Map<Long, Double> energyCounters;
+    private EnergyCounterEngine engine;
+
+    @Setup
+    public void setUp() {
+        energyCounters = new ConcurrentHashMap<>();
+        for (long id = 0; id < sessions; id++) energyCounters.put(id, 0.0);
+        engine = new EnergyCounterEngine(Runtime.getRuntime().availableProcessors(), sessions);
+        for (long id = 0; id < sessions; id++) engine.start(id, 36.0, 0L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public void boxedMap() {
+        energyCounters.forEach((id, current) -> energyCounters.put(id, current + 0.01));
+    }
+
+    @Benchmark
+    public void engine() {
+        engine.tick(1.0);
+    }
+}
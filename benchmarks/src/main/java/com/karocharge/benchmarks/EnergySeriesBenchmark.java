@@ -0,0 +1,137 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.timeseries.EnergySeriesStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnergySeriesStore: appending one meter sample, and reading back a one-hour session curve
+ * raw (3600 samples) and downsampled to one point a minute.
+ *
+ * Samples mimic the CMS meter stream: one per second per charger with a few ms of jitter,
+ * energy in whole Wh at roughly constant power (with occasional power changes). The queries
+ * run against one hour of samples for 1000 chargers, written in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergySeriesBenchmark {
+
+    private static final int CHARGERS = 1_000;
+    private static final int SECONDS = 3_600;
+    private static final long BASE = 1_700_000_000_000L;
+
+    private Path dir;
+    private EnergySeriesStore hour;
+    private int query;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bench-series");
+        hour = new EnergySeriesStore(dir.resolve("hour.dat"), 720);
+        Meters meters = new Meters();
+        for (int s = 0; s < SECONDS; s++) {
+            for (int c = 0; c < CHARGERS; c++) meters.append(hour);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        hour.close();
+        deleteTree(dir);
+    }
+
+    /**
+     * A fresh store per iteration, so the file does not grow across the whole run.
+     */
+    @State(Scope.Benchmark)
+    public static class Ingest {
+
+        private Path dir;
+        private EnergySeriesStore store;
+        private Meters meters;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory("bench-series-ingest");
+            store = new EnergySeriesStore(dir.resolve("ingest.dat"), 720);
+            meters = new Meters();
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            store.close();
+            deleteTree(dir);
+        }
+    }
+
+    @Benchmark
+    public boolean append(Ingest ingest) throws IOException {
+        return ingest.meters.append(ingest.store);
+    }
+
+    @Benchmark
+    public EnergySeriesStore.Curve queryHourRaw() throws IOException {
+        return hour.query(query++ % CHARGERS, BASE, BASE + SECONDS * 1_000L, 0);
+    }
+
+    @Benchmark
+    public EnergySeriesStore.Curve queryHourByMinute() throws IOException {
+        return hour.query(query++ % CHARGERS, BASE, BASE + SECONDS * 1_000L, 60_000);
+    }
+
+    /**
+     * CHARGERS meters read round-robin; each full round is the next second.
+     */
+    private static final class Meters {
+
+        private final Random random = new Random(7);
+        private final long[] powerWhPerSecond = new long[CHARGERS];
+        private final long[] energyWh = new long[CHARGERS];
+        private long second;
+        private int charger;
+        private long frameTime = BASE;
+
+        Meters() {
+            for (int c = 0; c < CHARGERS; c++) powerWhPerSecond[c] = 2 + random.nextInt(40); // 7..150 kW
+        }
+
+        boolean append(EnergySeriesStore store) throws IOException {
+            if (charger == 0) frameTime = BASE + second * 1_000L + random.nextInt(15);
+            int c = charger;
+            if (random.nextInt(600) == 0) powerWhPerSecond[c] = 2 + random.nextInt(40);
+            energyWh[c] += powerWhPerSecond[c];
+            if (++charger == CHARGERS) {
+                charger = 0;
+                second++;
+            }
+            return store.append(c, frameTime, energyWh[c]);
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+}
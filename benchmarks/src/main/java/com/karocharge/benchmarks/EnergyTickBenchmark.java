@@ -0,0 +1,74 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import com.karocharge.cms.service.CmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CmsService.incrementEnergy, the CMS's 1 s tick, at growing fleet sizes: the counter update
+ * of every live session plus, every 5th tick, the journal checkpoint and fsync (as configured
+ * by default). The average includes that amortized checkpoint cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergyTickBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    private Path dir;
+    private EnergyCounterEngine engine;
+    private SessionJournal journal;
+    private CmsService cmsService;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bench-journal");
+        engine = new EnergyCounterEngine(Runtime.getRuntime().availableProcessors(), sessions);
+        journal = new SessionJournal(dir.resolve("sessions.journal"), 64L * 1024 * 1024, engine);
+        for (long id = 0; id < sessions; id++) {
+            engine.start(id, 36.0, 0L);
+            journal.appendStart(id, 36.0, 0L);
+        }
+        // The tick touches neither the backend client nor the completion outbox
+        cmsService = new CmsService(null, engine, journal, null, new SimpleMeterRegistry(),
+                "http://localhost:8080/api", 36.0, 5, 60, 100);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        engine.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public void incrementEnergy() {
+        cmsService.incrementEnergy();
+    }
+}
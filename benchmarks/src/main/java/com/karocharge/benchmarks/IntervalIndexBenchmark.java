@@ -0,0 +1,75 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.scheduling.IntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict checks on one charger holding thousands of 30-minute reservations: IntervalIndex
+ * vs a linear scan of the slots, plus the next-free-gap lookup behind the "try 10:30" hint.
+ * Every other half-hour slot is taken, so a 15-minute probe conflicts 3 times in 4.
+ * BookingQueryBenchmark has the same check as a query on the bookings table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalIndexBenchmark {
+
+    private static final long SLOT = 30 * 60_000L;
+    private static final long PROBE = 15 * 60_000L;
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000", "10000", "100000"})
+    public int reservations;
+
+    private IntervalIndex index;
+    private long[] starts;
+    private long[] probes;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        index = new IntervalIndex();
+        starts = new long[reservations];
+        for (int i = 0; i < reservations; i++) {
+            starts[i] = i * 2 * SLOT;
+            index.add(starts[i], starts[i] + SLOT, i);
+        }
+        probes = new Random(7).longs(PROBES, 0, reservations * 2 * SLOT).toArray();
+    }
+
+    @Benchmark
+    public boolean index() {
+        long from = probes[probe++ & (PROBES - 1)];
+        return index.overlaps(from, from + PROBE);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        long from = probes[probe++ & (PROBES - 1)];
+        for (long s : starts) {
+            if (s < from + PROBE && from < s + SLOT) return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public long nextFree() {
+        return index.nextFree(probes[probe++ & (PROBES - 1)], PROBE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.model.Booking;
+import com.karocharge.backend.model.Charger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the response bodies the frontend polls most: a charger, a booking (which
+ * embeds its charger) and a page of 50 chargers, with a default JsonMapper as Boot builds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private JsonMapper jsonMapper;
+    private Charger charger;
+    private Booking booking;
+    private List<Charger> page;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        charger = charger(1L);
+        booking = new Booking(charger, 30, "CHARGING", "driver");
+        booking.setId(1L);
+        booking.setChargingStartedAt(LocalDateTime.of(2026, 1, 1, 10, 2));
+        booking.setEndTime(LocalDateTime.of(2026, 1, 1, 10, 32));
+        booking.setTotalEnergy(4.2);
+        booking.setActualDuration(420);
+        booking.setLateMinutes(2);
+        booking.setIdleMinutes(0);
+        page = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) page.add(charger(id));
+    }
+
+    private static Charger charger(long id) {
+        Charger charger = new Charger();
+        charger.setId(id);
+        charger.setHostName("host" + id);
+        charger.setLocation("Baner Road, Pune");
+        charger.setBrand("Tata Power");
+        charger.setType("DC Fast");
+        charger.setAvailableDate(LocalDate.of(2026, 1, 1));
+        charger.setDuration(60);
+        charger.setLatitude(18.559 + id * 0.001);
+        charger.setLongitude(73.786 + id * 0.001);
+        charger.setChangeVersion(id);
+        return charger;
+    }
+
+    @Benchmark
+    public byte[] charger() {
+        return jsonMapper.writeValueAsBytes(charger);
+    }
+
+    @Benchmark
+    public byte[] booking() {
+        return jsonMapper.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] chargerPage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+}
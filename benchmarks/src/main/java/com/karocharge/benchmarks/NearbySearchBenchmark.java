@@ -0,0 +1,86 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.geo.GeoGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 10 nearest available DC chargers within a radius, among 1M chargers spread over India
+ * (70% around six metros): GeoGrid vs the full scan the client does with GET /api/chargers.
+ * Queries cycle through 20k random locations drawn from the same distribution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearbySearchBenchmark {
+
+    private static final int CHARGERS = 1_000_000;
+    private static final int QUERIES = 20_000;
+    private static final double[][] METROS = {
+            {28.61, 77.21}, {19.08, 72.88}, {12.97, 77.59}, {13.08, 80.27}, {22.57, 88.36}, {18.52, 73.86}};
+
+    record Point(double latitude, double longitude, boolean available, boolean dc) {
+    }
+
+    @Param({"5", "25", "100"})
+    public double radiusKm;
+
+    private Point[] points;
+    private GeoGrid<Point> grid;
+    private double[][] queries;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(13);
+        points = new Point[CHARGERS];
+        grid = new GeoGrid<>(0.01);
+        for (int i = 0; i < CHARGERS; i++) {
+            double[] at = location(random);
+            points[i] = new Point(at[0], at[1], random.nextInt(4) != 0, random.nextBoolean());
+            grid.put(i, at[0], at[1], points[i]);
+        }
+        queries = new double[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) queries[q] = location(random);
+    }
+
+    @Benchmark
+    public List<GeoGrid.Hit<Point>> grid() {
+        double[] at = queries[query++ % QUERIES];
+        return grid.nearest(at[0], at[1], radiusKm, 10, p -> p.available() && p.dc());
+    }
+
+    @Benchmark
+    public int fullScan() {
+        double[] at = queries[query++ % QUERIES];
+        int hits = 0;
+        for (Point p : points) {
+            if (p.available() && p.dc() && GeoGrid.distanceKm(at[0], at[1], p.latitude(), p.longitude()) <= radiusKm) hits++;
+        }
+        return hits;
+    }
+
+    private static double[] location(Random random) {
+        if (random.nextInt(10) < 7) {
+            double[] metro = METROS[random.nextInt(METROS.length)];
+            return new double[]{metro[0] + random.nextGaussian() * 0.15, metro[1] + random.nextGaussian() * 0.15};
+        }
+        return new double[]{8 + random.nextDouble() * 24, 69 + random.nextDouble() * 28};
+    }
+}
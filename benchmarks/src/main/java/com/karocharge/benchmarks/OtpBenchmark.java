@@ -0,0 +1,65 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.service.OtpService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OtpService: issuing a code, and issuing + verifying one (the arrival flow), single-threaded
+ * and with 8 threads sharing the store. Booking ids cycle through 64k so the store stays
+ * at a realistic size instead of filling up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtpBenchmark {
+
+    private static final long IDS = 65_536;
+
+    private OtpService otpService;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        otpService = new OtpService(Duration.ofMinutes(5), 100_000, 5, Duration.ofMinutes(15));
+    }
+
+    @Benchmark
+    public String generate() {
+        return otpService.generateOtp(nextId.getAndIncrement() % IDS);
+    }
+
+    @Benchmark
+    public boolean generateAndVerify() {
+        long id = nextId.getAndIncrement() % IDS;
+        return otpService.verifyOtp(id, otpService.generateOtp(id));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateContended() {
+        return generate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean generateAndVerifyContended() {
+        return generateAndVerify();
+    }
+}
@@ -0,0 +1,90 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CMS startup recovery: replaying a journal of 50k open sessions plus a minute of checkpoints
+ * (12 at the default 5 s interval) into an empty engine, compaction included. Each replay
+ * starts from a fresh copy of the journal, since replaying compacts it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionRecoveryBenchmark {
+
+    private static final int SESSIONS = 50_000;
+    private static final int CHECKPOINTS = 12;
+    private static final long CAPACITY = 64L << 20;
+
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private Path dir;
+    private Path written;
+    private EnergyCounterEngine recovered;
+    private SessionJournal journal;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        dir = Files.createTempDirectory("bench-recovery");
+        written = dir.resolve("written.journal");
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(cores, SESSIONS);
+             SessionJournal journal = new SessionJournal(written, CAPACITY, engine)) {
+            for (long id = 0; id < SESSIONS; id++) {
+                engine.start(id, 36.0, id);
+                journal.appendStart(id, 36.0, id);
+            }
+            for (int i = 0; i < CHECKPOINTS; i++) {
+                for (int t = 0; t < 5; t++) engine.tick(1.0);
+                journal.checkpoint();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void open() throws IOException {
+        Path copy = Files.copy(written, dir.resolve("sessions.journal"), StandardCopyOption.REPLACE_EXISTING);
+        recovered = new EnergyCounterEngine(cores, SESSIONS);
+        journal = new SessionJournal(copy, CAPACITY, recovered);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+        if (recovered.activeCount() != SESSIONS) throw new IllegalStateException("recovered " + recovered.activeCount());
+        journal.close();
+        recovered.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public int replay() throws IOException {
+        return journal.replayInto();
+    }
+}
@@ -0,0 +1,82 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.service.CmsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost of the CMS energy tick, journal checkpoints left out.
+ *
+ * printlnPerCharger is the tick as it used to be: a String.format'ed System.out.println per live
+ * session per tick. The stream is built the way the JVM builds System.out (128-byte buffer,
+ * flushed on every println) over a file, so every line is a write() call, as on a console.
+ * incrementEnergy is the tick as it is now: the same counter update, an INFO summary every 60
+ * ticks through the async appender (logback.xml here sends it to target/benchmark.log).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickLoggingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int sessions;
+
+    private Path console;
+    private PrintStream out;
+    private EnergyCounterEngine engine;
+    private CmsService cmsService;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = Files.createTempFile("bench-console", ".log");
+        out = new PrintStream(new BufferedOutputStream(new FileOutputStream(console.toFile()), 128), true);
+        engine = new EnergyCounterEngine(Runtime.getRuntime().availableProcessors(), sessions);
+        for (long id = 0; id < sessions; id++) engine.start(id, 36.0, 0L);
+        // Never checkpoints, so no journal
+        cmsService = new CmsService(null, engine, null, null, new SimpleMeterRegistry(),
+                "http://localhost:8080/api", 36.0, Integer.MAX_VALUE, 60, 100);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        out.close();
+        engine.close();
+        Files.delete(console);
+    }
+
+    @Benchmark
+    public void printlnPerCharger() {
+        engine.tick(1.0);
+        engine.forEachActive((chargerId, energyKwh, powerKw, startMillis) ->
+                out.println("Charger " + chargerId + " :: energy counter started :: Current Energy: "
+                        + String.format("%.2f", energyKwh) + " kWh"));
+    }
+
+    @Benchmark
+    public void incrementEnergy() {
+        cmsService.incrementEnergy();
+    }
+}
@@ -0,0 +1,79 @@
+package com.karocharge.benchmarks;
+
+import com.karocharge.backend.scheduling.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The booking deadline wheel at 100k pending deadlines spread over the next hour (1 s ticks):
+ * scheduling them all, moving one (an extend), and one tick. Fired deadlines are re-armed an
+ * hour out, so the wheel stays at 100k and each tick fires about 28.
+ * BookingQueryBenchmark has the per-tick table scan the wheel replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    static final int DEADLINES = 100_000;
+    static final int HORIZON_SECONDS = 3_600;
+
+    private long[] deadlines;
+    private TimingWheel<Integer> wheel;
+    private TimingWheel.Timer<Integer>[] timers;
+    private int[] fired;
+    private int firedCount;
+    private long now;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(11);
+        deadlines = new long[DEADLINES];
+        for (int i = 0; i < DEADLINES; i++) deadlines[i] = 1_000L * (1 + random.nextInt(HORIZON_SECONDS));
+
+        wheel = new TimingWheel<>(1_000, 0);
+        timers = new TimingWheel.Timer[DEADLINES];
+        for (int i = 0; i < DEADLINES; i++) timers[i] = wheel.schedule(i, deadlines[i]);
+        fired = new int[DEADLINES];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEADLINES)
+    public TimingWheel<Integer> schedule() {
+        TimingWheel<Integer> fresh = new TimingWheel<>(1_000, 0);
+        for (int i = 0; i < DEADLINES; i++) fresh.schedule(i, deadlines[i]);
+        return fresh;
+    }
+
+    @Benchmark
+    public void reschedule() {
+        int i = next++ % DEADLINES;
+        wheel.reschedule(timers[i], now + deadlines[(i + 1) % DEADLINES]);
+    }
+
+    @Benchmark
+    public int tick() {
+        now += 1_000;
+        firedCount = 0;
+        int count = wheel.advanceTo(now, id -> fired[firedCount++] = id);
+        for (int f = 0; f < firedCount; f++) wheel.reschedule(timers[fired[f]], now + HORIZON_SECONDS * 1_000L);
+        return count;
+    }
+}
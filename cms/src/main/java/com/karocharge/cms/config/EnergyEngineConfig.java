@@ -0,0 +1,44 @@
+package com.karocharge.cms.config;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class EnergyEngineConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnergyEngineConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public EnergyCounterEngine energyCounterEngine(
+            @Value("${karocharge.energy.shards:0}") int shards,
+            @Value("${karocharge.energy.initial-capacity:1024}") int initialCapacity) {
+        // 0 = one shard per core
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        return new EnergyCounterEngine(shardCount, initialCapacity);
+    }
+
+    /**
+     * Opens the session journal and restores every session that was live when the CMS went down.
+     */
+    @Bean(destroyMethod = "close")
+    public SessionJournal sessionJournal(
+            EnergyCounterEngine engine,
+            @Value("${karocharge.journal.dir:./data}") String dir,
+            @Value("${karocharge.journal.capacity-mb:64}") long capacityMb) throws IOException {
+        SessionJournal journal = new SessionJournal(Path.of(dir, "sessions.journal"), capacityMb << 20, engine);
+
+        long start = System.nanoTime();
+        int restored = journal.replayInto();
+        logger.info("Session journal: restored {} active sessions in {} ms",
+                restored, (System.nanoTime() - start) / 1_000_000);
+        return journal;
+    }
+}
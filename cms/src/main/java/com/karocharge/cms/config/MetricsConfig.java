@@ -0,0 +1,36 @@
+package com.karocharge.cms.config;
+
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import com.karocharge.cms.service.CompletionOutbox;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Gauges read at scrape time. The tick timer, session counters and backend call timers
+     * (karocharge.cms.tick, karocharge.cms.sessions.*, karocharge.backend.requests) are
+     * recorded in CmsService.
+     */
+    @Bean
+    public MeterBinder karochargeGauges(EnergyCounterEngine engine,
+                                        SessionJournal journal,
+                                        CompletionOutbox completionOutbox) {
+        return registry -> {
+            Gauge.builder("karocharge.cms.sessions.active", engine, EnergyCounterEngine::activeCount)
+                    .description("Charging sessions with a running energy counter")
+                    .register(registry);
+            Gauge.builder("karocharge.cms.journal.used", journal, SessionJournal::usedBytes)
+                    .description("Bytes written to the session journal since its last compaction")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("karocharge.cms.outbox.pending", completionOutbox, CompletionOutbox::pendingCount)
+                    .description("Session completions waiting for delivery to the backend")
+                    .register(registry);
+        };
+    }
+}
@@ -1,20 +1,31 @@
 package com.karocharge.cms.controller;
 
+import com.karocharge.cms.dto.BatchCommandDTO;
+import com.karocharge.cms.dto.BatchResultDTO;
 import com.karocharge.cms.dto.CmsRequestDTO;
 import com.karocharge.cms.dto.CmsResponseDTO;
+import com.karocharge.cms.service.BatchCommandService;
 import com.karocharge.cms.service.CmsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/cms")
 @CrossOrigin(origins = "*")
 public class CmsController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CmsController.class);
+
     private final CmsService cmsService;
+    private final BatchCommandService batchCommandService;
 
-    public CmsController(CmsService cmsService) {
+    public CmsController(CmsService cmsService, BatchCommandService batchCommandService) {
         this.cmsService = cmsService;
+        this.batchCommandService = batchCommandService;
     }
 
     // 1. Block charger (Physical simulation)
@@ -27,16 +38,24 @@ public class CmsController {
 
     // 2. Unblock charger AND START energy counter
     @PostMapping("/chargers/{id}/unblock")
-    public ResponseEntity<CmsResponseDTO> unblockCharger(@PathVariable Long id) {
+    public ResponseEntity<CmsResponseDTO> unblockCharger(@PathVariable Long id,
+                                                         @RequestParam(required = false) Double powerKw) {
         CmsRequestDTO request = new CmsRequestDTO();
         request.setChargerId(id);
+        request.setPowerKw(powerKw);
         return ResponseEntity.ok(cmsService.unblockCharger(request));
     }
 
     // 3. STOP energy counter and send totals back to KaroCharge
     @PostMapping("/chargers/{id}/stop")
     public ResponseEntity<CmsResponseDTO> stopSession(@PathVariable Long id) {
-        System.out.println("CMS received STOP request for Charger ID: " + id);
+        logger.debug("CMS received STOP request for Charger ID: {}", id);
         return ResponseEntity.ok(cmsService.stopChargingSession(id));
     }
-}
\ No newline at end of file
+
+    // 4. Batch: many BLOCK / UNBLOCK / STOP commands in one round trip, one result per command
+    @PostMapping("/chargers/batch")
+    public ResponseEntity<List<BatchResultDTO>> batch(@RequestBody List<BatchCommandDTO> commands) {
+        return ResponseEntity.ok(batchCommandService.execute(commands));
+    }
+}
@@ -0,0 +1,52 @@
+package com.karocharge.cms.controller;
+
+import com.karocharge.cms.config.CircuitBreakerInterceptor;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational endpoints (pool usage, circuit state). Not part of the OCPP-lite charger API.
+ */
+@RestController
+@RequestMapping("/api/cms/system")
+public class SystemController {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CircuitBreakerInterceptor circuitBreaker;
+
+    public SystemController(PoolingHttpClientConnectionManager connectionManager,
+                            CircuitBreakerInterceptor circuitBreaker) {
+        this.connectionManager = connectionManager;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Outbound HTTP pool utilisation (total + per route) and circuit breaker state
+    @GetMapping("/http-client")
+    public ResponseEntity<?> httpClientStats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toHostString(), toMap(connectionManager.getStats(route)));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("pool", toMap(connectionManager.getTotalStats()));
+        response.put("routes", routes);
+        response.put("circuits", circuitBreaker.getStates());
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> toMap(PoolStats stats) {
+        return Map.of(
+                "leased", stats.getLeased(),
+                "pending", stats.getPending(),
+                "available", stats.getAvailable(),
+                "max", stats.getMax()
+        );
+    }
+}
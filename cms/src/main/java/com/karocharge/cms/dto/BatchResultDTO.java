@@ -0,0 +1,55 @@
+package com.karocharge.cms.dto;
+
+/**
+ * Per-charger outcome of a batch command. 'status' and 'message' carry the same values
+ * the single-charger endpoints return in CmsResponseDTO.
+ */
+public class BatchResultDTO {
+
+    private Long chargerId;
+    private String operation;
+    private String status;
+    private String message;
+
+    public BatchResultDTO() {
+    }
+
+    public BatchResultDTO(Long chargerId, String operation, String status, String message) {
+        this.chargerId = chargerId;
+        this.operation = operation;
+        this.status = status;
+        this.message = message;
+    }
+
+    public Long getChargerId() {
+        return chargerId;
+    }
+
+    public void setChargerId(Long chargerId) {
+        this.chargerId = chargerId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -4,6 +4,7 @@ public class CmsRequestDTO {
 
     private Long chargerId;
     private Integer duration; // used only for block
+    private Double powerKw; // used only for unblock, null = simulator default
 
     public Long getChargerId() {
         return chargerId;
@@ -20,4 +21,12 @@ public class CmsRequestDTO {
     public void setDuration(Integer duration) {
         this.duration = duration;
     }
+
+    public Double getPowerKw() {
+        return powerKw;
+    }
+
+    public void setPowerKw(Double powerKw) {
+        this.powerKw = powerKw;
+    }
 }
@@ -0,0 +1,36 @@
+package com.karocharge.cms.dto;
+
+/**
+ * One frame of live meter values (CMS -> backend), columnar: chargerIds[i] pairs with energyWh[i].
+ * A keyframe carries absolute readings for every active charger. A delta frame carries only the
+ * chargers whose reading changed, as the difference to the frame 'baseSequence' the backend
+ * acknowledged, plus the chargers that stopped since then.
+ */
+public class MeterBatchDTO {
+
+    private long epoch;          // Changes when the CMS restarts
+    private long sequence;
+    private long baseSequence;   // Delta frames only: the frame these deltas apply on top of
+    private long sampledAtMillis; // When the CMS read the counters
+    private boolean keyframe;
+    private long[] chargerIds;
+    private long[] energyWh;
+    private long[] removedChargerIds;
+
+    public long getEpoch() { return epoch; }
+    public void setEpoch(long epoch) { this.epoch = epoch; }
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+    public long getBaseSequence() { return baseSequence; }
+    public void setBaseSequence(long baseSequence) { this.baseSequence = baseSequence; }
+    public long getSampledAtMillis() { return sampledAtMillis; }
+    public void setSampledAtMillis(long sampledAtMillis) { this.sampledAtMillis = sampledAtMillis; }
+    public boolean isKeyframe() { return keyframe; }
+    public void setKeyframe(boolean keyframe) { this.keyframe = keyframe; }
+    public long[] getChargerIds() { return chargerIds; }
+    public void setChargerIds(long[] chargerIds) { this.chargerIds = chargerIds; }
+    public long[] getEnergyWh() { return energyWh; }
+    public void setEnergyWh(long[] energyWh) { this.energyWh = energyWh; }
+    public long[] getRemovedChargerIds() { return removedChargerIds; }
+    public void setRemovedChargerIds(long[] removedChargerIds) { this.removedChargerIds = removedChargerIds; }
+}
@@ -0,0 +1,32 @@
+package com.karocharge.cms.dto;
+
+/**
+ * Final totals of one charging session, as delivered to the backend.
+ * completionId is unique per session so the backend can drop redelivered records.
+ */
+public class SessionCompletionDTO {
+
+    private String completionId;
+    private Long chargerId;
+    private Double totalEnergy;
+    private Long durationSeconds;
+
+    public SessionCompletionDTO() {
+    }
+
+    public SessionCompletionDTO(String completionId, Long chargerId, Double totalEnergy, Long durationSeconds) {
+        this.completionId = completionId;
+        this.chargerId = chargerId;
+        this.totalEnergy = totalEnergy;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public String getCompletionId() { return completionId; }
+    public void setCompletionId(String completionId) { this.completionId = completionId; }
+    public Long getChargerId() { return chargerId; }
+    public void setChargerId(Long chargerId) { this.chargerId = chargerId; }
+    public Double getTotalEnergy() { return totalEnergy; }
+    public void setTotalEnergy(Double totalEnergy) { this.totalEnergy = totalEnergy; }
+    public Long getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(Long durationSeconds) { this.durationSeconds = durationSeconds; }
+}
@@ -0,0 +1,204 @@
+package com.karocharge.cms.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Live energy counters for every active charging session.
+ *
+ * Sessions are spread over power-of-two shards by charger ID. Each shard keeps its sessions
+ * densely packed in parallel primitive arrays (id / energy / rate / start), so a tick is a
+ * straight loop over doubles: no boxing, no map writes, no allocation per charger.
+ * Above PARALLEL_THRESHOLD active sessions the shards are ticked in parallel; the fork/join
+ * tasks are created once and re-initialised every tick, so ticks stay allocation-free.
+ */
+public class EnergyCounterEngine implements AutoCloseable {
+
+    // Below this many sessions one thread is faster than a fork/join round trip
+    static final int PARALLEL_THRESHOLD = 8_192;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final ForkJoinPool tickPool;
+    private final ShardTick[] shardTicks;
+    private final RecursiveAction tickAll;
+    private volatile double tickSeconds;
+
+    public EnergyCounterEngine(int shardCount, int initialCapacity) {
+        int count = Integer.highestOneBit(Math.max(1, shardCount));
+        this.shards = new Shard[count];
+        this.shardTicks = new ShardTick[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(Math.max(16, initialCapacity / count));
+            shardTicks[i] = new ShardTick(shards[i]);
+        }
+        this.shardMask = count - 1;
+        this.tickPool = new ForkJoinPool(count);
+        this.tickAll = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(shardTicks);
+            }
+        };
+    }
+
+    /**
+     * Starts a counter at 0 kWh. Returns false (and leaves the running counter untouched)
+     * if the charger already has an active session.
+     */
+    public boolean start(long chargerId, double powerKw, long startMillis) {
+        return shardOf(chargerId).start(chargerId, powerKw / 3600.0, startMillis, 0.0);
+    }
+
+    /**
+     * Restores a session with energy already delivered (used when replaying after a restart).
+     */
+    public boolean restore(long chargerId, double powerKw, long startMillis, double energyKwh) {
+        return shardOf(chargerId).start(chargerId, powerKw / 3600.0, startMillis, energyKwh);
+    }
+
+    /**
+     * Removes the session and returns its final values, or null if none was active.
+     */
+    public Session stop(long chargerId) {
+        return shardOf(chargerId).stop(chargerId);
+    }
+
+    public boolean isActive(long chargerId) {
+        return shardOf(chargerId).isActive(chargerId);
+    }
+
+    public int activeCount() {
+        int total = 0;
+        for (Shard shard : shards) total += shard.size;
+        return total;
+    }
+
+    /**
+     * Advances every active counter by rate * seconds.
+     */
+    public void tick(double seconds) {
+        if (activeCount() < PARALLEL_THRESHOLD) {
+            for (Shard shard : shards) shard.tick(seconds);
+            return;
+        }
+        tickSeconds = seconds;
+        for (ShardTick task : shardTicks) task.reinitialize();
+        tickAll.reinitialize();
+        tickPool.invoke(tickAll);
+    }
+
+    /**
+     * Visits every active session under its shard lock. The visitor must not call back into the engine.
+     */
+    public void forEachActive(SessionVisitor visitor) {
+        for (Shard shard : shards) shard.forEach(visitor);
+    }
+
+    @Override
+    public void close() {
+        tickPool.shutdown();
+    }
+
+    private Shard shardOf(long chargerId) {
+        long h = chargerId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 40) & shardMask];
+    }
+
+    @FunctionalInterface
+    public interface SessionVisitor {
+        void visit(long chargerId, double energyKwh, double powerKw, long startMillis);
+    }
+
+    public record Session(long chargerId, double energyKwh, double powerKw, long startMillis) {
+    }
+
+    private final class ShardTick extends RecursiveAction {
+        private final Shard shard;
+
+        ShardTick(Shard shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        protected void compute() {
+            shard.tick(tickSeconds);
+        }
+    }
+
+    private static final class Shard {
+        private final LongIntMap slots;
+        private long[] ids;
+        private double[] energy;
+        private double[] kwhPerSecond;
+        private long[] startMillis;
+        private int size;
+
+        Shard(int capacity) {
+            slots = new LongIntMap(capacity);
+            ids = new long[capacity];
+            energy = new double[capacity];
+            kwhPerSecond = new double[capacity];
+            startMillis = new long[capacity];
+        }
+
+        synchronized boolean start(long chargerId, double rate, long start, double initialEnergy) {
+            if (slots.get(chargerId) != LongIntMap.MISSING) return false;
+            if (size == ids.length) grow();
+
+            int slot = size++;
+            ids[slot] = chargerId;
+            energy[slot] = initialEnergy;
+            kwhPerSecond[slot] = rate;
+            startMillis[slot] = start;
+            slots.put(chargerId, slot);
+            return true;
+        }
+
+        synchronized Session stop(long chargerId) {
+            int slot = slots.remove(chargerId);
+            if (slot == LongIntMap.MISSING) return null;
+
+            Session session = new Session(chargerId, energy[slot], kwhPerSecond[slot] * 3600.0, startMillis[slot]);
+
+            // Keep the arrays dense: move the last session into the freed slot
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                energy[slot] = energy[last];
+                kwhPerSecond[slot] = kwhPerSecond[last];
+                startMillis[slot] = startMillis[last];
+                slots.put(ids[slot], slot);
+            }
+            return session;
+        }
+
+        synchronized boolean isActive(long chargerId) {
+            return slots.get(chargerId) != LongIntMap.MISSING;
+        }
+
+        synchronized void tick(double seconds) {
+            double[] e = energy;
+            double[] r = kwhPerSecond;
+            for (int i = 0, n = size; i < n; i++) {
+                e[i] += r[i] * seconds;
+            }
+        }
+
+        synchronized void forEach(SessionVisitor visitor) {
+            for (int i = 0; i < size; i++) {
+                visitor.visit(ids[i], energy[i], kwhPerSecond[i] * 3600.0, startMillis[i]);
+            }
+        }
+
+        private void grow() {
+            int capacity = ids.length << 1;
+            ids = Arrays.copyOf(ids, capacity);
+            energy = Arrays.copyOf(energy, capacity);
+            kwhPerSecond = Arrays.copyOf(kwhPerSecond, capacity);
+            startMillis = Arrays.copyOf(startMillis, capacity);
+        }
+    }
+}
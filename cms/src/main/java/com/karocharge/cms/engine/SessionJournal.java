@@ -0,0 +1,190 @@
+package com.karocharge.cms.engine;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only, memory-mapped journal of charging sessions, so a CMS restart does not lose
+ * the energy and duration of sessions that were in progress.
+ *
+ * Record layout (40 bytes): type | chargerId | startMillis | energyKwh | powerKw.
+ * START and STOP are written as sessions begin and end; CHECKPOINT records the live energy
+ * of every active session every few ticks. The type byte is written last, so a record cut
+ * short by a crash reads as the end of the journal.
+ *
+ * When the file passes COMPACT_AT of its capacity it is rewritten with one START record per
+ * live session (carrying the current energy) and atomically swapped in.
+ *
+ * Lock order is always journal -> engine shard; never call into the journal while holding
+ * a shard lock.
+ */
+public class SessionJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 40;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x4B434A31; // "KCJ1"
+    private static final double COMPACT_AT = 0.75;
+
+    private static final byte START = 1;
+    private static final byte CHECKPOINT = 2;
+    private static final byte STOP = 3;
+
+    private final Path file;
+    private final long capacity;
+    private final EnergyCounterEngine engine;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    public SessionJournal(Path file, long capacityBytes, EnergyCounterEngine engine) throws IOException {
+        this.file = file;
+        this.capacity = Math.min(Integer.MAX_VALUE, capacityBytes);
+        this.engine = engine;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        open();
+    }
+
+    /**
+     * Rebuilds the engine from the journal, then compacts so only live sessions remain on disk.
+     * Returns the number of sessions restored.
+     */
+    public synchronized int replayInto() throws IOException {
+        Map<Long, Replayed> live = new HashMap<>();
+
+        for (int p = HEADER_SIZE; p + RECORD_SIZE <= capacity; p += RECORD_SIZE) {
+            byte type = buffer.get(p);
+            if (type == 0) break;
+
+            long chargerId = buffer.getLong(p + 8);
+            switch (type) {
+                case START, CHECKPOINT -> live.put(chargerId, new Replayed(
+                        buffer.getLong(p + 16), buffer.getDouble(p + 24), buffer.getDouble(p + 32)));
+                case STOP -> live.remove(chargerId);
+                default -> { /* unknown record type: skip */ }
+            }
+        }
+
+        live.forEach((chargerId, r) -> engine.restore(chargerId, r.powerKw(), r.startMillis(), r.energyKwh()));
+        compact();
+        return live.size();
+    }
+
+    public synchronized void appendStart(long chargerId, double powerKw, long startMillis) throws IOException {
+        ensureSpace(1);
+        write(START, chargerId, startMillis, 0.0, powerKw);
+    }
+
+    public synchronized void appendStop(long chargerId) throws IOException {
+        ensureSpace(1);
+        write(STOP, chargerId, 0L, 0.0, 0.0);
+    }
+
+    /**
+     * Records the current energy of every active session.
+     */
+    public synchronized void checkpoint() throws IOException {
+        ensureSpace(engine.activeCount());
+        engine.forEachActive((chargerId, energyKwh, powerKw, startMillis) -> {
+            if (position + RECORD_SIZE <= capacity) {
+                write(CHECKPOINT, chargerId, startMillis, energyKwh, powerKw);
+            }
+        });
+        if (position > capacity * COMPACT_AT) {
+            compact();
+        }
+    }
+
+    /**
+     * Flushes dirty pages to disk (survives power loss, not just a process crash).
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Rewrites the journal as one START record per live session and swaps it in atomically.
+     */
+    public synchronized void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer compacted = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            compacted.order(ByteOrder.LITTLE_ENDIAN);
+            compacted.putInt(0, MAGIC);
+            int[] p = {HEADER_SIZE};
+            engine.forEachActive((chargerId, energyKwh, powerKw, startMillis) -> {
+                if (p[0] + RECORD_SIZE > capacity) {
+                    throw new IllegalStateException("Journal capacity too small for live sessions");
+                }
+                writeRecord(compacted, p[0], START, chargerId, startMillis, energyKwh, powerKw);
+                p[0] += RECORD_SIZE;
+            });
+            compacted.force();
+        }
+
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    public synchronized int usedBytes() {
+        return position;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+        }
+        position = HEADER_SIZE;
+        while (position + RECORD_SIZE <= capacity && buffer.get(position) != 0) {
+            position += RECORD_SIZE;
+        }
+    }
+
+    private void ensureSpace(int records) throws IOException {
+        if (position + (long) records * RECORD_SIZE > capacity) {
+            compact();
+        }
+        if (position + (long) records * RECORD_SIZE > capacity) {
+            throw new IOException("Session journal full: raise karocharge.journal.capacity-mb");
+        }
+    }
+
+    private void write(byte type, long chargerId, long startMillis, double energyKwh, double powerKw) {
+        writeRecord(buffer, position, type, chargerId, startMillis, energyKwh, powerKw);
+        position += RECORD_SIZE;
+    }
+
+    private record Replayed(long startMillis, double energyKwh, double powerKw) {
+    }
+
+    private static void writeRecord(MappedByteBuffer target, int p, byte type, long chargerId,
+                                     long startMillis, double energyKwh, double powerKw) {
+        target.putLong(p + 8, chargerId);
+        target.putLong(p + 16, startMillis);
+        target.putDouble(p + 24, energyKwh);
+        target.putDouble(p + 32, powerKw);
+        target.put(p, type); // commit marker, written last
+    }
+}
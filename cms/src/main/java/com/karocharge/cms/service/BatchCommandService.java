@@ -0,0 +1,86 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.BatchCommandDTO;
+import com.karocharge.cms.dto.BatchResultDTO;
+import com.karocharge.cms.dto.CmsRequestDTO;
+import com.karocharge.cms.dto.CmsResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Applies many block / unblock / stop commands in one request.
+ * Commands run in parallel on virtual threads; a semaphore caps how many are in flight so a
+ * fleet-wide batch does not exhaust the backend callback connection pool.
+ * Closing waits for the commands already running, so a shutdown does not cut a batch short.
+ */
+@Service
+public class BatchCommandService implements AutoCloseable {
+
+    private final CmsService cmsService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+
+    public BatchCommandService(CmsService cmsService,
+                               @Value("${karocharge.batch.parallelism:32}") int parallelism) {
+        this.cmsService = cmsService;
+        this.inFlight = new Semaphore(parallelism);
+    }
+
+    public List<BatchResultDTO> execute(List<BatchCommandDTO> commands) {
+        List<CompletableFuture<BatchResultDTO>> futures = new ArrayList<>(commands.size());
+        for (BatchCommandDTO command : commands) {
+            futures.add(CompletableFuture.supplyAsync(() -> executeOne(command), executor));
+        }
+
+        // Results come back in the same order as the commands
+        List<BatchResultDTO> results = new ArrayList<>(commands.size());
+        for (CompletableFuture<BatchResultDTO> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private BatchResultDTO executeOne(BatchCommandDTO command) {
+        Long chargerId = command.getChargerId();
+        String operation = command.getOperation() == null ? "" : command.getOperation().toUpperCase();
+        if (chargerId == null) {
+            return new BatchResultDTO(null, operation, "FAIL", "chargerId is required");
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new BatchResultDTO(chargerId, operation, "FAIL", "Interrupted");
+        }
+
+        try {
+            CmsRequestDTO request = new CmsRequestDTO();
+            request.setChargerId(chargerId);
+
+            CmsResponseDTO response = switch (operation) {
+                case "BLOCK" -> cmsService.blockCharger(request);
+                case "UNBLOCK" -> cmsService.unblockCharger(request);
+                case "STOP" -> cmsService.stopChargingSession(chargerId);
+                default -> new CmsResponseDTO("FAIL", "Unknown operation: " + command.getOperation());
+            };
+            return new BatchResultDTO(chargerId, operation, response.getStatus(), response.getMessage());
+        } catch (Exception e) {
+            return new BatchResultDTO(chargerId, operation, "FAIL", e.getMessage());
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
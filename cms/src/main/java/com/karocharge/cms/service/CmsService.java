@@ -2,94 +2,248 @@ package com.karocharge.cms.service;
 
 import com.karocharge.cms.dto.CmsRequestDTO;
 import com.karocharge.cms.dto.CmsResponseDTO;
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CmsService {
 
-    private final RestTemplate restTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(CmsService.class);
 
-    // Tracks ChargerID -> Current Energy (kWh)
-    private final Map<Long, Double> energyCounters = new ConcurrentHashMap<>();
-    // Tracks ChargerID -> Session Start Timestamp
-    private final Map<Long, Long> startTimestamps = new ConcurrentHashMap<>();
+    // A failing checkpoint would otherwise be reported every few ticks
+    private final LogThrottle throttle = new LogThrottle(Duration.ofSeconds(30));
 
-    private final String BACKEND_URL = "http://localhost:8080/api/chargers/";
-    private final String BACKEND_BOOKING_URL = "http://localhost:8080/api/bookings/complete";
+    private final RestTemplate restTemplate;
 
-    public CmsService(RestTemplate restTemplate) {
+    // Tracks ChargerID -> Current Energy (kWh), Power rate and Session Start Timestamp
+    private final EnergyCounterEngine energyCounters;
+    private final double defaultPowerKw;
+
+    // Crash-safe copy of the counters: start/stop as they happen, energy every N ticks
+    private final SessionJournal journal;
+    private final int checkpointEveryTicks;
+    private long ticks;
+    // STOP records that could not be journaled yet (their completion is already queued):
+    // written before the next checkpoint or START, so a restart does not revive the session
+    private final ArrayDeque<Long> pendingStops = new ArrayDeque<>();
+
+    // Durable queue for final session totals (delivered to the backend asynchronously)
+    private final CompletionOutbox completionOutbox;
+
+    private final String BACKEND_URL;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer tickTimer;
+    private final Timer checkpointTickTimer;
+    private final Counter sessionsStarted;
+    private final Counter sessionsStopped;
+
+    // No line per charger per tick: one INFO summary every N ticks, and at DEBUG a rotating
+    // 1-in-M sample of the live counters along with it
+    private final int summaryEveryTicks;
+    private final int sampleEvery;
+    private long windowTickNanos;
+    private long windowMaxTickNanos;
+
+    public CmsService(RestTemplate restTemplate,
+                      EnergyCounterEngine energyCounters,
+                      SessionJournal journal,
+                      CompletionOutbox completionOutbox,
+                      MeterRegistry meterRegistry,
+                      @Value("${karocharge.backend.base-url}") String backendBaseUrl,
+                      @Value("${karocharge.energy.default-power-kw:36}") double defaultPowerKw,
+                      @Value("${karocharge.journal.checkpoint-every-ticks:5}") int checkpointEveryTicks,
+                      @Value("${karocharge.logging.tick-summary-every-ticks:60}") int summaryEveryTicks,
+                      @Value("${karocharge.logging.tick-sample-every:100}") int sampleEvery) {
+        if (checkpointEveryTicks <= 0) throw new IllegalArgumentException("checkpoint-every-ticks must be positive");
+        if (summaryEveryTicks <= 0) throw new IllegalArgumentException("tick-summary-every-ticks must be positive");
+        if (sampleEvery <= 0) throw new IllegalArgumentException("tick-sample-every must be positive");
         this.restTemplate = restTemplate;
+        this.energyCounters = energyCounters;
+        this.journal = journal;
+        this.completionOutbox = completionOutbox;
+        this.defaultPowerKw = defaultPowerKw;
+        this.checkpointEveryTicks = checkpointEveryTicks;
+        this.summaryEveryTicks = summaryEveryTicks;
+        this.sampleEvery = sampleEvery;
+        this.BACKEND_URL = backendBaseUrl + "/chargers/";
+
+        this.meterRegistry = meterRegistry;
+        this.tickTimer = meterRegistry.timer("karocharge.cms.tick", "checkpoint", "false");
+        this.checkpointTickTimer = meterRegistry.timer("karocharge.cms.tick", "checkpoint", "true");
+        this.sessionsStarted = meterRegistry.counter("karocharge.cms.sessions.started");
+        this.sessionsStopped = meterRegistry.counter("karocharge.cms.sessions.stopped");
     }
 
     // --- Energy Counter Background Task ---
+    // Timed as karocharge.cms.tick; ticks that also checkpoint the journal are tagged apart
     @Scheduled(fixedRate = 1000) // Runs every 1 second
     public void incrementEnergy() {
-        energyCounters.forEach((id, currentEnergy) -> {
-            double newEnergy = currentEnergy + 0.01;
-            energyCounters.put(id, newEnergy);
-            System.out.println("Charger " + id + " :: energy counter started :: Current Energy: " + String.format("%.2f", newEnergy) + " kWh");
+        long start = System.nanoTime();
+        energyCounters.tick(1.0);
+
+        boolean checkpoint = ++ticks % checkpointEveryTicks == 0;
+        if (checkpoint) {
+            try {
+                journalPendingStops();
+                journal.checkpoint();
+                journal.force();
+            } catch (IOException e) {
+                long suppressed = throttle.acquire("checkpoint");
+                if (suppressed >= 0) {
+                    logger.error("Session journal checkpoint failed ({} similar suppressed): {}", suppressed, e.getMessage());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        (checkpoint ? checkpointTickTimer : tickTimer).record(elapsed, TimeUnit.NANOSECONDS);
+
+        windowTickNanos += elapsed;
+        windowMaxTickNanos = Math.max(windowMaxTickNanos, elapsed);
+        if (ticks % summaryEveryTicks == 0) {
+            logTickSummary();
+            windowTickNanos = 0;
+            windowMaxTickNanos = 0;
+        }
+    }
+
+    private void logTickSummary() {
+        logger.info("Energy ticks: {} active sessions, last {} ticks avg {} us, max {} us",
+                energyCounters.activeCount(), summaryEveryTicks,
+                windowTickNanos / summaryEveryTicks / 1000, windowMaxTickNanos / 1000);
+        if (!logger.isDebugEnabled()) return;
+
+        // A different slice of the fleet every summary, so every charger shows up now and then
+        long slice = ticks / summaryEveryTicks;
+        energyCounters.forEachActive((chargerId, energyKwh, powerKw, startMillis) -> {
+            if (Math.floorMod(chargerId + slice, sampleEvery) == 0) {
+                logger.debug("Charger {}: {} kWh at {} kW", chargerId, energyKwh, powerKw);
+            }
         });
     }
 
     public CmsResponseDTO unblockCharger(CmsRequestDTO request) {
         try {
-            restTemplate.put(BACKEND_URL + request.getChargerId() + "/unblock", null);
-
-            // Initialize the counter for this charger
-            energyCounters.put(request.getChargerId(), 0.0);
-            startTimestamps.put(request.getChargerId(), System.currentTimeMillis());
-
-            System.out.println("Energy Counter STARTED for Charger " + request.getChargerId());
+            callBackend(request.getChargerId(), "unblock");
+
+            // Initialize the counter for this charger (an extend re-unblocks: keep the running counter)
+            double powerKw = request.getPowerKw() != null ? request.getPowerKw() : defaultPowerKw;
+            long now = System.currentTimeMillis();
+            synchronized (pendingStops) {
+                if (energyCounters.start(request.getChargerId(), powerKw, now)) {
+                    journalPendingStops();
+                    journal.appendStart(request.getChargerId(), powerKw, now);
+                    sessionsStarted.increment();
+                    logger.info("Energy counter started for charger {} at {} kW", request.getChargerId(), powerKw);
+                }
+            }
 
             return new CmsResponseDTO("SUCCESS", "Charger unblocked and energy counter started");
         } catch (Exception e) {
-            System.err.println("CMS to Backend Unblock Error: " + e.getMessage());
+            logger.warn("Unblock of charger {} not confirmed by the backend: {}", request.getChargerId(), e.getMessage());
             return new CmsResponseDTO("FAIL", "Error calling Backend: " + e.getMessage());
         }
     }
 
+    /**
+     * Stop: final values out of the engine -> completion into the outbox (durable) -> STOP in
+     * the journal. If the outbox cannot take the completion the session is put back as it
+     * was, so a later stop can deliver it. Once the completion is queued the stop has
+     * happened: a failed STOP append is retried before the next checkpoint or START.
+     *
+     * Runs under the pendingStops lock, like the start, so a restart of the same charger
+     * cannot journal its START between this stop and its STOP.
+     */
     public CmsResponseDTO stopChargingSession(Long chargerId) {
-        try {
-            if (!energyCounters.containsKey(chargerId)) {
+        synchronized (pendingStops) {
+            // 1. Capture final values and clear from CMS memory
+            EnergyCounterEngine.Session session = energyCounters.stop(chargerId);
+            if (session == null) {
                 return new CmsResponseDTO("FAIL", "No active session for this charger");
             }
 
-            // 1. Capture final values
-            double totalEnergy = energyCounters.get(chargerId);
-            long totalTimeSeconds = (System.currentTimeMillis() - startTimestamps.get(chargerId)) / 1000;
-
-            // 2. Clear from CMS memory
-            energyCounters.remove(chargerId);
-            startTimestamps.remove(chargerId);
-
-            System.out.println("Stopping Counter for Charger " + chargerId + ". Total Energy: " + totalEnergy + " kWh");
+            double totalEnergy = session.energyKwh();
+            long totalTimeSeconds = (System.currentTimeMillis() - session.startMillis()) / 1000;
 
-            // 3. Send final data to Karocharge Backend
-            Map<String, Object> finalStats = Map.of(
-                    "chargerId", chargerId,
-                    "totalEnergy", totalEnergy,
-                    "durationSeconds", totalTimeSeconds
-            );
-
-            restTemplate.postForEntity(BACKEND_BOOKING_URL, finalStats, String.class);
+            // 2. Queue final data for Karocharge Backend (durable; delivered with retry by the outbox)
+            try {
+                completionOutbox.enqueue(chargerId, totalEnergy, totalTimeSeconds);
+            } catch (Exception e) {
+                energyCounters.restore(chargerId, session.powerKw(), session.startMillis(), session.energyKwh());
+                logger.error("Completion for charger {} not queued, session kept: {}", chargerId, e.getMessage());
+                return new CmsResponseDTO("FAIL", "Error stopping session: " + e.getMessage());
+            }
+            logger.info("Energy counter stopped for charger {}: {} kWh", chargerId, totalEnergy);
+            sessionsStopped.increment();
+
+            // 3. The journal no longer needs to replay it
+            pendingStops.add(chargerId);
+            try {
+                journalPendingStops();
+            } catch (IOException e) {
+                logger.error("Session journal STOP for charger {} failed, retried with the next checkpoint: {}",
+                        chargerId, e.getMessage());
+            }
+            return new CmsResponseDTO("SUCCESS", "Session completed and data queued for backend");
+        }
+    }
 
-            return new CmsResponseDTO("SUCCESS", "Session completed and data sent to backend");
-        } catch (Exception e) {
-            return new CmsResponseDTO("FAIL", "Error stopping session: " + e.getMessage());
+    private void journalPendingStops() throws IOException {
+        synchronized (pendingStops) {
+            while (!pendingStops.isEmpty()) {
+                journal.appendStop(pendingStops.peek());
+                pendingStops.poll();
+            }
         }
     }
 
     public CmsResponseDTO blockCharger(CmsRequestDTO request) {
         try {
-            restTemplate.put(BACKEND_URL + request.getChargerId() + "/block", null);
+            callBackend(request.getChargerId(), "block");
             return new CmsResponseDTO("SUCCESS", "Charger blocked successfully");
         } catch (Exception e) {
             return new CmsResponseDTO("FAIL", "Error calling Backend: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * PUT callback to the backend, timed as karocharge.backend.requests by operation, outcome
+     * and status: 2xx, the HTTP error status, or the underlying exception's name if no
+     * response came back. Failures are rethrown for the caller to report.
+     */
+    private void callBackend(Long chargerId, String operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "2xx";
+        try {
+            restTemplate.put(BACKEND_URL + chargerId + "/" + operation, null);
+        } catch (RuntimeException e) {
+            status = e instanceof RestClientResponseException http
+                    ? String.valueOf(http.getStatusCode().value())
+                    : rootCause(e).getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("karocharge.backend.requests", "operation", operation,
+                    "outcome", "2xx".equals(status) ? "success" : "failure", "status", status));
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) e = e.getCause();
+        return e;
+    }
+}
@@ -0,0 +1,299 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.BatchResultDTO;
+import com.karocharge.cms.dto.SessionCompletionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable outbox for session completions (CMS -> backend /api/bookings/complete/batch).
+ *
+ * stopChargingSession only appends the totals here (fsync'd) and returns; a single delivery
+ * thread posts pending records to the backend in batches, retrying with exponential backoff
+ * until the backend acknowledges them. A backend outage therefore delays billing data but
+ * never loses it, and never blocks a CMS request thread.
+ *
+ * The backend answers every record on its own. APPLIED, DUPLICATE and NOT_FOUND are done
+ * and acknowledged; an ERROR record is moved to the back of the queue, so it cannot hold
+ * back the sessions behind it, and after maxAttempts tries (counted per run) it is parked
+ * in the dead-letter file for an operator instead.
+ *
+ * On disk: 'completion-outbox.log' holds fixed 48-byte records, 'completion-outbox.ack' the
+ * byte offset up to which records have been delivered. Both are truncated once everything
+ * has been delivered. 'completion-outbox.dead' gets one CSV line per parked record.
+ */
+@Service
+public class CompletionOutbox implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionOutbox.class);
+
+    private static final int RECORD_SIZE = 48;
+
+    private final RestTemplate restTemplate;
+    private final String batchUrl;
+    private final int batchSize;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+
+    private final Path logFile;
+    private final Path ackFile;
+    private final Path deadLetterFile;
+    private final FileChannel log;
+    private final Deque<SessionCompletionDTO> pending = new ArrayDeque<>();
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private long ackedOffset;
+
+    private final ScheduledExecutorService delivery = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "completion-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object deliveryLock = new Object();
+    private long backoffMs;
+    private long nextAttemptAt;
+
+    public CompletionOutbox(RestTemplate restTemplate,
+                            @Value("${karocharge.backend.base-url}") String backendBaseUrl,
+                            @Value("${karocharge.journal.dir:./data}") String dir,
+                            @Value("${karocharge.outbox.batch-size:200}") int batchSize,
+                            @Value("${karocharge.outbox.min-backoff-ms:500}") long minBackoffMs,
+                            @Value("${karocharge.outbox.max-backoff-ms:60000}") long maxBackoffMs,
+                            @Value("${karocharge.outbox.max-attempts:20}") int maxAttempts,
+                            @Value("${karocharge.outbox.poll-interval-ms:1000}") long pollIntervalMs) throws IOException {
+        this.restTemplate = restTemplate;
+        this.batchUrl = backendBaseUrl + "/bookings/complete/batch";
+        this.batchSize = batchSize;
+        this.minBackoffMs = minBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxAttempts = maxAttempts;
+
+        Files.createDirectories(Path.of(dir));
+        this.logFile = Path.of(dir, "completion-outbox.log");
+        this.ackFile = Path.of(dir, "completion-outbox.ack");
+        this.deadLetterFile = Path.of(dir, "completion-outbox.dead");
+        this.log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+
+        delivery.scheduleWithFixedDelay(this::deliver, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Durably queues the totals of a finished session and nudges the delivery thread.
+     */
+    public void enqueue(long chargerId, double totalEnergy, long durationSeconds) throws IOException {
+        SessionCompletionDTO completion =
+                new SessionCompletionDTO(UUID.randomUUID().toString(), chargerId, totalEnergy, durationSeconds);
+        synchronized (this) {
+            append(completion);
+            log.force(false);
+            pending.addLast(completion);
+        }
+        delivery.execute(this::deliver);
+    }
+
+    private void append(SessionCompletionDTO completion) throws IOException {
+        UUID id = UUID.fromString(completion.getCompletionId());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(completion.getChargerId())
+                .putDouble(completion.getTotalEnergy())
+                .putLong(completion.getDurationSeconds())
+                .putLong(System.currentTimeMillis())
+                .flip();
+        long position = log.size();
+        while (record.hasRemaining()) log.write(record, position + record.position());
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Sends pending records in batches of up to batchSize until the queue is empty or the
+     * backend fails. Normally runs on the delivery thread; deliveryLock keeps a batch from
+     * being sent and acknowledged twice if it is invoked from elsewhere.
+     */
+    void deliver() {
+        synchronized (deliveryLock) {
+            deliverPending();
+        }
+    }
+
+    private void deliverPending() {
+        while (true) {
+            List<SessionCompletionDTO> batch;
+            synchronized (this) {
+                if (pending.isEmpty() || System.currentTimeMillis() < nextAttemptAt) return;
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                for (SessionCompletionDTO record : pending) {
+                    if (batch.size() == batchSize) break;
+                    batch.add(record);
+                }
+            }
+
+            List<SessionCompletionDTO> failed;
+            try {
+                ResponseEntity<BatchResultDTO[]> response = restTemplate.postForEntity(batchUrl, batch, BatchResultDTO[].class);
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new IllegalStateException("Backend answered " + response.getStatusCode());
+                }
+                failed = failedRecords(batch, response.getBody());
+                acknowledge(batch.size(), failed);
+            } catch (Exception e) {
+                backOff(e.getMessage());
+                return;
+            }
+            // Nothing in this batch went through: give the backend a moment before the retries
+            if (failed.size() == batch.size()) {
+                backOff(failed.size() + " record(s) failed on the backend");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the backend did not settle: ERROR, or missing from its answer.
+     */
+    private static List<SessionCompletionDTO> failedRecords(List<SessionCompletionDTO> batch, BatchResultDTO[] results) {
+        Map<String, String> statusById = new HashMap<>();
+        if (results != null) {
+            for (BatchResultDTO result : results) statusById.put(result.getMessage(), result.getStatus());
+        }
+        List<SessionCompletionDTO> failed = new ArrayList<>();
+        for (SessionCompletionDTO record : batch) {
+            String status = statusById.get(record.getCompletionId());
+            if (status == null || "ERROR".equals(status)) {
+                failed.add(record);
+            } else if ("NOT_FOUND".equals(status)) {
+                logger.warn("Completion {} for charger {}: no open session on the backend, dropped",
+                        record.getCompletionId(), record.getChargerId());
+            }
+        }
+        return failed;
+    }
+
+    private synchronized void backOff(String reason) {
+        backoffMs = backoffMs == 0 ? minBackoffMs : Math.min(maxBackoffMs, backoffMs * 2);
+        long jitter = ThreadLocalRandom.current().nextLong(backoffMs / 4 + 1);
+        nextAttemptAt = System.currentTimeMillis() + backoffMs + jitter;
+        logger.warn("Completion delivery failed ({} pending, retry in {} ms): {}",
+                pending.size(), backoffMs, reason);
+    }
+
+    /**
+     * Takes the first 'delivered' records off the queue. The failed ones among them are
+     * written again at the end of the log (or to the dead-letter file once out of attempts)
+     * before the ack offset moves past them, so a crash in between only redelivers.
+     */
+    private synchronized void acknowledge(int delivered, List<SessionCompletionDTO> failed) throws IOException {
+        List<SessionCompletionDTO> retries = new ArrayList<>(failed.size());
+        for (SessionCompletionDTO record : failed) {
+            int attempts = failedAttempts.merge(record.getCompletionId(), 1, Integer::sum);
+            if (attempts < maxAttempts) {
+                retries.add(record);
+            } else {
+                deadLetter(record, attempts);
+                failedAttempts.remove(record.getCompletionId());
+            }
+        }
+        for (SessionCompletionDTO record : retries) append(record);
+        if (!retries.isEmpty()) log.force(false);
+
+        for (int i = 0; i < delivered; i++) {
+            SessionCompletionDTO record = pending.removeFirst();
+            if (!failed.contains(record)) failedAttempts.remove(record.getCompletionId());
+        }
+        pending.addAll(retries);
+        if (failed.size() < delivered) {
+            backoffMs = 0;
+            nextAttemptAt = 0;
+        }
+
+        if (pending.isEmpty()) {
+            // Everything delivered: start both files from scratch. Offset first, so a crash
+            // in between only causes a (harmless, idempotent) redelivery.
+            ackedOffset = 0;
+            writeAckOffset();
+            log.truncate(0);
+            log.force(true);
+        } else {
+            ackedOffset += (long) delivered * RECORD_SIZE;
+            writeAckOffset();
+        }
+    }
+
+    private void deadLetter(SessionCompletionDTO record, int attempts) throws IOException {
+        String line = record.getCompletionId() + "," + record.getChargerId() + "," + record.getTotalEnergy()
+                + "," + record.getDurationSeconds() + "," + attempts + "," + System.currentTimeMillis() + "\n";
+        try (FileChannel dead = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            dead.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            dead.force(false);
+        }
+        logger.error("Completion {} for charger {} failed {} times, parked in {}",
+                record.getCompletionId(), record.getChargerId(), attempts, deadLetterFile);
+    }
+
+    private void recover() throws IOException {
+        ackedOffset = Files.exists(ackFile) && Files.size(ackFile) == Long.BYTES
+                ? ByteBuffer.wrap(Files.readAllBytes(ackFile)).getLong()
+                : 0L;
+
+        long end = log.size() - log.size() % RECORD_SIZE; // ignore a torn tail record
+        if (ackedOffset > end) {
+            ackedOffset = end;
+            writeAckOffset();
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (long p = ackedOffset; p + RECORD_SIZE <= end; p += RECORD_SIZE) {
+            record.clear();
+            log.read(record, p);
+            record.flip();
+            UUID id = new UUID(record.getLong(), record.getLong());
+            pending.addLast(new SessionCompletionDTO(id.toString(), record.getLong(), record.getDouble(), record.getLong()));
+        }
+        if (end != log.size()) log.truncate(end);
+
+        if (!pending.isEmpty()) {
+            logger.info("Completion outbox: {} undelivered session(s) recovered", pending.size());
+        }
+    }
+
+    private void writeAckOffset() throws IOException {
+        Path tmp = ackFile.resolveSibling(ackFile.getFileName() + ".tmp");
+        Files.write(tmp, ByteBuffer.allocate(Long.BYTES).putLong(ackedOffset).array());
+        Files.move(tmp, ackFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delivery.shutdownNow();
+        log.close();
+    }
+}
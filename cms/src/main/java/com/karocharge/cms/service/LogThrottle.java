@@ -0,0 +1,56 @@
+package com.karocharge.cms.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit for log lines that can repeat every tick (backend down, disk full): per key, one
+ * line is let through per interval and the rest are only counted, so the next line that gets
+ * through can say how many were dropped in between.
+ *
+ * Keys are meant to be a small fixed set (one per call site), not per charger.
+ */
+public class LogThrottle {
+
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LogThrottle(Duration interval) {
+        this(interval, System::nanoTime);
+    }
+
+    LogThrottle(Duration interval, LongSupplier nanoClock) {
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns how many lines for this key were suppressed since the last one let through,
+     * or -1 if this one is to be suppressed as well.
+     */
+    public long acquire(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window(nanoClock.getAsLong() - intervalNanos));
+        synchronized (window) {
+            long now = nanoClock.getAsLong();
+            if (now - window.openedAt < intervalNanos) {
+                window.suppressed++;
+                return -1;
+            }
+            long suppressed = window.suppressed;
+            window.openedAt = now;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    private static final class Window {
+        long openedAt;
+        long suppressed;
+
+        Window(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
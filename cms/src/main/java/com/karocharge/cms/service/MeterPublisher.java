@@ -0,0 +1,180 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.MeterBatchDTO;
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams live meter values of all active chargers to the backend (/api/meter-values),
+ * one batched frame per interval.
+ *
+ * Readings are whole Wh. Frames are deltas against the last frame the backend acknowledged,
+ * so unchanged chargers cost nothing and a failed send is simply folded into the next one.
+ * A keyframe (absolute values) is sent on startup, every 'keyframe-every' intervals, and
+ * whenever the backend answers 409 because it lost track of our base frame.
+ * Runs on its own thread so a slow backend never delays the energy tick.
+ */
+@Component
+public class MeterPublisher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterPublisher.class);
+
+    // While the backend is down every frame fails: report that once per interval
+    private final LogThrottle throttle = new LogThrottle(Duration.ofSeconds(30));
+
+    private final RestTemplate restTemplate;
+    private final EnergyCounterEngine energyCounters;
+    private final String meterUrl;
+    private final int keyframeEvery;
+
+    private final long epoch = System.currentTimeMillis();
+    private Map<Long, Long> acked = new HashMap<>(); // Readings the backend holds right now
+    private long ackedSequence;
+    private long nextSequence = 1;
+    private boolean needKeyframe = true;
+    private int intervalsSinceKeyframe;
+
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "meter-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MeterPublisher(RestTemplate restTemplate,
+                          EnergyCounterEngine energyCounters,
+                          @Value("${karocharge.backend.base-url}") String backendBaseUrl,
+                          @Value("${karocharge.meter.interval-ms:1000}") long intervalMs,
+                          @Value("${karocharge.meter.keyframe-every:30}") int keyframeEvery) {
+        this.restTemplate = restTemplate;
+        this.energyCounters = energyCounters;
+        this.meterUrl = backendBaseUrl + "/meter-values";
+        this.keyframeEvery = keyframeEvery;
+
+        if (intervalMs > 0) {
+            publisher.scheduleWithFixedDelay(this::publish, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Builds and sends one frame. Runs on the publisher thread only.
+     */
+    void publish() {
+        Readings now = snapshot();
+        boolean keyframe = needKeyframe || ++intervalsSinceKeyframe >= keyframeEvery;
+        MeterBatchDTO frame = keyframe ? keyframe(now) : delta(now);
+        if (frame == null) return; // nothing changed since the last acknowledged frame
+        frame.setSampledAtMillis(now.sampledAtMillis);
+
+        try {
+            restTemplate.postForEntity(meterUrl, frame, String.class);
+            acked = now.toMap();
+            ackedSequence = frame.getSequence();
+            if (keyframe) {
+                needKeyframe = false;
+                intervalsSinceKeyframe = 0;
+            }
+        } catch (HttpClientErrorException.Conflict e) {
+            needKeyframe = true;
+        } catch (Exception e) {
+            // Backend unreachable: the next delta is still taken against 'acked', nothing is lost
+            long suppressed = throttle.acquire("frame");
+            if (suppressed >= 0) {
+                logger.warn("Meter frame {} not delivered ({} similar suppressed): {}", frame.getSequence(), suppressed, e.getMessage());
+            }
+        }
+    }
+
+    MeterBatchDTO keyframe(Readings now) {
+        MeterBatchDTO frame = newFrame(true);
+        frame.setChargerIds(Arrays.copyOf(now.ids, now.size));
+        frame.setEnergyWh(Arrays.copyOf(now.wh, now.size));
+        frame.setRemovedChargerIds(new long[0]);
+        return frame;
+    }
+
+    MeterBatchDTO delta(Readings now) {
+        long[] ids = new long[now.size];
+        long[] deltas = new long[now.size];
+        int changed = 0;
+        Map<Long, Long> gone = new HashMap<>(acked);
+        for (int i = 0; i < now.size; i++) {
+            Long previous = gone.remove(now.ids[i]);
+            long delta = now.wh[i] - (previous != null ? previous : 0L);
+            if (delta != 0 || previous == null) {
+                ids[changed] = now.ids[i];
+                deltas[changed] = delta;
+                changed++;
+            }
+        }
+        if (changed == 0 && gone.isEmpty()) return null;
+
+        MeterBatchDTO frame = newFrame(false);
+        frame.setChargerIds(Arrays.copyOf(ids, changed));
+        frame.setEnergyWh(Arrays.copyOf(deltas, changed));
+        frame.setRemovedChargerIds(gone.keySet().stream().mapToLong(Long::longValue).toArray());
+        return frame;
+    }
+
+    private MeterBatchDTO newFrame(boolean keyframe) {
+        MeterBatchDTO frame = new MeterBatchDTO();
+        frame.setEpoch(epoch);
+        frame.setSequence(nextSequence++);
+        frame.setBaseSequence(keyframe ? 0 : ackedSequence);
+        frame.setKeyframe(keyframe);
+        return frame;
+    }
+
+    private Readings snapshot() {
+        Readings readings = new Readings(Math.max(16, energyCounters.activeCount()));
+        energyCounters.forEachActive((chargerId, energyKwh, powerKw, startMillis) ->
+                readings.add(chargerId, Math.round(energyKwh * 1000)));
+        return readings;
+    }
+
+    @Override
+    public void close() {
+        publisher.shutdownNow();
+    }
+
+    /** Growable columnar buffer for one snapshot of the counters. */
+    static final class Readings {
+        final long sampledAtMillis = System.currentTimeMillis();
+        long[] ids;
+        long[] wh;
+        int size;
+
+        Readings(int capacity) {
+            ids = new long[capacity];
+            wh = new long[capacity];
+        }
+
+        void add(long chargerId, long energyWh) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                wh = Arrays.copyOf(wh, size * 2);
+            }
+            ids[size] = chargerId;
+            wh[size] = energyWh;
+            size++;
+        }
+
+        Map<Long, Long> toMap() {
+            Map<Long, Long> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) map.put(ids[i], wh[i]);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.karocharge.cms.config;
+
+import com.karocharge.cms.config.CircuitBreakerInterceptor.CircuitOpenException;
+import com.karocharge.cms.config.CircuitBreakerInterceptor.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * State transitions of the breaker: CLOSED -> OPEN -> HALF_OPEN -> CLOSED or back to OPEN.
+ */
+class CircuitBreakerInterceptorTest {
+
+    private static final URI CMS = URI.create("http://cms.local/api/cms/chargers/1/block");
+    private static final Duration OPEN_WINDOW = Duration.ofMillis(100);
+
+    private final CircuitBreakerInterceptor breaker = new CircuitBreakerInterceptor(3, OPEN_WINDOW);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> call(CMS, ioFailure())).isInstanceOf(IOException.class);
+        }
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.OPEN);
+
+        assertThatThrownBy(() -> call(CMS, ok())).isInstanceOf(CircuitOpenException.class);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void serverErrorsCountAsFailures() throws IOException {
+        for (int i = 0; i < 3; i++) call(CMS, status(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.OPEN);
+    }
+
+    @Test
+    void successfulTrialClosesTheRoute() throws Exception {
+        open();
+        Thread.sleep(OPEN_WINDOW.toMillis() + 20);
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.HALF_OPEN);
+
+        call(CMS, ok());
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.CLOSED);
+        call(CMS, ok());
+    }
+
+    @Test
+    void failedTrialOpensTheRouteAgain() throws Exception {
+        open();
+        Thread.sleep(OPEN_WINDOW.toMillis() + 20);
+
+        assertThatThrownBy(() -> call(CMS, ioFailure())).isInstanceOf(IOException.class)
+                .isNotInstanceOf(CircuitOpenException.class);
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.OPEN);
+        assertThatThrownBy(() -> call(CMS, ok())).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void runtimeExceptionInTheTrialFreesTheTrialSlot() throws Exception {
+        open();
+        Thread.sleep(OPEN_WINDOW.toMillis() + 20);
+
+        assertThatThrownBy(() -> call(CMS, (request, body) -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // The next caller gets to probe, instead of the route being stuck half-open
+        call(CMS, ok());
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.CLOSED);
+    }
+
+    @Test
+    void routesWithoutAnExplicitPortUseTheSchemeDefault() {
+        assertThat(CircuitBreakerInterceptor.routeOf(URI.create("http://cms.local/x"))).isEqualTo("cms.local:80");
+        assertThat(CircuitBreakerInterceptor.routeOf(URI.create("https://cms.local/x"))).isEqualTo("cms.local:443");
+        assertThat(CircuitBreakerInterceptor.routeOf(URI.create("http://cms.local:9090/x"))).isEqualTo("cms.local:9090");
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> call(CMS, ioFailure())).isInstanceOf(IOException.class);
+        }
+        assertThat(breaker.getStates()).containsEntry("cms.local:80", State.OPEN);
+    }
+
+    private void call(URI uri, ClientHttpRequestExecution execution) throws IOException {
+        breaker.intercept(new MockClientHttpRequest(HttpMethod.POST, uri), new byte[0], execution);
+    }
+
+    private ClientHttpRequestExecution ok() {
+        return status(HttpStatus.OK);
+    }
+
+    private ClientHttpRequestExecution status(HttpStatus status) {
+        return (request, body) -> {
+            calls.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], status);
+        };
+    }
+
+    private ClientHttpRequestExecution ioFailure() {
+        return (request, body) -> {
+            calls.incrementAndGet();
+            throw new IOException("connection refused");
+        };
+    }
+}
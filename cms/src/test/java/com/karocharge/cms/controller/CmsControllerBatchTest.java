@@ -0,0 +1,58 @@
+package com.karocharge.cms.controller;
+
+import com.karocharge.cms.dto.CmsResponseDTO;
+import com.karocharge.cms.service.BatchCommandService;
+import com.karocharge.cms.service.CmsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/cms/chargers/batch: one result per command, in command order, failures inline.
+ */
+@WebMvcTest(CmsController.class)
+@Import(BatchCommandService.class)
+class CmsControllerBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CmsService cmsService;
+
+    @Test
+    void answersEveryCommandInOrder() throws Exception {
+        when(cmsService.blockCharger(any())).thenReturn(new CmsResponseDTO("SUCCESS", "blocked"));
+        when(cmsService.stopChargingSession(anyLong())).thenReturn(new CmsResponseDTO("FAIL", "No active session"));
+
+        mockMvc.perform(post("/api/cms/chargers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"chargerId": 7, "operation": "block"},
+                                 {"chargerId": 8, "operation": "explode"},
+                                 {"chargerId": 9, "operation": "STOP"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].chargerId").value(7))
+                .andExpect(jsonPath("$[0].operation").value("BLOCK"))
+                .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$[1].chargerId").value(8))
+                .andExpect(jsonPath("$[1].status").value("FAIL"))
+                .andExpect(jsonPath("$[1].message").value("Unknown operation: explode"))
+                .andExpect(jsonPath("$[2].chargerId").value(9))
+                .andExpect(jsonPath("$[2].status").value("FAIL"))
+                .andExpect(jsonPath("$[2].message").value("No active session"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.karocharge.cms.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EnergyCounterEngineTest {
+
+    @Test
+    void ticksAccumulatePerChargerPowerRate() {
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(4, 16)) {
+            engine.start(1L, 36.0, 1_000L);  // 0.01 kWh per second
+            engine.start(2L, 7.2, 1_000L);   // 0.002 kWh per second
+
+            for (int i = 0; i < 10; i++) engine.tick(1.0);
+
+            assertThat(engine.stop(1L).energyKwh()).isCloseTo(0.1, within(1e-9));
+            assertThat(engine.stop(2L).energyKwh()).isCloseTo(0.02, within(1e-9));
+            assertThat(engine.activeCount()).isZero();
+        }
+    }
+
+    @Test
+    void startOnActiveChargerKeepsTheRunningCounter() {
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(1, 16)) {
+            assertThat(engine.start(7L, 36.0, 1_000L)).isTrue();
+            engine.tick(1.0);
+
+            assertThat(engine.start(7L, 36.0, 5_000L)).isFalse();
+            EnergyCounterEngine.Session session = engine.stop(7L);
+            assertThat(session.energyKwh()).isCloseTo(0.01, within(1e-9));
+            assertThat(session.startMillis()).isEqualTo(1_000L);
+            assertThat(engine.stop(7L)).isNull();
+        }
+    }
+
+    @Test
+    void randomStartStopMatchesReferenceModel() {
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(8, 16)) {
+            Map<Long, Double> reference = new HashMap<>();
+            Random random = new Random(42);
+
+            for (int step = 0; step < 20_000; step++) {
+                long id = random.nextInt(2_000);
+                if (random.nextBoolean()) {
+                    boolean started = engine.start(id, 36.0, step);
+                    assertThat(started).isEqualTo(!reference.containsKey(id));
+                    reference.putIfAbsent(id, 0.0);
+                } else {
+                    EnergyCounterEngine.Session session = engine.stop(id);
+                    Double expected = reference.remove(id);
+                    if (expected == null) {
+                        assertThat(session).isNull();
+                    } else {
+                        assertThat(session.energyKwh()).isCloseTo(expected, within(1e-9));
+                    }
+                }
+                if (step % 100 == 0) {
+                    engine.tick(1.0);
+                    reference.replaceAll((k, v) -> v + 0.01);
+                }
+            }
+
+            assertThat(engine.activeCount()).isEqualTo(reference.size());
+            engine.forEachActive((chargerId, energy, powerKw, start) ->
+                    assertThat(energy).isCloseTo(reference.get(chargerId), within(1e-9)));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.BatchCommandDTO;
+import com.karocharge.cms.dto.BatchResultDTO;
+import com.karocharge.cms.dto.CmsRequestDTO;
+import com.karocharge.cms.dto.CmsResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchCommandServiceTest {
+
+    private final CmsService cmsService = mock(CmsService.class);
+    private final BatchCommandService batch = new BatchCommandService(cmsService, 4);
+
+    @AfterEach
+    void tearDown() {
+        batch.close();
+    }
+
+    @Test
+    void resultsComeBackInCommandOrder() {
+        // Earlier chargers answer later, so completion order is the reverse of command order
+        when(cmsService.blockCharger(any())).thenAnswer(invocation -> {
+            long id = invocation.<CmsRequestDTO>getArgument(0).getChargerId();
+            Thread.sleep((20 - id) * 5);
+            return new CmsResponseDTO("SUCCESS", "Charger " + id + " blocked");
+        });
+        List<BatchCommandDTO> commands = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) commands.add(new BatchCommandDTO(id, "block"));
+
+        List<BatchResultDTO> results = batch.execute(commands);
+
+        assertThat(results).extracting(BatchResultDTO::getChargerId)
+                .containsExactlyElementsOf(commands.stream().map(BatchCommandDTO::getChargerId).toList());
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.getOperation()).isEqualTo("BLOCK");
+            assertThat(result.getStatus()).isEqualTo("SUCCESS");
+            assertThat(result.getMessage()).isEqualTo("Charger " + result.getChargerId() + " blocked");
+        });
+    }
+
+    @Test
+    void unknownOperationsAndMissingChargerIdsFailOnlyTheirOwnEntry() {
+        when(cmsService.stopChargingSession(anyLong())).thenReturn(new CmsResponseDTO("SUCCESS", "stopped"));
+
+        List<BatchResultDTO> results = batch.execute(List.of(
+                new BatchCommandDTO(1L, "REBOOT"),
+                new BatchCommandDTO(null, "STOP"),
+                new BatchCommandDTO(3L, null),
+                new BatchCommandDTO(4L, "stop")));
+
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("FAIL", "FAIL", "FAIL", "SUCCESS");
+        assertThat(results.get(0).getMessage()).isEqualTo("Unknown operation: REBOOT");
+        assertThat(results.get(1).getMessage()).isEqualTo("chargerId is required");
+        assertThat(results.get(2).getMessage()).isEqualTo("Unknown operation: null");
+        verify(cmsService, never()).stopChargingSession(1L);
+    }
+
+    @Test
+    void exceptionFromOneCommandDoesNotFailTheRest() {
+        when(cmsService.unblockCharger(any())).thenAnswer(invocation -> {
+            if (invocation.<CmsRequestDTO>getArgument(0).getChargerId() == 2L) {
+                throw new IllegalStateException("meter offline");
+            }
+            return new CmsResponseDTO("SUCCESS", "started");
+        });
+
+        List<BatchResultDTO> results = batch.execute(List.of(
+                new BatchCommandDTO(1L, "UNBLOCK"),
+                new BatchCommandDTO(2L, "UNBLOCK"),
+                new BatchCommandDTO(3L, "UNBLOCK")));
+
+        assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly("SUCCESS", "FAIL", "SUCCESS");
+        assertThat(results.get(1).getMessage()).isEqualTo("meter offline");
+    }
+
+    @Test
+    void neverRunsMoreCommandsAtOnceThanTheParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(cmsService.blockCharger(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return new CmsResponseDTO("SUCCESS", "blocked");
+        });
+        List<BatchCommandDTO> commands = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) commands.add(new BatchCommandDTO(id, "BLOCK"));
+
+        batch.execute(commands);
+        assertThat(peak.get()).isBetween(1, 4);
+    }
+}
@@ -0,0 +1,105 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.config.MetricsConfig;
+import com.karocharge.cms.dto.CmsRequestDTO;
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class CmsServiceMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final CompletionOutbox outbox = mock(CompletionOutbox.class);
+    private EnergyCounterEngine engine;
+    private SessionJournal journal;
+    private CmsService cmsService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = new EnergyCounterEngine(2, 16);
+        journal = new SessionJournal(dir.resolve("sessions.journal"), 1 << 20, engine);
+        cmsService = new CmsService(restTemplate, engine, journal, outbox, registry, "http://backend/api", 36.0, 5, 60, 100);
+        new MetricsConfig().karochargeGauges(engine, journal, outbox).bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        engine.close();
+    }
+
+    @Test
+    void tickPeriodsMustBePositive() {
+        assertThatThrownBy(() -> new CmsService(restTemplate, engine, journal, outbox, registry,
+                "http://backend/api", 36.0, 5, 0, 100)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tick-summary-every-ticks");
+        assertThatThrownBy(() -> new CmsService(restTemplate, engine, journal, outbox, registry,
+                "http://backend/api", 36.0, 5, 60, 0)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tick-sample-every");
+        assertThatThrownBy(() -> new CmsService(restTemplate, engine, journal, outbox, registry,
+                "http://backend/api", 36.0, 0, 60, 100)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("checkpoint-every-ticks");
+    }
+
+    @Test
+    void countsSessionsAndTimesBackendCallbacks() {
+        cmsService.unblockCharger(request(1L));
+        cmsService.unblockCharger(request(1L)); // extend: same session
+        cmsService.unblockCharger(request(2L));
+        assertThat(registry.get("karocharge.cms.sessions.active").gauge().value()).isEqualTo(2);
+
+        cmsService.stopChargingSession(1L);
+
+        assertThat(registry.get("karocharge.cms.sessions.started").counter().count()).isEqualTo(2);
+        assertThat(registry.get("karocharge.cms.sessions.stopped").counter().count()).isEqualTo(1);
+        assertThat(registry.get("karocharge.cms.sessions.active").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("karocharge.backend.requests")
+                .tags("operation", "unblock", "outcome", "success", "status", "2xx").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void tagsFailedCallbacksWithTheBackendStatus() {
+        doThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND)).when(restTemplate).put(contains("/3/unblock"), any());
+
+        assertThat(cmsService.unblockCharger(request(3L)).getStatus()).isEqualTo("FAIL");
+
+        assertThat(registry.get("karocharge.backend.requests")
+                .tags("operation", "unblock", "outcome", "failure", "status", "404").timer().count()).isEqualTo(1);
+        assertThat(registry.get("karocharge.cms.sessions.started").counter().count()).isZero();
+    }
+
+    @Test
+    void timesCheckpointTicksApart() {
+        for (int i = 0; i < 10; i++) cmsService.incrementEnergy();
+
+        assertThat(registry.get("karocharge.cms.tick").tags("checkpoint", "false").timer().count()).isEqualTo(8);
+        assertThat(registry.get("karocharge.cms.tick").tags("checkpoint", "true").timer().count()).isEqualTo(2);
+    }
+
+    private static CmsRequestDTO request(Long chargerId) {
+        CmsRequestDTO request = new CmsRequestDTO();
+        request.setChargerId(chargerId);
+        return request;
+    }
+}
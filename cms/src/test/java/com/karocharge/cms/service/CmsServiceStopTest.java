@@ -0,0 +1,115 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.CmsRequestDTO;
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import com.karocharge.cms.engine.SessionJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Failure paths of stopChargingSession: a stop must neither lose the completion nor leave a
+ * session for the journal to revive.
+ */
+class CmsServiceStopTest {
+
+    @TempDir
+    Path dir;
+
+    private final CompletionOutbox outbox = mock(CompletionOutbox.class);
+    private EnergyCounterEngine engine;
+    private SessionJournal journal;
+    private CmsService cmsService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = new EnergyCounterEngine(2, 16);
+        journal = spy(new SessionJournal(dir.resolve("sessions.journal"), 1 << 20, engine));
+        cmsService = new CmsService(mock(RestTemplate.class), engine, journal, outbox, new SimpleMeterRegistry(),
+                "http://backend/api", 36.0, 5, 60, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        engine.close();
+    }
+
+    @Test
+    void sessionIsKeptWhenTheCompletionCannotBeQueued() throws IOException {
+        startSession(1L);
+        for (int i = 0; i < 3; i++) cmsService.incrementEnergy();
+        doThrow(new IOException("disk full")).doNothing()
+                .when(outbox).enqueue(eq(1L), anyDouble(), anyLong());
+
+        assertThat(cmsService.stopChargingSession(1L).getStatus()).isEqualTo("FAIL");
+        assertThat(engine.isActive(1L)).isTrue();
+        assertThat(replayedSessions()).isEqualTo(1);
+
+        // Nothing was lost: the retried stop delivers the same energy
+        assertThat(cmsService.stopChargingSession(1L).getStatus()).isEqualTo("SUCCESS");
+        verify(outbox, times(2)).enqueue(eq(1L), doubleThat(kwh -> Math.abs(kwh - 0.03) < 1e-9), anyLong());
+    }
+
+    @Test
+    void failedStopRecordIsJournaledBeforeTheNextCheckpoint() throws IOException {
+        startSession(1L);
+        doThrow(new IOException("journal full")).doCallRealMethod().when(journal).appendStop(1L);
+
+        // The completion is queued, so the stop has happened
+        assertThat(cmsService.stopChargingSession(1L).getStatus()).isEqualTo("SUCCESS");
+        assertThat(engine.isActive(1L)).isFalse();
+        assertThat(replayedSessions()).isEqualTo(1); // START still unmatched on disk
+
+        for (int i = 0; i < 5; i++) cmsService.incrementEnergy(); // the 5th tick checkpoints
+        assertThat(replayedSessions()).isZero();
+    }
+
+    @Test
+    void restartAfterAFailedStopRecordReplaysTheNewSession() throws IOException {
+        startSession(1L);
+        doThrow(new IOException("journal full")).doCallRealMethod().when(journal).appendStop(1L);
+        cmsService.stopChargingSession(1L);
+
+        // The pending STOP goes in before the new START, not after it
+        startSession(1L);
+        assertThat(replayedSessions()).isEqualTo(1);
+    }
+
+    private void startSession(long chargerId) {
+        CmsRequestDTO request = new CmsRequestDTO();
+        request.setChargerId(chargerId);
+        assertThat(cmsService.unblockCharger(request).getStatus()).isEqualTo("SUCCESS");
+    }
+
+    /** Sessions a restarted CMS would bring back from the journal file as it is now. */
+    private int replayedSessions() throws IOException {
+        Path copy = dir.resolve("copy.journal");
+        Files.copy(dir.resolve("sessions.journal"), copy, StandardCopyOption.REPLACE_EXISTING);
+        try (EnergyCounterEngine restarted = new EnergyCounterEngine(2, 16);
+             SessionJournal replay = new SessionJournal(copy, 1 << 20, restarted)) {
+            return replay.replayInto();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.BatchResultDTO;
+import com.karocharge.cms.dto.SessionCompletionDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CompletionOutboxTest {
+
+    private static final String BACKEND = "http://backend/api";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void undeliveredCompletionsSurviveRestartAndAreSentOnce() throws Exception {
+        RestTemplate down = mock(RestTemplate.class);
+        when(down.postForEntity(anyString(), any(), eq(BatchResultDTO[].class)))
+                .thenThrow(new ResourceAccessException("backend down"));
+
+        try (CompletionOutbox outbox = newOutbox(down)) {
+            outbox.enqueue(1L, 4.5, 600L);
+            outbox.enqueue(2L, 7.25, 900L);
+            outbox.deliver();
+            assertThat(outbox.pendingCount()).isEqualTo(2);
+        }
+
+        RestTemplate up = mock(RestTemplate.class);
+        answer(up, record -> "APPLIED");
+
+        try (CompletionOutbox outbox = newOutbox(up)) {
+            assertThat(outbox.pendingCount()).isEqualTo(2);
+            outbox.deliver();
+            assertThat(outbox.pendingCount()).isZero();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<SessionCompletionDTO>> batch = ArgumentCaptor.forClass(List.class);
+            verify(up, atLeastOnce()).postForEntity(eq(BACKEND + "/bookings/complete/batch"), batch.capture(), eq(BatchResultDTO[].class));
+            List<SessionCompletionDTO> sent = batch.getValue();
+            assertThat(sent).extracting(SessionCompletionDTO::getChargerId).containsExactly(1L, 2L);
+            assertThat(sent.get(1).getTotalEnergy()).isEqualTo(7.25);
+            assertThat(sent).extracting(SessionCompletionDTO::getCompletionId).doesNotContainNull().doesNotHaveDuplicates();
+        }
+
+        // Acknowledged records are not replayed after another restart
+        try (CompletionOutbox outbox = newOutbox(mock(RestTemplate.class))) {
+            assertThat(outbox.pendingCount()).isZero();
+        }
+    }
+
+    @Test
+    void tornTailRecordIsIgnoredOnRecovery() throws Exception {
+        RestTemplate down = mock(RestTemplate.class);
+        when(down.postForEntity(anyString(), any(), eq(BatchResultDTO[].class)))
+                .thenThrow(new ResourceAccessException("backend down"));
+
+        try (CompletionOutbox outbox = newOutbox(down)) {
+            outbox.enqueue(1L, 1.0, 60L);
+        }
+        // Simulate a crash half way through writing the next record
+        Files.write(dir.resolve("completion-outbox.log"), new byte[20],
+                StandardOpenOption.APPEND);
+
+        try (CompletionOutbox outbox = newOutbox(down)) {
+            assertThat(outbox.pendingCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failingRecordDoesNotHoldBackTheOthersAndIsParkedAfterMaxAttempts() throws Exception {
+        RestTemplate down = mock(RestTemplate.class);
+        when(down.postForEntity(anyString(), any(), eq(BatchResultDTO[].class)))
+                .thenThrow(new ResourceAccessException("backend down"));
+        try (CompletionOutbox outbox = newOutbox(down)) {
+            for (long chargerId = 1; chargerId <= 4; chargerId++) outbox.enqueue(chargerId, chargerId, 60L);
+        }
+
+        RestTemplate backend = mock(RestTemplate.class);
+        // Charger 2's booking cannot be saved; charger 3 has no open session
+        answer(backend, record -> switch (record.getChargerId().intValue()) {
+            case 2 -> "ERROR";
+            case 3 -> "NOT_FOUND";
+            default -> "APPLIED";
+        });
+        try (CompletionOutbox outbox = newOutbox(backend)) {
+            outbox.deliver();
+            // 1, 3 and 4 are settled; only 2 is left for another try
+            assertThat(outbox.pendingCount()).isEqualTo(1);
+        }
+
+        // Still queued after a restart, and parked once out of attempts (3 here, counted per run)
+        try (CompletionOutbox outbox = newOutbox(backend)) {
+            assertThat(outbox.pendingCount()).isEqualTo(1);
+            outbox.deliver();
+            outbox.deliver();
+            assertThat(outbox.pendingCount()).isEqualTo(1);
+            outbox.deliver();
+            assertThat(outbox.pendingCount()).isZero();
+        }
+        List<String> dead = Files.readAllLines(dir.resolve("completion-outbox.dead"));
+        assertThat(dead).hasSize(1);
+        assertThat(dead.get(0).split(",")[1]).isEqualTo("2");
+
+        try (CompletionOutbox outbox = newOutbox(mock(RestTemplate.class))) {
+            assertThat(outbox.pendingCount()).isZero();
+        }
+    }
+
+    /** The backend's per-record answer: status by record, completionId in 'message'. */
+    private static void answer(RestTemplate backend, Function<SessionCompletionDTO, String> status) {
+        when(backend.postForEntity(anyString(), any(), eq(BatchResultDTO[].class))).thenAnswer(invocation -> {
+            List<SessionCompletionDTO> batch = invocation.getArgument(1);
+            return ResponseEntity.ok(batch.stream()
+                    .map(record -> new BatchResultDTO(record.getChargerId(), "COMPLETE", status.apply(record),
+                            record.getCompletionId()))
+                    .toArray(BatchResultDTO[]::new));
+        });
+    }
+
+    private CompletionOutbox newOutbox(RestTemplate restTemplate) throws Exception {
+        // Long poll interval: the test drives deliver() itself
+        return new CompletionOutbox(restTemplate, BACKEND, dir.toString(), 200, 0, 0, 3, 3_600_000L);
+    }
+}
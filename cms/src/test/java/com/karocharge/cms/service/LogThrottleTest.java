@@ -0,0 +1,47 @@
+package com.karocharge.cms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LogThrottle throttle = new LogThrottle(Duration.ofSeconds(30), now::get);
+
+    @Test
+    void firstLineGoesThroughAndRepeatsWithinTheIntervalAreCounted() {
+        assertThat(throttle.acquire("backend-down")).isZero();
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(Duration.ofSeconds(1).toNanos());
+            assertThat(throttle.acquire("backend-down")).isEqualTo(-1);
+        }
+
+        now.addAndGet(Duration.ofSeconds(25).toNanos()); // 30 s after the first line
+        assertThat(throttle.acquire("backend-down")).isEqualTo(5);
+        assertThat(throttle.acquire("backend-down")).isEqualTo(-1);
+    }
+
+    @Test
+    void windowRestartsFromTheLineLetThrough() {
+        throttle.acquire("disk-full");
+        now.addAndGet(Duration.ofSeconds(45).toNanos());
+        assertThat(throttle.acquire("disk-full")).isZero(); // nothing suppressed in between
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos()); // 74 s in, but only 29 s after the last line
+        assertThat(throttle.acquire("disk-full")).isEqualTo(-1);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(throttle.acquire("disk-full")).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreThrottledIndependently() {
+        assertThat(throttle.acquire("backend-down")).isZero();
+        assertThat(throttle.acquire("disk-full")).isZero();
+        assertThat(throttle.acquire("backend-down")).isEqualTo(-1);
+        assertThat(throttle.acquire("disk-full")).isEqualTo(-1);
+    }
+}
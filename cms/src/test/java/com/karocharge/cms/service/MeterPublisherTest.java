@@ -0,0 +1,95 @@
+package com.karocharge.cms.service;
+
+import com.karocharge.cms.dto.MeterBatchDTO;
+import com.karocharge.cms.engine.EnergyCounterEngine;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MeterPublisherTest {
+
+    @Test
+    void sendsKeyframeThenOnlyChangedChargersAsDeltas() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class))).thenReturn(ResponseEntity.ok("{}"));
+
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(2, 16);
+             MeterPublisher publisher = new MeterPublisher(restTemplate, engine, "http://backend/api", 0, 100)) {
+            engine.start(1L, 36.0, 0L);
+            engine.start(2L, 36.0, 0L);
+            engine.tick(1.0); // both at 10 Wh
+
+            publisher.publish();
+            MeterBatchDTO first = lastFrame(restTemplate, 1);
+            assertThat(first.isKeyframe()).isTrue();
+            assertThat(first.getChargerIds()).containsExactlyInAnyOrder(1L, 2L);
+            assertThat(first.getEnergyWh()).containsExactly(10L, 10L);
+
+            publisher.publish(); // nothing changed: no request
+            verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(String.class));
+
+            engine.stop(2L);
+            engine.tick(1.0);
+            publisher.publish();
+            MeterBatchDTO delta = lastFrame(restTemplate, 2);
+            assertThat(delta.isKeyframe()).isFalse();
+            assertThat(delta.getBaseSequence()).isEqualTo(first.getSequence());
+            assertThat(delta.getChargerIds()).containsExactly(1L);
+            assertThat(delta.getEnergyWh()).containsExactly(10L);
+            assertThat(delta.getRemovedChargerIds()).containsExactly(2L);
+        }
+    }
+
+    @Test
+    void failedFramesFoldIntoTheNextDeltaAndConflictForcesKeyframe() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class))).thenReturn(ResponseEntity.ok("{}"));
+
+        try (EnergyCounterEngine engine = new EnergyCounterEngine(1, 16);
+             MeterPublisher publisher = new MeterPublisher(restTemplate, engine, "http://backend/api", 0, 100)) {
+            engine.start(7L, 36.0, 0L);
+            publisher.publish(); // keyframe at 0 Wh
+
+            reset(restTemplate);
+            when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                    .thenThrow(new IllegalStateException("backend down"))
+                    .thenReturn(ResponseEntity.ok("{}"));
+            engine.tick(1.0);
+            publisher.publish(); // lost
+            engine.tick(1.0);
+            publisher.publish(); // carries both ticks
+            MeterBatchDTO delta = lastFrame(restTemplate, 2);
+            assertThat(delta.getEnergyWh()).containsExactly(20L);
+
+            reset(restTemplate);
+            when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+                    .thenThrow(HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", null, null, null))
+                    .thenReturn(ResponseEntity.ok("{}"));
+            engine.tick(1.0);
+            publisher.publish(); // backend lost its base
+            publisher.publish();
+            MeterBatchDTO resync = lastFrame(restTemplate, 2);
+            assertThat(resync.isKeyframe()).isTrue();
+            assertThat(resync.getEnergyWh()).containsExactly(30L);
+        }
+    }
+
+    private static MeterBatchDTO lastFrame(RestTemplate restTemplate, int calls) {
+        ArgumentCaptor<MeterBatchDTO> frame = ArgumentCaptor.forClass(MeterBatchDTO.class);
+        verify(restTemplate, times(calls)).postForEntity(eq("http://backend/api/meter-values"), frame.capture(), eq(String.class));
+        return frame.getValue();
+    }
+}
@@ -1,9 +1,11 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import "./ChargeMode.css";
 import API from "../services/api";
 
 function ChargeMode() {
   const [chargers, setChargers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const versionRef = useRef(null); // change version the list is synced to (from the ETag)
   const [search, setSearch] = useState("");
   const [bookingId, setBookingId] = useState(null);
   const [bookingStatus, setBookingStatus] = useState(null);
@@ -12,6 +14,7 @@ function ChargeMode() {
   const [selectedDuration, setSelectedDuration] = useState(30); 
 
   const [sessionTimer, setSessionTimer] = useState(0);
+  const [liveEnergy, setLiveEnergy] = useState(null);
   const [finalSummary, setFinalSummary] = useState(null);
   const [arrivalTimeLeft, setArrivalTimeLeft] = useState(null);
   const [arrivalChargerId, setArrivalChargerId] = useState(null);
@@ -19,10 +22,47 @@ function ChargeMode() {
   const [reachedBookingId, setReachedBookingId] = useState(null);
   const [otp, setOtp] = useState(null);
 
+  // Keyset pages: 'next' is the cursor for the following page (null on the last one)
   const fetchChargers = async () => {
     try {
-      const res = await API.get("/api/chargers");
-      setChargers(res.data || []);
+      const res = await API.get("/api/chargers", { params: { limit: 50 } });
+      setChargers(res.data?.items || []);
+      setNextCursor(res.data?.next ?? null);
+      const etag = res.headers?.etag;
+      versionRef.current = etag ? Number(etag.replaceAll('"', "")) : null;
+    } catch (err) { console.error("Fetch error:", err); }
+  };
+
+  // Delta sync: only the chargers changed since the last version, merged in by id.
+  // New chargers past the loaded pages are left to "Load more".
+  const refreshChargers = async () => {
+    if (versionRef.current === null) return fetchChargers();
+    try {
+      let more = true;
+      while (more) {
+        const res = await API.get("/api/chargers/changes", { params: { since: versionRef.current } });
+        const changed = res.data?.chargers || [];
+        setChargers(prev => {
+          const byId = new Map(changed.map(c => [c.id, c]));
+          const merged = prev.map(c => byId.get(c.id) ?? c);
+          const known = new Set(prev.map(c => c.id));
+          const lastId = prev.length ? prev[prev.length - 1].id : 0;
+          changed.forEach(c => {
+            if (!known.has(c.id) && (nextCursor === null || c.id <= lastId)) merged.push(c);
+          });
+          return merged.sort((a, b) => a.id - b.id);
+        });
+        versionRef.current = res.data?.version ?? versionRef.current;
+        more = res.data?.more === true;
+      }
+    } catch (err) { console.error("Refresh error:", err); }
+  };
+
+  const loadMoreChargers = async () => {
+    try {
+      const res = await API.get("/api/chargers", { params: { limit: 50, after: nextCursor } });
+      setChargers(prev => [...prev, ...(res.data?.items || [])]);
+      setNextCursor(res.data?.next ?? null);
     } catch (err) { console.error("Fetch error:", err); }
   };
 
@@ -85,7 +125,9 @@ function ChargeMode() {
       const actualMins = (duration || 0) / 60;
       const unusedMins = Math.max(0, bookedMins - actualMins);
       const rawCancelFee = (unusedMins / 60) * earlyCancelRate;
-      cancelAdjustment = cancelledBy === "DRIVER" ? rawCancelFee : -rawCancelFee;
+      // A no-show (booking expired by the server) is billed like a driver cancellation
+      const driverAtFault = cancelledBy === "DRIVER" || cancelledBy === "NO_SHOW";
+      cancelAdjustment = driverAtFault ? rawCancelFee : -rawCancelFee;
     }
 
     const subtotal = energyCost + bookingFee + latePenalty + idlePenalty + cancelAdjustment;
@@ -116,9 +158,10 @@ function ChargeMode() {
         setBookingStatus(res.data.status); 
         setIsLate(false);
         setSessionTimer(0); 
+        setLiveEnergy(null);
         startArrivalTimer(selectedChargerId);
         setSelectedChargerId(null); 
-        fetchChargers();
+        refreshChargers();
       }
     } catch (err) { alert("Booking failed."); }
   };
@@ -138,41 +181,43 @@ function ChargeMode() {
     }, 1000);
   };
 
-  // --- TIMER SYNC LOGIC (The Fix) ---
+  // --- TIMER SYNC LOGIC (Server-Sent Events) ---
+  // The backend pushes one "session" event per second from memory, replacing the 2s DB poll
   useEffect(() => {
-    let pollInterval;
-    if (bookingId && !finalSummary) {
-      pollInterval = setInterval(async () => {
-        try {
-          const res = await API.get(`/api/bookings/${bookingId}`);
-          const newStatus = res.data.status;
-          setBookingStatus(newStatus); 
-          
-          // SYNC: If charging, force the local timer to match the server's duration
-          // This fixes the 30s vs 60s mismatch
-          if (newStatus === "CHARGING" && res.data.actualDuration !== undefined) {
-              setSessionTimer(res.data.actualDuration);
-          }
-          
-          if (newStatus === "COMPLETED" || newStatus === "CANCELLED") {
-            setFinalSummary({
-              energy: res.data.totalEnergy,
-              duration: res.data.actualDuration, 
-              bookedDurationHours: res.data.bookedDuration, 
-              chargerType: res.data.charger?.type || "AC",
-              lateMinutes: res.data.lateMinutes || 0,
-              idleMinutes: res.data.idleMinutes || 0,
-              cancelledBy: res.data.cancelledBy || null
-            });
-            clearInterval(pollInterval);
-          }
-        } catch (err) { console.error("Polling..."); }
-      }, 2000); // Polls every 2 seconds
-    }
-    return () => clearInterval(pollInterval);
+    if (!bookingId || finalSummary) return;
+
+    const events = new EventSource(`${API.defaults.baseURL}/api/bookings/${bookingId}/events`);
+    events.addEventListener("session", (e) => {
+      const data = JSON.parse(e.data);
+      const newStatus = data.status;
+      setBookingStatus(newStatus);
+
+      // SYNC: If charging, force the local timer to match the server's duration
+      // This fixes the 30s vs 60s mismatch
+      if (newStatus === "CHARGING" && data.actualDuration != null) {
+          setSessionTimer(data.actualDuration);
+      }
+      if (data.liveEnergy != null) setLiveEnergy(data.liveEnergy);
+
+      if (newStatus === "COMPLETED" || newStatus === "CANCELLED" || newStatus === "EXPIRED") {
+        setFinalSummary({
+          energy: data.totalEnergy,
+          duration: data.actualDuration,
+          bookedDurationHours: data.bookedDuration,
+          chargerType: data.chargerType || "AC",
+          lateMinutes: data.lateMinutes || 0,
+          idleMinutes: data.idleMinutes || 0,
+          cancelledBy: data.cancelledBy || null
+        });
+        events.close();
+      }
+    });
+    events.onerror = () => console.error("Live session stream interrupted, reconnecting...");
+
+    return () => events.close();
   }, [bookingId, finalSummary]);
 
-  // Local ticker for smooth 1-second updates between polls
+  // Local ticker for smooth 1-second updates between server events
   useEffect(() => {
     let timer;
     if (bookingStatus === "CHARGING") {
@@ -194,7 +239,7 @@ function ChargeMode() {
       await API.post(`/api/bookings/${bookingId}/stop`, null, { 
         params: { cancelledBy: "DRIVER" } 
       });
-      fetchChargers();
+      refreshChargers();
     } catch (err) { alert("Cancellation failed."); }
   };
 
@@ -215,7 +260,7 @@ function ChargeMode() {
                 AUTO-STOP AT: {selectedDuration} MINS
               </p>
               <p style={{fontSize: '1.4rem', color: '#bdc3c7'}}>
-                DELIVERED: <b style={{color: '#2ecc71'}}>{(sessionTimer * 0.01).toFixed(2)} kWh</b>
+                DELIVERED: <b style={{color: '#2ecc71'}}>{(liveEnergy ?? sessionTimer * 0.01).toFixed(2)} kWh</b>
               </p>
             </div>
             <div style={{display: 'flex', gap: '15px', width: '100%', marginTop: '20px'}}>
@@ -239,7 +284,7 @@ function ChargeMode() {
                     {parseFloat(bill.latePenalty) > 0 && <div className="bill-row" style={{color: '#ff9f43'}}><span>Late Arrival Fee</span> <span>+₹{bill.latePenalty}</span></div>}
                     {parseFloat(bill.cancelAdj) !== 0 && (
                         <div className="bill-row" style={{color: parseFloat(bill.cancelAdj) > 0 ? '#ff4757' : '#2ecc71', fontWeight: 'bold'}}>
-                            <span>{finalSummary.cancelledBy === "DRIVER" ? "Early Cancel Penalty" : "Host Discount"}</span> 
+                            <span>{finalSummary.cancelledBy === "NO_SHOW" ? "No-Show Fee" : finalSummary.cancelledBy === "DRIVER" ? "Early Cancel Penalty" : "Host Discount"}</span> 
                             <span>{parseFloat(bill.cancelAdj) > 0 ? "+" : ""}₹{bill.cancelAdj}</span>
                         </div>
                     )}
@@ -321,6 +366,9 @@ function ChargeMode() {
           </div>
         ))}
       </div>
+      {nextCursor !== null && (
+        <button className="book-btn" onClick={loadMoreChargers}>Load more</button>
+      )}
     </div>
   );
 }
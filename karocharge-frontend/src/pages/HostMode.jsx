@@ -9,6 +9,7 @@ function HostMode() {
   });
 
   const [myChargers, setMyChargers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [bookingId, setBookingId] = useState("");
   const [otpInput, setOtpInput] = useState("");
   const [otpVerified, setOtpVerified] = useState(false);
@@ -45,7 +46,8 @@ function HostMode() {
       const actualMins = (session.actualDuration || 0) / 60;
       const unusedMins = Math.max(0, bookedMins - actualMins);
       const rawCancelFee = (unusedMins / 60) * CANCEL_RATE;
-      cancelAdjustment = session.cancelledBy === "DRIVER" ? rawCancelFee : -rawCancelFee;
+      const driverAtFault = session.cancelledBy === "DRIVER" || session.cancelledBy === "NO_SHOW";
+      cancelAdjustment = driverAtFault ? rawCancelFee : -rawCancelFee;
     }
 
     const subtotal = energyCost + bookingFee + lateFee + idleFee + cancelAdjustment;
@@ -111,11 +113,21 @@ function HostMode() {
     if (dateError) setDateError("");
   };
 
+  // Keyset pages, as in ChargeMode: 'next' is the cursor for the following page (null on the last one)
   const fetchMyChargers = async (hostName) => {
     if (!hostName) return;
     try {
-      const res = await API.get(`/api/chargers/host/${hostName}`);
-      setMyChargers(res.data);
+      const res = await API.get(`/api/chargers/host/${hostName}`, { params: { limit: 50 } });
+      setMyChargers(res.data?.items || []);
+      setNextCursor(res.data?.next ?? null);
+    } catch (err) { console.error(err); }
+  };
+
+  const loadMoreChargers = async () => {
+    try {
+      const res = await API.get(`/api/chargers/host/${formData.hostName}`, { params: { limit: 50, after: nextCursor } });
+      setMyChargers(prev => [...prev, ...(res.data?.items || [])]);
+      setNextCursor(res.data?.next ?? null);
     } catch (err) { console.error(err); }
   };
 
@@ -201,6 +213,9 @@ function HostMode() {
                 </div>
               ))}
             </div>
+            {nextCursor !== null && (
+              <button className="host-btn" onClick={loadMoreChargers}>Load more</button>
+            )}
           </div>
         </div>
 
@@ -229,7 +244,7 @@ function HostMode() {
                              {parseFloat(bill.lateFee) > 0 && <div className="summary-row" style={{color: '#ff9f43'}}><span>Late Arrival Fee</span> <span>+₹{bill.lateFee}</span></div>}
                              {parseFloat(bill.cancelAdjustment) !== 0 && (
                                 <div className="summary-row" style={{color: bill.cancelAdjustment > 0 ? '#ff4757' : '#2ecc71', fontWeight: 'bold'}}>
-                                    <span>{sessionSummary.cancelledBy === "DRIVER" ? "Early Cancel Fee" : "Cancel Discount"}</span> 
+                                    <span>{sessionSummary.cancelledBy === "NO_SHOW" ? "No-Show Fee" : sessionSummary.cancelledBy === "DRIVER" ? "Early Cancel Fee" : "Cancel Discount"}</span> 
                                     <span>{parseFloat(bill.cancelAdjustment) > 0 ? "+" : ""}₹{bill.cancelAdjustment}</span>
                                 </div>
                              )}
@@ -0,0 +1,70 @@
+package com.karocharge.loadgen;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * The backend's REST API as the frontend calls it. Every request is timed into the stats
+ * under its endpoint template ("POST /api/chargers/{id}/book"), so percentiles are per
+ * endpoint rather than per URL.
+ */
+class BackendClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final String baseUrl;
+    private final Stats stats;
+
+    BackendClient(String baseUrl, Stats stats) {
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    record Response(int status, String body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    /**
+     * POSTs the JSON body (none if null). A transport failure is recorded with status 0 and
+     * returned as such rather than thrown: under load it is a result, not a bug.
+     */
+    Response post(String endpoint, String path, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (body == null) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(body)));
+        }
+
+        long begin = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            stats.record(endpoint, System.nanoTime() - begin, response.statusCode());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - begin, 0);
+            return new Response(0, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, "interrupted");
+        }
+    }
+
+    long id(Response response) {
+        return jsonMapper.readTree(response.body()).get("id").asLong();
+    }
+}
@@ -0,0 +1,86 @@
+package com.karocharge.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Stands in for the CMS simulator on localhost when the run should measure the backend
+ * alone: answers block / unblock / stop with SUCCESS and, like the CMS outbox, posts each
+ * session's totals back to /api/bookings/complete after a stop. Like the real CMS it answers
+ * a stop without a running session with FAIL and sends no completion, so a run against the
+ * stub leaves the same chargers stuck as a run against the CMS would.
+ */
+class CmsStub implements AutoCloseable {
+
+    private static final String PREFIX = "/api/cms/chargers/";
+    private static final double POWER_KW = 36.0;
+
+    private final HttpServer server;
+    private final BackendClient backend;
+    private final Map<Long, Long> sessionStarts = new ConcurrentHashMap<>();
+
+    CmsStub(int port, BackendClient backend) throws IOException {
+        // Otherwise every response waits out a delayed ACK on the backend's side
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.backend = backend;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        String[] path = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+        if (path.length != 2 || !path[0].matches("\\d+")) {
+            respond(exchange, 404, "{\"status\":\"FAIL\",\"message\":\"Not simulated\"}");
+            return;
+        }
+        long chargerId = Long.parseLong(path[0]);
+
+        switch (path[1]) {
+            case "block" -> respond(exchange, 200, "{\"status\":\"SUCCESS\",\"message\":\"Charger blocked\"}");
+            case "unblock" -> {
+                // An extend unblocks again: keep the running session
+                sessionStarts.putIfAbsent(chargerId, System.currentTimeMillis());
+                respond(exchange, 200, "{\"status\":\"SUCCESS\",\"message\":\"Charger unblocked\"}");
+            }
+            case "stop" -> {
+                Long start = sessionStarts.remove(chargerId);
+                if (start == null) {
+                    respond(exchange, 200, "{\"status\":\"FAIL\",\"message\":\"No active session for this charger\"}");
+                    return;
+                }
+                respond(exchange, 200, "{\"status\":\"SUCCESS\",\"message\":\"Session completed\"}");
+                long seconds = (System.currentTimeMillis() - start) / 1000;
+                backend.post("POST /api/bookings/complete (cms)", "/api/bookings/complete", Map.of(
+                        "completionId", UUID.randomUUID().toString(),
+                        "chargerId", chargerId,
+                        "totalEnergy", POWER_KW * seconds / 3600.0,
+                        "durationSeconds", seconds));
+            }
+            default -> respond(exchange, 404, "{\"status\":\"FAIL\",\"message\":\"Not simulated\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.karocharge.loadgen;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One virtual driver: picks a charger, books it (trying other chargers on a conflict), then
+ * generate-otp -> verify-otp -> start -> extend -> stop, pausing between start, extend and
+ * stop as a real session would. If a step after the booking fails, the booking is cancelled
+ * through the stop endpoint so the charger does not stay BOOKED for the rest of the run; a
+ * cancel the backend refuses is counted as a stuck charger.
+ */
+class Driver implements Runnable {
+
+    private final BackendClient backend;
+    private final Stats stats;
+    private final LoadGenerator.Config config;
+    private final List<Long> chargerIds;
+    private final String userName;
+
+    Driver(BackendClient backend, Stats stats, LoadGenerator.Config config, List<Long> chargerIds, String userName) {
+        this.backend = backend;
+        this.stats = stats;
+        this.config = config;
+        this.chargerIds = chargerIds;
+        this.userName = userName;
+    }
+
+    @Override
+    public void run() {
+        stats.arrivals.increment();
+        Long bookingId = book();
+        if (bookingId == null) {
+            stats.gaveUp.increment();
+            return;
+        }
+        if (charge(bookingId)) {
+            stats.completed.increment();
+        } else {
+            BackendClient.Response cancelled = backend.post("POST /api/bookings/{id}/stop (cancel)",
+                    "/api/bookings/" + bookingId + "/stop?cancelledBy=LOADGEN", null);
+            if (!cancelled.ok()) stats.stuck.increment();
+            stats.abandoned.increment();
+        }
+    }
+
+    private Long book() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt <= config.retries(); attempt++) {
+            long chargerId = chargerIds.get(random.nextInt(chargerIds.size()));
+            stats.bookingAttempts.increment();
+            BackendClient.Response booked = backend.post("POST /api/chargers/{id}/book", "/api/chargers/" + chargerId + "/book",
+                    Map.of("userName", userName, "duration", config.bookMinutes()));
+            if (booked.ok()) return backend.id(booked);
+            // 400 = charger already taken (or the CMS refused the block); anything else is an error
+            if (booked.status() == 400) stats.conflicts.increment();
+        }
+        return null;
+    }
+
+    private boolean charge(long bookingId) {
+        String booking = "/api/bookings/" + bookingId;
+
+        BackendClient.Response otp = backend.post("POST /api/bookings/{id}/generate-otp", booking + "/generate-otp", null);
+        if (!otp.ok()) return false;
+        if (!backend.post("POST /api/bookings/{id}/verify-otp", booking + "/verify-otp?otp=" + otp.body(), null).ok()) return false;
+        if (!backend.post("POST /api/bookings/{id}/start", booking + "/start", null).ok()) return false;
+
+        pause();
+        if (!backend.post("POST /api/bookings/{id}/extend", booking + "/extend?extraMinutes=" + config.extendMinutes(), null).ok()) return false;
+
+        pause();
+        return backend.post("POST /api/bookings/{id}/stop", booking + "/stop", null).ok();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(config.chargeTime().dividedBy(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.karocharge.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Peak-hour load against a running backend: hosts a fleet of chargers, then lets drivers
+ * arrive at random (Poisson) at the configured rate, each on its own virtual thread running
+ * the full booking flow (see Driver). Arrivals are open-loop: a slow backend does not slow
+ * them down, so queueing shows up in the latencies instead of hiding in a lower request rate.
+ *
+ * Arguments are key=value, all optional:
+ *   backend=http://localhost:8080  chargers=100  rate=10 (drivers/s)  duration=60s
+ *   book-minutes=30  extend-minutes=15  charge-time=2s (start to stop)  retries=2 (other
+ *   chargers tried after a conflict)  cms-stub=9090 (serve a stub CMS on this port instead
+ *   of using the real one; the backend's karocharge.cms.base-url must point at it)
+ */
+public class LoadGenerator {
+
+    record Config(String backend, int chargers, double rate, Duration duration, int bookMinutes,
+                  int extendMinutes, Duration chargeTime, int retries, Integer cmsStubPort) {
+
+        static Config parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+                values.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+            Config config = new Config(
+                    values.getOrDefault("backend", "http://localhost:8080"),
+                    Integer.parseInt(values.getOrDefault("chargers", "100")),
+                    Double.parseDouble(values.getOrDefault("rate", "10")),
+                    duration(values.getOrDefault("duration", "60s")),
+                    Integer.parseInt(values.getOrDefault("book-minutes", "30")),
+                    Integer.parseInt(values.getOrDefault("extend-minutes", "15")),
+                    duration(values.getOrDefault("charge-time", "2s")),
+                    Integer.parseInt(values.getOrDefault("retries", "2")),
+                    values.containsKey("cms-stub") ? Integer.valueOf(values.get("cms-stub")) : null);
+            values.keySet().removeAll(List.of("backend", "chargers", "rate", "duration", "book-minutes",
+                    "extend-minutes", "charge-time", "retries", "cms-stub"));
+            if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options " + values.keySet());
+            if (config.chargers() < 1 || config.rate() <= 0) {
+                throw new IllegalArgumentException("chargers and rate must be positive");
+            }
+            return config;
+        }
+
+        // 90s, 2m, 500ms
+        private static Duration duration(String value) {
+            if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            return switch (value.charAt(value.length() - 1)) {
+                case 's' -> Duration.ofSeconds(amount);
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                default -> throw new IllegalArgumentException("Bad duration " + value);
+            };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        Stats stats = new Stats();
+        BackendClient backend = new BackendClient(config.backend(), stats);
+        CmsStub cmsStub = config.cmsStubPort() != null ? new CmsStub(config.cmsStubPort(), backend) : null;
+
+        try {
+            String hostName = "loadgen-" + System.currentTimeMillis() / 1000;
+            List<Long> chargerIds = hostFleet(config, hostName);
+            System.out.printf("Hosted %d chargers as %s; %.1f drivers/s for %ds%n",
+                    chargerIds.size(), hostName, config.rate(), config.duration().toSeconds());
+
+            long begin = System.nanoTime();
+            Thread progress = Thread.ofPlatform().daemon().start(() -> progress(stats, begin));
+            try (ExecutorService drivers = Executors.newVirtualThreadPerTaskExecutor()) {
+                arrive(config, stats, backend, chargerIds, drivers, begin);
+                System.out.printf("Arrivals done, waiting for %d drivers still in their session%n", stats.inFlight());
+            } // close() waits for every driver to finish
+            progress.interrupt();
+
+            stats.print(System.out, (System.nanoTime() - begin) / 1e9);
+        } finally {
+            if (cmsStub != null) cmsStub.close();
+        }
+    }
+
+    /**
+     * Creates the run's chargers in parallel. Setup requests are not part of the stats.
+     */
+    private static List<Long> hostFleet(Config config, String hostName) throws InterruptedException {
+        BackendClient setup = new BackendClient(config.backend(), new Stats());
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService hosts = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.chargers(); i++) {
+                int n = i;
+                hosts.submit(() -> {
+                    BackendClient.Response created = setup.post("POST /api/chargers", "/api/chargers", Map.of(
+                            "hostName", hostName,
+                            "location", "Loadgen " + n,
+                            "brand", "Loadgen",
+                            "type", n % 3 == 0 ? "AC" : "DC",
+                            "duration", 60,
+                            "latitude", 18.5 + (n % 100) * 0.001,
+                            "longitude", 73.8 + (n / 100) * 0.001));
+                    if (!created.ok()) throw new IllegalStateException("Hosting a charger failed: " + created);
+                    ids.add(setup.id(created));
+                });
+            }
+        }
+        if (ids.size() < config.chargers()) {
+            throw new IllegalStateException("Only " + ids.size() + " of " + config.chargers() + " chargers hosted");
+        }
+        return List.copyOf(ids);
+    }
+
+    private static void arrive(Config config, Stats stats, BackendClient backend, List<Long> chargerIds,
+                               ExecutorService drivers, long begin) {
+        long end = begin + config.duration().toNanos();
+        long next = begin;
+        long driver = 0;
+        while (true) {
+            // Exponential gaps: a Poisson process at the configured rate
+            next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / config.rate() * 1e9);
+            if (next >= end) return;
+            long wait;
+            while ((wait = next - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+            drivers.submit(new Driver(backend, stats, config, chargerIds, "driver" + driver++));
+        }
+    }
+
+    private static void progress(Stats stats, long begin) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.printf("%4ds  arrived %d, completed %d, in flight %d, conflicts %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin),
+                    stats.arrivals.sum(), stats.completed.sum(), stats.inFlight(), stats.conflicts.sum());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.karocharge.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (microseconds, up to a minute at 3 significant digits)
+ * and the run's flow counters. Safe to record into from any number of driver threads.
+ */
+class Stats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    final LongAdder arrivals = new LongAdder();
+    final LongAdder completed = new LongAdder();
+    final LongAdder abandoned = new LongAdder();
+    final LongAdder stuck = new LongAdder();
+    final LongAdder bookingAttempts = new LongAdder();
+    final LongAdder conflicts = new LongAdder();
+    final LongAdder gaveUp = new LongAdder();
+
+    /**
+     * One request to the endpoint: its latency and response status (0 if it never got one).
+     */
+    void record(String endpoint, long nanos, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        stats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_MICROS));
+        if (status < 200 || status >= 300) stats.errors.increment();
+    }
+
+    long inFlight() {
+        return arrivals.sum() - completed.sum() - abandoned.sum() - gaveUp.sum();
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%n%-34s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            Histogram h = e.getValue().latency.copy();
+            out.printf("%-34s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                    e.getKey(), h.getTotalCount(), h.getTotalCount() / seconds,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()), e.getValue().errors.sum());
+        });
+
+        long attempts = bookingAttempts.sum();
+        out.printf("%ndrivers: %d arrived, %d completed the flow (%.1f/s), %d found no free charger, %d abandoned mid-flow%n",
+                arrivals.sum(), completed.sum(), completed.sum() / seconds, gaveUp.sum(), abandoned.sum());
+        if (stuck.sum() > 0) {
+            out.printf("WARNING: %d abandoned bookings could not be cancelled; their chargers stay taken for the rest of the run%n",
+                    stuck.sum());
+        }
+        out.printf("bookings: %d attempts, %d conflicts (%.1f%%)%n",
+                attempts, conflicts.sum(), attempts == 0 ? 0.0 : 100.0 * conflicts.sum() / attempts);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+}
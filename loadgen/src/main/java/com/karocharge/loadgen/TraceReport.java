@@ -0,0 +1,110 @@
+package com.karocharge.loadgen;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline latency breakdown from the span files the backend and the CMS write
+ * (karocharge.tracing.file). Joins them by trace id, then prints:
+ *   - per hop (service, kind, name): count, p50, p99 and max
+ *   - the slowest traces as trees, each span with its total and self time (time not spent
+ *     in its children), which shows which hop a slow booking was waiting on.
+ *
+ * Arguments: the span files, then optionally top=N (slowest traces to print, default 5).
+ */
+public class TraceReport {
+
+    record Span(String traceId, String spanId, String parentSpanId, String service, String kind,
+                String name, long startMicros, long durationMicros) {
+
+        String hop() {
+            return service + " " + kind + " " + name;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        int top = 5;
+        Map<String, List<Span>> traces = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("top=")) {
+                top = Integer.parseInt(arg.substring(4));
+                continue;
+            }
+            try (var lines = Files.lines(Path.of(arg))) {
+                lines.filter(line -> !line.isBlank()).forEach(line -> {
+                    Span span = span(jsonMapper.readTree(line));
+                    traces.computeIfAbsent(span.traceId(), id -> new ArrayList<>()).add(span);
+                });
+            }
+        }
+
+        printHops(traces);
+        traces.values().stream()
+                .filter(spans -> root(spans) != null)
+                .sorted(Comparator.comparingLong((List<Span> spans) -> root(spans).durationMicros()).reversed())
+                .limit(top)
+                .forEach(TraceReport::printTree);
+    }
+
+    private static Span span(JsonNode node) {
+        JsonNode uri = node.path("tags").path("uri");
+        // Server and client spans are named after the method only: add the endpoint
+        String name = node.get("name").asString() + (uri.isMissingNode() ? "" : " " + uri.asString());
+        return new Span(node.get("traceId").asString(), node.get("spanId").asString(),
+                node.get("parentSpanId").isNull() ? null : node.get("parentSpanId").asString(),
+                node.get("service").asString(), node.get("kind").asString(), name,
+                node.get("startMicros").asLong(), node.get("durationMicros").asLong());
+    }
+
+    private static Span root(List<Span> spans) {
+        return spans.stream().filter(span -> span.parentSpanId() == null).findFirst().orElse(null);
+    }
+
+    private static void printHops(Map<String, List<Span>> traces) {
+        Map<String, List<Long>> hops = new TreeMap<>();
+        traces.values().forEach(spans -> spans.forEach(span ->
+                hops.computeIfAbsent(span.hop(), hop -> new ArrayList<>()).add(span.durationMicros())));
+
+        System.out.printf("%-70s %7s %9s %9s %9s%n", "hop", "count", "p50 ms", "p99 ms", "max ms");
+        hops.forEach((hop, durations) -> {
+            durations.sort(null);
+            System.out.printf("%-70s %7d %9.2f %9.2f %9.2f%n", hop, durations.size(),
+                    percentile(durations, 50), percentile(durations, 99), durations.getLast() / 1000.0);
+        });
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1000.0;
+    }
+
+    private static void printTree(List<Span> spans) {
+        Map<String, List<Span>> children = new HashMap<>();
+        for (Span span : spans) {
+            if (span.parentSpanId() != null) children.computeIfAbsent(span.parentSpanId(), id -> new ArrayList<>()).add(span);
+        }
+        Span root = root(spans);
+        System.out.printf("%ntrace %s (%.2f ms)%n", root.traceId(), root.durationMicros() / 1000.0);
+        printSpan(root, children, 1);
+    }
+
+    private static void printSpan(Span span, Map<String, List<Span>> children, int depth) {
+        List<Span> kids = children.getOrDefault(span.spanId(), List.of());
+        long childMicros = kids.stream().mapToLong(Span::durationMicros).sum();
+        System.out.printf("%s%s  %.2f ms (self %.2f ms)%n", "  ".repeat(depth), span.hop(),
+                span.durationMicros() / 1000.0, Math.max(0, span.durationMicros() - childMicros) / 1000.0);
+        kids.stream().sorted(Comparator.comparingLong(Span::startMicros))
+                .forEach(child -> printSpan(child, children, depth + 1));
+    }
+}